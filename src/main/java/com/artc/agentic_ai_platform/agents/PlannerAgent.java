@@ -3,91 +3,227 @@ package com.artc.agentic_ai_platform.agents;
 import com.artc.agentic_ai_platform.config.AppConfig;
 import com.artc.agentic_ai_platform.constants.AppConstants;
 import com.artc.agentic_ai_platform.core.IAgent;
+import com.artc.agentic_ai_platform.core.IAgentTool;
 import com.artc.agentic_ai_platform.core.IStorageBackend;
+import com.artc.agentic_ai_platform.core.exception.RetryableException;
+import com.artc.agentic_ai_platform.core.ITaskQueue;
 import com.artc.agentic_ai_platform.core.llm.ILlmService;
+import com.artc.agentic_ai_platform.core.llm.PromptKey;
 import com.artc.agentic_ai_platform.model.AgentType;
 import com.artc.agentic_ai_platform.model.Task;
 import com.artc.agentic_ai_platform.model.WorkflowStatus;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.RequiredArgsConstructor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
 
+/**
+ * Turns an incident into WORKER tasks, one per plan step.
+ *
+ * Plan cache (app.agents.planner.plan_cache): the steps planned for an incident signature
+ * (case- and whitespace-normalized request text) are reused for the same signature within the TTL,
+ * skipping the LLM call. Optionally shared through IStorageBackend. The key includes the registered
+ * tool names, so a node with a different tool set (added or removed IAgentTool) never sees these plans.
+ * Metrics: cache.gets{cache=planner_plans}.
+ *
+ * Streaming (app.agents.planner.streaming): steps are parsed from the LLM stream as they complete and
+ * queued right away, see planStreaming().
+ */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class PlannerAgent implements IAgent {
 
+    private static final String SYSTEM_PROMPT = "You are a Planner Agent in a smart factory. Output JSON only. Available tools: [LOG_ANALYZER, ERP_FETCHER].";
+    private static final long STEP_CLAIM_TTL_SEC = 3600;
+
     private final ILlmService llmService;
     private final ObjectMapper objectMapper;
     private final IStorageBackend storage;
+    private final ITaskQueue queue; // Streaming plans queue their steps early, before process() returns
     private final AppConfig appConfig;
+    private final String toolSet; // Sorted tool names: part of every plan cache key
+    private final AppConfig.Agents.PlannerConfig.PlanCache planCacheConfig;
+    private final Cache<String, List<PlanStep>> planCache; // null = disabled
+
+    public PlannerAgent(ILlmService llmService, ObjectMapper objectMapper, IStorageBackend storage, ITaskQueue queue,
+                        AppConfig appConfig, List<IAgentTool> tools, MeterRegistry registry) {
+        this.llmService = llmService;
+        this.objectMapper = objectMapper;
+        this.storage = storage;
+        this.queue = queue;
+        this.appConfig = appConfig;
+        this.toolSet = String.join(",", tools.stream().map(IAgentTool::getName).sorted().toList());
+        this.planCacheConfig = appConfig.getAgents().getPlanner().getPlanCache();
+        this.planCache = buildPlanCache(planCacheConfig, registry);
+    }
 
     @Override
     public AgentType getType() { return AgentType.PLANNER; }
 
     @Override
     public List<Task> process(Task task) {
+        if (!startPlanning(task)) return List.of();
+
+        List<PlanStep> cached = cachedPlan(task);
+        if (cached != null) return emit(task, cached);
+        if (isStreaming()) return await(planStreaming(task));
+
+        // 3. Call the AI
+        String aiResponse = llmService.generate(SYSTEM_PROMPT, userPrompt(task));
+        return plan(task, aiResponse);
+    }
+
+    @Override
+    public CompletableFuture<List<Task>> processAsync(Task task) {
+        if (!startPlanning(task)) return CompletableFuture.completedFuture(List.of());
+
+        List<PlanStep> cached = cachedPlan(task);
+        if (cached != null) return CompletableFuture.completedFuture(emit(task, cached));
+        if (isStreaming()) return planStreaming(task);
+
+        return llmService.generateAsync(SYSTEM_PROMPT, userPrompt(task))
+                .thenApply(aiResponse -> plan(task, aiResponse));
+    }
 
+    private boolean startPlanning(Task task) {
         // 1. Runtime gate (Configuration check)
         if(!appConfig.getAgents().getPlanner().isEnabled()) {
             log.warn("[PLANNER] Disabled by config. Dropping task: {}", task.getTaskId());
-            return List.of();
+            return false;
         }
 
         storage.save(String.format(AppConstants.KEY_STATUS,task.getWorkflowId()), WorkflowStatus.PLANNING.name());
 
-        log.info("[PLANNER] Prompting LLM for incident: {}", task.getUserRequest());
+        log.info("[PLANNER] Planning incident: {}", task.getUserRequest());
+        return true;
+    }
 
-        // 2. Construct the Prompt (Prompt Engineering)
-        String systemPrompt = "You are a Planner Agent in a smart factory. Output JSON only. Available tools: [LOG_ANALYZER, ERP_FETCHER].";
-        String userPrompt = "Incident Report: " + task.getUserRequest();
+    private boolean isStreaming() {
+        return appConfig.getAgents().getPlanner().isStreaming();
+    }
 
-        // 3. Call the AI
-        String aiResponse = llmService.generate(systemPrompt, userPrompt);
+    private List<PlanStep> cachedPlan(Task task) {
+        if (planCache == null) return null;
+        String key = planKey(task);
+        List<PlanStep> steps = planCache.getIfPresent(key);
+        if (steps == null) {
+            steps = readSharedPlan(key);
+            if (steps != null) planCache.put(key, steps);
+        }
+        if (steps != null) log.info("[PLANNER] Reusing cached plan ({} steps) for workflow {}", steps.size(), task.getWorkflowId());
+        return steps;
+    }
+
+    private void cachePlan(Task task, List<PlanStep> steps) {
+        if (planCache == null || steps.isEmpty()) return; // Only a plan that parsed into steps is worth repeating
+        String key = planKey(task);
+        planCache.put(key, List.copyOf(steps));
+        writeSharedPlan(key, steps);
+    }
+
+    // Same identity scheme as the LLM response cache; the tool names stand in for the system prompt
+    private String planKey(Task task) {
+        String request = task.getUserRequest() == null ? "" : task.getUserRequest();
+        return PromptKey.of(toolSet, request.toLowerCase(Locale.ROOT));
+    }
+
+    // The shared tier is an optimization: if storage is down, plan with the LLM rather than fail the task
+    private List<PlanStep> readSharedPlan(String key) {
+        if (!planCacheConfig.isShared()) return null;
+        try {
+            Optional<String> json = storage.get(String.format(AppConstants.KEY_PLAN_CACHE, key), String.class);
+            return json.isEmpty() ? null : List.of(objectMapper.readValue(json.get(), PlanStep[].class));
+        } catch (Exception e) {
+            log.warn("[PLANNER] Shared plan cache read failed: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeSharedPlan(String key, List<PlanStep> steps) {
+        if (!planCacheConfig.isShared()) return;
+        try {
+            String sharedKey = String.format(AppConstants.KEY_PLAN_CACHE, key);
+            String json = objectMapper.writeValueAsString(steps);
+            if (planCacheConfig.getTtlSec() > 0) storage.save(sharedKey, json, planCacheConfig.getTtlSec()); else storage.save(sharedKey, json);
+        } catch (Exception e) {
+            log.warn("[PLANNER] Shared plan cache write failed: {}", e.getMessage());
+        }
+    }
+
+    // 2. Construct the Prompt (Prompt Engineering)
+    private String userPrompt(Task task) {
+        return "Incident Report: " + task.getUserRequest();
+    }
+
+    private List<Task> plan(Task task, String aiResponse) {
         log.info("[PLANNER] AI Reasoning: {}", aiResponse);
 
-        // 4. Parse AI Output (JSON extraction) and create tasks accordingly
-        List<String> expectedTools = new ArrayList<>();
-        List<Task> downstreamTasks = new ArrayList<>();
+        // 4. Parse AI Output (JSON extraction)
+        List<PlanStep> steps = new ArrayList<>();
         try {
-            JsonNode root = objectMapper.readTree(aiResponse);
-            JsonNode steps = root.get("steps");
-
-            if(steps!=null && steps.isArray()) {
-                for(JsonNode step: steps) {
-                    String toolName = step.get("tool").asText();
-
-                    List<String> inputs = new ArrayList<>();
-
-                    if(step.has("inputs") && step.get("inputs").isArray()) {
-                        for(JsonNode input: step.get("inputs")) {
-                            inputs.add(input.asText());
-                        }
-                    } else {
-                        inputs.add("DEFAULT_SCAN");
-                    }
-
-                    expectedTools.add(toolName);
-                    downstreamTasks.add(Task.builder()
-                            .workflowId(task.getWorkflowId())
-                            .taskId(UUID.randomUUID().toString())
-                            .userRequest(task.getUserRequest())
-                            .targetAgent(AgentType.WORKER)
-                            .toolName(toolName)
-                            .toolArguments(inputs)
-                            .build());
-                }
-            }
+            steps = parseSteps(aiResponse);
+            cachePlan(task, steps); // Not reached on a parse error: a partial plan is never cached
         } catch (Exception e) {
             log.error("Failed to parse AI response", e);
             // Fallback strategy could go here
         }
+        return emit(task, steps);
+    }
+
+    private List<PlanStep> parseSteps(String aiResponse) throws IOException {
+        List<PlanStep> steps = new ArrayList<>();
+        JsonNode root = objectMapper.readTree(aiResponse);
+        JsonNode stepNodes = root.get("steps");
+
+        if(stepNodes!=null && stepNodes.isArray()) {
+            for(JsonNode step: stepNodes) {
+                steps.add(toStep(step));
+            }
+        }
+        return steps;
+    }
+
+    private static PlanStep toStep(JsonNode step) {
+        String toolName = step.get("tool").asText();
+
+        List<String> inputs = new ArrayList<>();
+
+        if(step.has("inputs") && step.get("inputs").isArray()) {
+            for(JsonNode input: step.get("inputs")) {
+                inputs.add(input.asText());
+            }
+        } else {
+            inputs.add("DEFAULT_SCAN");
+        }
+        return new PlanStep(toolName, List.copyOf(inputs));
+    }
+
+    // Creates a WORKER task per step
+    private List<Task> emit(Task task, List<PlanStep> steps) {
+        List<String> expectedTools = new ArrayList<>();
+        List<Task> downstreamTasks = new ArrayList<>();
+        for (PlanStep step : steps) {
+            expectedTools.add(step.tool());
+            downstreamTasks.add(workerTask(task, step));
+        }
 
         // 5. Save Manifest (The "Contract" for the Reviewer) & the updated workflow status
         // Key: wf:{id}:manifest -> Value: ["LOG_ANALYZER", "ERP_FETCHER"]
@@ -96,4 +232,148 @@ public class PlannerAgent implements IAgent {
         storage.save(String.format(AppConstants.KEY_STATUS, task.getWorkflowId()), WorkflowStatus.IN_PROGRESS.name());
         return downstreamTasks;
     }
+
+    private static Task workerTask(Task task, PlanStep step) {
+        return workerTask(task, step, UUID.randomUUID().toString());
+    }
+
+    private static Task workerTask(Task task, PlanStep step, String taskId) {
+        return Task.builder()
+                .workflowId(task.getWorkflowId())
+                .taskId(taskId)
+                .userRequest(task.getUserRequest())
+                .targetAgent(AgentType.WORKER)
+                .priority(task.getPriority())
+                .toolName(step.tool())
+                .toolArguments(new ArrayList<>(step.inputs()))
+                .build();
+    }
+
+    /**
+     * Streaming plan (app.agents.planner.streaming): each step is queued as a WORKER task the moment
+     * its JSON object is complete, so the first worker starts while the LLM is still writing the rest.
+     * Until the plan is complete the manifest reads MANIFEST_PENDING, which keeps workers from handing
+     * off to the Reviewer early; the planner checks for that hand-off itself at the end.
+     * A retry of this task queues only the steps no earlier attempt queued (see dispatch()), and a stream
+     * that breaks off mid-plan fails the task rather than leave a manifest of only the steps sent so far.
+     */
+    private CompletableFuture<List<Task>> planStreaming(Task task) {
+        StreamingPlanParser parser;
+        try {
+            parser = new StreamingPlanParser(objectMapper);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        List<PlanStep> dispatched = new ArrayList<>(); // Chunks arrive one at a time, in order
+        boolean[] unparsable = {false};
+        Map<String, String> mdc = MDC.getCopyOfContextMap(); // Callbacks run on the LLM client's threads
+        storage.save(String.format(AppConstants.KEY_MANIFEST, task.getWorkflowId()), ReviewHandoff.MANIFEST_PENDING);
+
+        return llmService.generateStream(SYSTEM_PROMPT, userPrompt(task), chunk -> withMdc(mdc, () -> {
+            if (unparsable[0]) return null;
+            List<PlanStep> ready = new ArrayList<>();
+            try {
+                for (JsonNode node : parser.feed(chunk)) ready.add(toStep(node));
+            } catch (Exception e) {
+                unparsable[0] = true; // The rest of the plan comes from the full text
+                log.warn("[PLANNER] Streamed plan is not parseable ({}). Waiting for the full response.", e.getMessage());
+            }
+            for (PlanStep step : ready) dispatch(task, step, dispatched);
+            return null;
+        })).thenApply(aiResponse -> withMdc(mdc, () -> {
+            if (dispatched.isEmpty()) return plan(task, aiResponse);
+            log.info("[PLANNER] AI Reasoning: {}", aiResponse);
+            if (unparsable[0]) dispatchRest(task, aiResponse, dispatched);
+            return finishStreaming(task, dispatched);
+        }));
+    }
+
+    /**
+     * Queues step number dispatched.size() + 1 as WORKER task "{workflowId}:step:{n}", at most once per
+     * workflow: the claim in storage outlives a retry of this planner task, whose pushes bypass the engine.
+     * A step an earlier attempt already queued is only counted, under the tool it was queued with.
+     */
+    private void dispatch(Task task, PlanStep step, List<PlanStep> dispatched) {
+        int n = dispatched.size() + 1;
+        String claimKey = String.format(AppConstants.KEY_PLAN_STEP, task.getWorkflowId(), n);
+        if (dispatched.isEmpty()) {
+            storage.save(String.format(AppConstants.KEY_STATUS, task.getWorkflowId()), WorkflowStatus.IN_PROGRESS.name());
+        }
+
+        Optional<String> queuedTool = storage.saveIfAbsent(claimKey, step.tool(), STEP_CLAIM_TTL_SEC);
+        if (queuedTool.isPresent()) {
+            dispatched.add(new PlanStep(queuedTool.get(), step.inputs()));
+            log.info("[PLANNER] Step {} ({}) of workflow {} was queued by an earlier attempt", n, queuedTool.get(), task.getWorkflowId());
+            return;
+        }
+        try {
+            queue.push(workerTask(task, step, task.getWorkflowId() + ":step:" + n));
+        } catch (RuntimeException e) {
+            storage.delete(claimKey); // Not queued after all: leave the step to the retry
+            throw e;
+        }
+        dispatched.add(step);
+        log.info("[PLANNER] Step {} ({}) dispatched while planning workflow {}", n, step.tool(), task.getWorkflowId());
+    }
+
+    // The stream stopped parsing after some steps were out: take the rest from the full text, or fail
+    private void dispatchRest(Task task, String aiResponse, List<PlanStep> dispatched) {
+        List<PlanStep> steps;
+        try {
+            steps = parseSteps(aiResponse);
+        } catch (Exception e) {
+            throw new RetryableException("Plan for workflow " + task.getWorkflowId() + " broke off after "
+                    + dispatched.size() + " dispatched steps: " + e.getMessage());
+        }
+        for (int i = dispatched.size(); i < steps.size(); i++) dispatch(task, steps.get(i), dispatched);
+    }
+
+    private List<Task> finishStreaming(Task task, List<PlanStep> steps) {
+        cachePlan(task, steps);
+
+        List<String> tools = steps.stream().map(PlanStep::tool).toList();
+        storage.save(String.format(AppConstants.KEY_MANIFEST, task.getWorkflowId()), String.join(",", tools));
+
+        // Workers that finished while the manifest was pending left the hand-off to the planner
+        long expected = tools.stream().distinct().count();
+        long completed = storage.members(String.format(AppConstants.KEY_COMPLETED_TOOLS, task.getWorkflowId())).size();
+        if (completed < expected) return List.of();
+        log.info("[PLANNER] All {} steps of workflow {} finished while planning. Triggering Reviewer.", expected, task.getWorkflowId());
+        return ReviewHandoff.reviewerTask(storage, task);
+    }
+
+    // Runs with the planning task's MDC (traceId), then puts back whatever the thread had
+    private static <T> T withMdc(Map<String, String> mdc, Supplier<T> body) {
+        Map<String, String> previous = MDC.getCopyOfContextMap();
+        if (mdc != null) MDC.setContextMap(mdc);
+        try {
+            return body.get();
+        } finally {
+            if (previous != null) MDC.setContextMap(previous); else MDC.clear();
+        }
+    }
+
+    // Blocking wait for the streaming path (platform/virtual thread modes)
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while planning", e); // Engine treats this as a shutdown signal
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re; // Same exception type as the non-streaming path
+            throw new IllegalStateException("Planning failed", e.getCause());
+        }
+    }
+
+    private static Cache<String, List<PlanStep>> buildPlanCache(AppConfig.Agents.PlannerConfig.PlanCache config, MeterRegistry registry) {
+        if (config == null || !config.isEnabled()) return null;
+        Caffeine<Object, Object> builder = Caffeine.newBuilder().maximumSize(config.getMaxEntries()).recordStats();
+        if (config.getTtlSec() > 0) builder.expireAfterWrite(Duration.ofSeconds(config.getTtlSec()));
+        Cache<String, List<PlanStep>> cache = builder.build();
+        CaffeineCacheMetrics.monitor(registry, cache, "planner_plans");
+        return cache;
+    }
+
+    private record PlanStep(String tool, List<String> inputs) {}
 }
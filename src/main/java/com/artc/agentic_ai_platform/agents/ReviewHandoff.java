@@ -0,0 +1,41 @@
+package com.artc.agentic_ai_platform.agents;
+
+import com.artc.agentic_ai_platform.constants.AppConstants;
+import com.artc.agentic_ai_platform.core.IStorageBackend;
+import com.artc.agentic_ai_platform.model.AgentType;
+import com.artc.agentic_ai_platform.model.Task;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Fan-in gate between the Workers and the Reviewer. Whoever sees a workflow's plan fully executed first
+ * (normally the last worker; the planner when workers finished while the plan was still streaming)
+ * creates the Reviewer task, and only once per workflow. A retry of that same task may create it again,
+ * in case the first attempt never got it queued.
+ */
+final class ReviewHandoff {
+
+    // Manifest while a streaming plan is still being generated: its steps can't be counted yet
+    static final String MANIFEST_PENDING = "?";
+
+    private static final long CLAIM_TTL_SEC = 3600;
+
+    private ReviewHandoff() {}
+
+    static List<Task> reviewerTask(IStorageBackend storage, Task from) {
+        String claimKey = String.format(AppConstants.KEY_REVIEW_HANDOFF, from.getWorkflowId());
+        String claimant = from.getTaskId() == null ? "" : from.getTaskId();
+        Optional<String> owner = storage.saveIfAbsent(claimKey, claimant, CLAIM_TTL_SEC);
+        if (owner.isPresent() && !owner.get().equals(claimant)) return List.of();
+
+        return List.of(Task.builder()
+                .workflowId(from.getWorkflowId())
+                .taskId(UUID.randomUUID().toString())
+                .targetAgent(AgentType.REVIEWER)
+                .priority(from.getPriority())
+                .userRequest(from.getUserRequest())
+                .build());
+    }
+}
@@ -3,7 +3,8 @@ package com.artc.agentic_ai_platform.agents;
 import com.artc.agentic_ai_platform.config.AppConfig;
 import com.artc.agentic_ai_platform.constants.AppConstants;
 import com.artc.agentic_ai_platform.core.IAgent;
-import com.artc.agentic_ai_platform.core.llm.MockLLMService;
+import com.artc.agentic_ai_platform.core.exception.RetryableException;
+import com.artc.agentic_ai_platform.core.llm.ILlmService;
 import com.artc.agentic_ai_platform.core.IStorageBackend;
 import com.artc.agentic_ai_platform.model.AgentType;
 import com.artc.agentic_ai_platform.model.Task;
@@ -11,10 +12,12 @@ import com.artc.agentic_ai_platform.model.WorkflowStatus;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Service
@@ -22,8 +25,10 @@ import java.util.stream.Collectors;
 @Slf4j
 public class ReviewerAgent implements IAgent {
 
+    private static final String SYSTEM_PROMPT = "Reviewer Agent System Prompt";
+
     private final IStorageBackend storage;
-    private final MockLLMService llmService;
+    private final ILlmService llmService;
     private final AppConfig appConfig;
 
     @Override
@@ -31,45 +36,71 @@ public class ReviewerAgent implements IAgent {
 
     @Override
     public List<Task> process(Task task) {
+        Optional<String> userPrompt = prepareReview(task);
+        if (userPrompt.isEmpty()) return List.of();
+
+        String decision = llmService.generate(SYSTEM_PROMPT, userPrompt.get());
+        return complete(task, decision);
+    }
+
+    @Override
+    public CompletableFuture<List<Task>> processAsync(Task task) {
+        Optional<String> userPrompt = prepareReview(task);
+        if (userPrompt.isEmpty()) return CompletableFuture.completedFuture(List.of());
+
+        return llmService.generateAsync(SYSTEM_PROMPT, userPrompt.get())
+                .thenApply(decision -> complete(task, decision));
+    }
+
+    // Steps 1-6: returns the review prompt once all results are in (status is then REVIEWING), empty if there is
+    // nothing to review. Inputs not visible yet throw RetryableException: this is the workflow's only reviewer task.
+    private Optional<String> prepareReview(Task task) {
 
         // --- 1. Runtime Gate (Configuration check)
         if(!appConfig.getAgents().getReviewer().isEnabled()) {
             log.info("[REVIEWER] Disabled by config. Skipping analysis for workflow: {}", task.getWorkflowId());
             storage.save(String.format(AppConstants.KEY_STATUS,task.getWorkflowId()), WorkflowStatus.COMPLETED_NO_REVIEW.name());
-            return List.of();
+            return Optional.empty();
         }
 
         String wfId = task.getWorkflowId();
+        String statusKey = String.format(AppConstants.KEY_STATUS, wfId);
+        String manifestKey = String.format(AppConstants.KEY_MANIFEST, wfId);
+
+        // Status + Manifest in a single round trip
+        Map<String, String> meta = storage.multiGet(List.of(statusKey, manifestKey), String.class);
 
         // --- 2. Idempotency check (Prevent Double Processing) ---
-        Optional<String> status = storage.get(String.format(AppConstants.KEY_STATUS,task.getWorkflowId()), String.class);
-        if (status.isPresent()) {
-            String current = status.get();
-            if (WorkflowStatus.COMPLETED.name().equals(current) || WorkflowStatus.REVIEWING.name().equals(current)) {
-                log.info("[REVIEWER] Workflow {} is already completed. Ignoring duplicate trigger.", wfId);
-                return List.of();
-            }
+        String current = meta.get(statusKey);
+        if (WorkflowStatus.COMPLETED.name().equals(current) || WorkflowStatus.REVIEWING.name().equals(current)) {
+            log.info("[REVIEWER] Workflow {} is already completed. Ignoring duplicate trigger.", wfId);
+            return Optional.empty();
         }
 
         // --- 3. Fetch Manifest (What are we waiting for ?) ---
-        Optional<String> manifestOpt = storage.get(String.format(AppConstants.KEY_MANIFEST,task.getWorkflowId()), String.class);
-        if(manifestOpt.isEmpty()) {
+        String manifest = meta.get(manifestKey);
+        if(manifest == null || ReviewHandoff.MANIFEST_PENDING.equals(manifest)) {
             log.warn("[REVIEWER] Manifest missing for {}. Planner might be slow", wfId);
-            return List.of(); // Wait for Planner to save manifest
+            throw new RetryableException("Manifest not ready for workflow " + wfId); // Wait for Planner to save manifest
         }
 
-        String[] expectedTools = manifestOpt.get().split(",");
-        Map<String, String> collectedResults = new HashMap<>();
-
-        // --- 4. Dynamic Data Completeness check ---
+        String[] expectedTools = manifest.split(",");
+        Map<String, String> resultKeys = new LinkedHashMap<>();
         for(String toolName: expectedTools) {
-            Optional<String> result = storage.get(String.format(AppConstants.KEY_TOOL_RESULT, task.getWorkflowId(),toolName), String.class);
+            resultKeys.put(toolName, String.format(AppConstants.KEY_TOOL_RESULT, wfId, toolName));
+        }
 
-            if(result.isEmpty()) {
-                log.info("[REVIEWER] Waiting for tool: {}", toolName);
-                return List.of();
+        // --- 4. Dynamic Data Completeness check (all results in one round trip) ---
+        Map<String, String> fetched = storage.multiGet(new ArrayList<>(resultKeys.values()), String.class);
+        Map<String, String> collectedResults = new LinkedHashMap<>();
+        for(Map.Entry<String, String> e: resultKeys.entrySet()) {
+            String result = fetched.get(e.getValue());
+
+            if(result == null) {
+                log.info("[REVIEWER] Waiting for tool: {}", e.getKey());
+                throw new RetryableException("Result of " + e.getKey() + " not visible yet for workflow " + wfId);
             }
-            collectedResults.put(toolName, result.get());
+            collectedResults.put(e.getKey(), result);
         }
 
         // --- 5. Critical Section (The Execution) ---
@@ -82,20 +113,24 @@ public class ReviewerAgent implements IAgent {
                 .map(e -> String.format(" FINDING (%s): %s", e.getKey(), e.getValue()))
                 .collect(Collectors.joining("\n"));
 
-        String userPrompt = String.format("""
+        return Optional.of(String.format("""
                 ORIGINAL INTENT: %s
                 
                 %s
                 
                 Synthesize these findings into a final recommendation.
-                """, task.getUserRequest(), findings);
-
-        String systemPrompt = "Reviewer Agent System Prompt";
+                """, task.getUserRequest(), findings));
+    }
 
-        String decision = llmService.generate(systemPrompt, userPrompt);
+    private List<Task> complete(Task task, String decision) {
+        String wfId = task.getWorkflowId();
+        String statusKey = String.format(AppConstants.KEY_STATUS, wfId);
 
-        storage.save(String.format(AppConstants.KEY_REVIEW,task.getWorkflowId()), decision);
-        storage.save(String.format(AppConstants.KEY_STATUS,task.getWorkflowId()), WorkflowStatus.COMPLETED.name());
+        // Decision first, then status (pipelined in this order) so COMPLETED never shows without a decision
+        Map<String, Object> outcome = new LinkedHashMap<>();
+        outcome.put(String.format(AppConstants.KEY_REVIEW, wfId), decision);
+        outcome.put(statusKey, WorkflowStatus.COMPLETED.name());
+        storage.multiSave(outcome);
 
         log.info("#######################################################");
         log.info("FINAL DECISION: {}", decision);
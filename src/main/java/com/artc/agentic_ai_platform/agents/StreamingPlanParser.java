@@ -0,0 +1,74 @@
+package com.artc.agentic_ai_platform.agents;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Incremental reader for the planner's {"steps": [...]} answer. Text is fed as the LLM streams it,
+ * through Jackson's non-blocking parser, and each element of the top-level "steps" array is handed
+ * back as soon as its closing brace arrives. Not thread-safe: feed from one stream.
+ */
+final class StreamingPlanParser {
+
+    private final ObjectMapper mapper;
+    private final JsonParser parser;
+    private final ByteArrayFeeder feeder;
+
+    private int depth;            // Open containers outside the step being collected
+    private boolean stepsNext;    // Just read the top-level "steps" field name
+    private boolean inSteps;      // Inside the top-level "steps" array
+    private TokenBuffer step;     // Tokens of the step object being collected
+    private int stepDepth;
+
+    StreamingPlanParser(ObjectMapper mapper) throws IOException {
+        this.mapper = mapper;
+        this.parser = mapper.getFactory().createNonBlockingByteArrayParser();
+        this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+    }
+
+    /**
+     * Parses as far as the text received so far allows and returns the steps completed by this chunk.
+     * Throws if the text is not JSON (e.g. prose around it); callers fall back to parsing the full response.
+     */
+    List<JsonNode> feed(String chunk) throws IOException {
+        byte[] bytes = chunk.getBytes(StandardCharsets.UTF_8);
+        feeder.feedInput(bytes, 0, bytes.length);
+
+        List<JsonNode> completed = new ArrayList<>();
+        JsonToken token;
+        while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            if (step != null) {
+                step.copyCurrentEvent(parser);
+                if (token.isStructStart()) stepDepth++;
+                if (token.isStructEnd() && --stepDepth == 0) {
+                    completed.add(mapper.readTree(step.asParser()));
+                    step = null;
+                }
+                continue;
+            }
+
+            if (token == JsonToken.START_OBJECT && inSteps && depth == 2) {
+                step = new TokenBuffer(mapper, false);
+                step.copyCurrentEvent(parser);
+                stepDepth = 1;
+            } else if (token.isStructStart()) {
+                if (stepsNext && token == JsonToken.START_ARRAY) inSteps = true;
+                depth++;
+            } else if (token.isStructEnd()) {
+                depth--;
+                if (depth < 2) inSteps = false;
+            }
+            stepsNext = token == JsonToken.FIELD_NAME && depth == 1 && "steps".equals(parser.currentName());
+        }
+        return completed;
+    }
+}
@@ -5,38 +5,76 @@ import com.artc.agentic_ai_platform.constants.AppConstants;
 import com.artc.agentic_ai_platform.core.IAgent;
 import com.artc.agentic_ai_platform.core.IAgentTool;
 import com.artc.agentic_ai_platform.core.exception.TerminalException;
-import com.artc.agentic_ai_platform.core.llm.MockLLMService;
+import com.artc.agentic_ai_platform.core.llm.ILlmService;
+import com.artc.agentic_ai_platform.executor.AdaptiveLimiter;
+import com.artc.agentic_ai_platform.executor.ConcurrencyLimits;
+import com.artc.agentic_ai_platform.executor.Hedger;
+import com.artc.agentic_ai_platform.executor.InterruptibleTask;
 import com.artc.agentic_ai_platform.core.IStorageBackend;
 import com.artc.agentic_ai_platform.model.AgentType;
 import com.artc.agentic_ai_platform.model.Task;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
+/**
+ * Runs one plan step: the tool on every item in parallel on the internal pool, then an LLM analysis
+ * per item (or per batch, see app.agents.workers.llm_batch).
+ *
+ * Deadlines (app.agents.workers.item_timeout_sec / task_timeout_sec): an item that runs past its own
+ * deadline, or is still running when the task's deadline passes, is cancelled. Its pool thread is
+ * interrupted and the item is saved as a "Timed out analyzing ..." marker next to the finished ones.
+ *
+ * Hedging (app.agents.workers.tools.hedge): a tool call slower than usual gets a duplicate, see Hedger.
+ */
 @Service
 @Slf4j
 public class WorkerAgent implements IAgent {
 
+    private static final String SYSTEM_PROMPT = "You are an intelligent Worker Agent. Analyze this specific data chunk.";
+    private static final String BATCH_SYSTEM_PROMPT = "You are an intelligent Worker Agent. Analyze each data chunk independently. "
+            + "Answer with one insight per chunk, each starting with the chunk's [ITEM n] marker.";
+    private static final Pattern ITEM_MARKER = Pattern.compile("\\[ITEM (\\d+)]");
+    private static final String RESULT_SEPARATOR = "\n --------- \n";
+    private static final String TIMEOUT_MARKER = "Timed out analyzing ";
+
     private final Map<String, IAgentTool> toolMap;
     private final IStorageBackend storage;
-    private final MockLLMService llmService; // Inject the Brain
+    private final ILlmService llmService; // Inject the Brain
     private final Executor executor;
     private final AppConfig appConfig;
+    private final AdaptiveLimiter toolLimiter;
+    private final Hedger toolHedger;
 
-    public WorkerAgent(List<IAgentTool> tools, IStorageBackend storage, MockLLMService llmService, @Qualifier("workerInternalExecutor") Executor executor, AppConfig appConfig) {
+    public WorkerAgent(List<IAgentTool> tools, IStorageBackend storage, ILlmService llmService, @Qualifier("workerInternalExecutor") Executor executor,
+                       AppConfig appConfig, ConcurrencyLimits limits, MeterRegistry registry) {
         this.storage = storage;
         this.llmService = llmService;
         this.toolMap = tools.stream()
                 .collect(Collectors.toMap(IAgentTool::getName, Function.identity()));
         this.executor = executor;
         this.appConfig = appConfig;
+        this.toolLimiter = limits.forTools();
+        this.toolHedger = new Hedger("tools", appConfig.getAgents().getWorkers().getTools().getHedge(), registry);
 
         log.info("[WORKER] Loaded {} tools: {}", toolMap.size(), toolMap.keySet());
     }
@@ -62,51 +100,310 @@ public class WorkerAgent implements IAgent {
         IAgentTool tool = toolMap.get(task.getToolName());
         if(tool == null) throw new TerminalException("Tool not found: " + task.getToolName());
 
-        // --- Parallel Execution (Scatter) for all items in this tool call ---
-        // Fan out tasks to internal executor
+        long start = System.nanoTime();
+        String aggregatedResult;
+        AppConfig.Agents.WorkerConfig.LlmBatch batching = appConfig.getAgents().getWorkers().getLlmBatch();
+        if (batching.isEnabled() && itemsToProcess.size() > 1) {
+            aggregatedResult = processBatched(tool, itemsToProcess, context, batching, start);
+        } else {
+            // --- Parallel Execution (Scatter) for all items in this tool call ---
+            // Fan out tasks to internal executor
+            List<CompletableFuture<String>> futures = itemsToProcess.stream()
+                    .map(item -> submitItem(() -> executeSingleItem(tool,item,context)))
+                    .toList();
+
+            // --- Aggregation (Gather) ---
+            // Wait for all to finish, or for the task deadline
+            gather(futures, start).join();
+            aggregatedResult = aggregate(futures, itemsToProcess);
+        }
+
+        return complete(task, aggregatedResult);
+    }
+
+    /**
+     * Non-blocking variant: tools still run on the internal pool (they are blocking I/O),
+     * but no thread waits on the LLM or on the gather step.
+     */
+    @Override
+    public CompletableFuture<List<Task>> processAsync(Task task) {
+        if(!appConfig.getAgents().getWorkers().isEnabled()) {
+            log.warn("[WORKER] Disabled by config. Dropping task: {}", task.getTaskId());
+            return CompletableFuture.completedFuture(List.of());
+        }
+
+        List<String> itemsToProcess = task.getToolArguments();
+        String context = task.getUserRequest();
+
+        IAgentTool tool = toolMap.get(task.getToolName());
+        if(tool == null) throw new TerminalException("Tool not found: " + task.getToolName());
+
+        // Batched prompts keep the blocking path for now, off the caller's thread
+        if (appConfig.getAgents().getWorkers().getLlmBatch().isEnabled() && itemsToProcess.size() > 1) {
+            return CompletableFuture.supplyAsync(() -> process(task), executor);
+        }
+
+        log.info("[WORKER] Executing tool '{}' on {} items (async). Context: {}", tool.getName(), itemsToProcess.size(), context);
+
+        long start = System.nanoTime();
         List<CompletableFuture<String>> futures = itemsToProcess.stream()
-                .map(item -> CompletableFuture.supplyAsync(() -> executeSingleItem(tool,item,context), executor))
+                .map(item -> analyzeAsync(tool, item, context))
                 .toList();
 
-        // --- Aggregation (Gather) ---
-        // Wait for all to finish
-        String aggregatedResult = futures.stream()
-                .map(CompletableFuture::join)
-                        .collect(Collectors.joining("\n --------- \n"));
+        return gather(futures, start).thenApply(done -> complete(task, aggregate(futures, itemsToProcess)));
+    }
+
+    private CompletableFuture<String> analyzeAsync(IAgentTool tool, String item, String context) {
+        CompletableFuture<String> toolRun = toolHedger.race(() -> InterruptibleTask.supplyAsync(() -> runTool(tool, item, context), executor));
+        CompletableFuture<String> analysis = toolRun
+                .thenCompose(toolOutput -> llmService.generateAsync(SYSTEM_PROMPT, userPrompt(tool, item, context, toolOutput)));
+        analysis.whenComplete((insight, e) -> {
+            if (e != null) toolRun.cancel(true); // Deadline missed while the tool was still running: free its thread
+        });
+        return withItemDeadline(analysis);
+    }
+
+    private List<Task> complete(Task task, String aggregatedResult) {
+        String toolName = task.getToolName();
 
         // --- Save Result ---
         storage.save(String.format(AppConstants.KEY_TOOL_RESULT, task.getWorkflowId(), task.getToolName()), aggregatedResult);
 
+        // --- Fan-in: only the worker that lands the last expected result triggers the Reviewer ---
+        long completed = storage.addToSet(String.format(AppConstants.KEY_COMPLETED_TOOLS, task.getWorkflowId()), toolName);
+        Optional<String> manifest = storage.get(String.format(AppConstants.KEY_MANIFEST, task.getWorkflowId()), String.class);
+        if (manifest.isPresent()) {
+            if (ReviewHandoff.MANIFEST_PENDING.equals(manifest.get())) { // The planner hands off once its plan is complete
+                log.info("[WORKER] {} results in for workflow {}. Plan still streaming.", completed, task.getWorkflowId());
+                return List.of();
+            }
+            long expected = Arrays.stream(manifest.get().split(",")).distinct().count();
+            if (completed < expected) {
+                log.info("[WORKER] {}/{} results in for workflow {}. Reviewer not triggered yet.", completed, expected, task.getWorkflowId());
+                return List.of();
+            }
+        }
+
         // --- Trigger Reviewer ---
-        return List.of(Task.builder()
-                .workflowId(task.getWorkflowId())
-                .taskId(UUID.randomUUID().toString())
-                .targetAgent(AgentType.REVIEWER)
-                .userRequest(task.getUserRequest())
-                .build());
+        return ReviewHandoff.reviewerTask(storage, task);
     }
 
     // Helper function: Runs on a separate thread
     private String executeSingleItem(IAgentTool tool, String item, String context) {
         try {
 
-            // 1. Tool Execution
-            // Optimization: Pass Keyword if available to filter locally
-            String toolInput = item + "|" + extractKeyword(context);
-            String toolOutput = tool.execute(toolInput);
+            // 1. Tool Execution (a slow call may be hedged; the duplicate runs on the internal pool)
+            String toolOutput = hedgedTool(tool, item, context);
 
             // 2. AI Analysis (with context)
-            String systemPrompt = "You are an intelligent Worker Agent. Analyze this specific data chunk.";
-            String userPrompt = String.format("Context: %s\nData Source: %s\nRaw Output: %s",
-                    context, tool.getName()+": " + item, toolOutput);
-
-            return llmService.generate(systemPrompt, userPrompt);
+            return analyzeSingle(tool, item, context, toolOutput);
         } catch(Exception e) {
             log.error("Error processing item {}: {}", item, e.getMessage());
             return "Error analyzing " + item;
         }
     }
 
+    private String hedgedTool(IAgentTool tool, String item, String context) {
+        return toolHedger.call(() -> runTool(tool, item, context), executor);
+    }
+
+    private String runTool(IAgentTool tool, String item, String context) {
+        // Optimization: Pass Keyword if available to filter locally
+        String toolInput = item + "|" + extractKeyword(context);
+
+        try {
+            toolLimiter.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a tool permit", e);
+        }
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            String output = tool.execute(toolInput);
+            failed = false;
+            return output;
+        } finally {
+            toolLimiter.release(start, failed);
+        }
+    }
+
+    private String analyzeSingle(IAgentTool tool, String item, String context, String toolOutput) {
+        return llmService.generate(SYSTEM_PROMPT, userPrompt(tool, item, context, toolOutput));
+    }
+
+    private String userPrompt(IAgentTool tool, String item, String context, String toolOutput) {
+        return String.format("Context: %s\nData Source: %s\nRaw Output: %s",
+                context, tool.getName()+": " + item, toolOutput);
+    }
+
+    // --- Deadlines: cancelled items release their pool thread and leave a marker in the result ---
+
+    // Runs on the internal pool; a missed deadline interrupts the thread running the item
+    private <T> CompletableFuture<T> submitItem(Supplier<T> work) {
+        return withItemDeadline(InterruptibleTask.supplyAsync(work, executor));
+    }
+
+    private <T> CompletableFuture<T> withItemDeadline(CompletableFuture<T> item) {
+        long timeoutSec = appConfig.getAgents().getWorkers().getItemTimeoutSec();
+        return timeoutSec > 0 ? item.orTimeout(timeoutSec, TimeUnit.SECONDS) : item;
+    }
+
+    // Completes once every future is done, or when the task deadline passes; whatever is still running then is cancelled
+    private CompletableFuture<Void> gather(List<? extends CompletableFuture<?>> futures, long startNanos) {
+        CompletableFuture<Void> all = CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new));
+        long timeoutSec = appConfig.getAgents().getWorkers().getTaskTimeoutSec();
+        if (timeoutSec > 0) {
+            long remaining = TimeUnit.SECONDS.toNanos(timeoutSec) - (System.nanoTime() - startNanos);
+            all.orTimeout(Math.max(0, remaining), TimeUnit.NANOSECONDS);
+        }
+        return all.handle((done, e) -> {
+            futures.forEach(f -> f.completeExceptionally(new TimeoutException("Task deadline of " + timeoutSec + "s passed")));
+            return null;
+        });
+    }
+
+    // Same aggregated format whatever happened to each item, in item order
+    private String aggregate(List<CompletableFuture<String>> futures, List<String> items) {
+        return IntStream.range(0, items.size())
+                .mapToObj(i -> outcome(futures.get(i), items.get(i)))
+                .collect(Collectors.joining(RESULT_SEPARATOR));
+    }
+
+    private String outcome(CompletableFuture<String> item, String name) {
+        Throwable failure = failure(item);
+        if (failure == null) return item.join();
+        if (missedDeadline(failure)) {
+            log.warn("[WORKER] Item {} missed its deadline and was cancelled", name);
+            return TIMEOUT_MARKER + name;
+        }
+        log.error("Error processing item {}: {}", name, failure.getMessage());
+        return "Error analyzing " + name;
+    }
+
+    // Why a completed future has no value (null if it has one)
+    private static Throwable failure(CompletableFuture<?> future) {
+        try {
+            future.join();
+            return null;
+        } catch (CancellationException e) {
+            return e;
+        } catch (CompletionException e) {
+            return e.getCause() != null ? e.getCause() : e;
+        }
+    }
+
+    private static boolean missedDeadline(Throwable failure) {
+        return failure instanceof TimeoutException || failure instanceof CancellationException;
+    }
+
+    // --- Micro-batching: one LLM call per group of items instead of one per item ---
+
+    private String processBatched(IAgentTool tool, List<String> items, String context, AppConfig.Agents.WorkerConfig.LlmBatch batching, long start) {
+        // 1. Tools still run fully in parallel; a failed or late item keeps a null output and gets its marker now
+        List<CompletableFuture<String>> toolRuns = items.stream()
+                .map(item -> submitItem(() -> hedgedTool(tool, item, context)))
+                .toList();
+        gather(toolRuns, start).join();
+
+        String[] outputs = new String[items.size()];
+        String[] insights = new String[items.size()];
+        for (int i = 0; i < items.size(); i++) {
+            if (failure(toolRuns.get(i)) == null) outputs[i] = toolRuns.get(i).join();
+            else insights[i] = outcome(toolRuns.get(i), items.get(i));
+        }
+
+        // 2. One LLM call per batch, batches analyzed in parallel under what is left of the task deadline
+        List<List<Integer>> batches = partition(outputs, batching);
+        List<CompletableFuture<Map<Integer, String>>> calls = batches.stream()
+                .map(batch -> InterruptibleTask.supplyAsync(() -> analyzeBatch(tool, items, outputs, batch, context), executor))
+                .toList();
+        gather(calls, start).join();
+
+        for (int b = 0; b < batches.size(); b++) {
+            Throwable failure = failure(calls.get(b));
+            if (failure == null) {
+                calls.get(b).join().forEach((i, insight) -> insights[i] = insight);
+            } else if (missedDeadline(failure)) {
+                log.warn("[WORKER] Batch of {} items missed the task deadline and was cancelled", batches.get(b).size());
+                for (int i : batches.get(b)) insights[i] = TIMEOUT_MARKER + items.get(i);
+            }
+        }
+
+        // 3. Same aggregated format as the per-item path, in item order
+        for (int i = 0; i < insights.length; i++) {
+            if (insights[i] == null) insights[i] = "Error analyzing " + items.get(i);
+        }
+        return String.join(RESULT_SEPARATOR, insights);
+    }
+
+    // Greedy grouping in item order, bounded by item count and prompt size
+    private List<List<Integer>> partition(String[] outputs, AppConfig.Agents.WorkerConfig.LlmBatch batching) {
+        List<List<Integer>> batches = new ArrayList<>();
+        List<Integer> current = new ArrayList<>();
+        int chars = 0;
+        for (int i = 0; i < outputs.length; i++) {
+            if (outputs[i] == null) continue;
+            int size = outputs[i].length();
+            if (!current.isEmpty() && (current.size() >= batching.getMaxItems() || chars + size > batching.getMaxChars())) {
+                batches.add(current);
+                current = new ArrayList<>();
+                chars = 0;
+            }
+            current.add(i);
+            chars += size;
+        }
+        if (!current.isEmpty()) batches.add(current);
+        return batches;
+    }
+
+    // Item index -> insight, for the items of this batch that got one
+    private Map<Integer, String> analyzeBatch(IAgentTool tool, List<String> items, String[] outputs, List<Integer> batch, String context) {
+        Map<Integer, String> insights = new HashMap<>();
+        try {
+            if (batch.size() == 1) { // Nothing to pack; keep the single-item prompt (and its cache key)
+                int i = batch.get(0);
+                insights.put(i, analyzeSingle(tool, items.get(i), context, outputs[i]));
+                return insights;
+            }
+
+            StringBuilder userPrompt = new StringBuilder("Context: ").append(context).append('\n');
+            for (int n = 0; n < batch.size(); n++) {
+                int i = batch.get(n);
+                userPrompt.append(String.format("[ITEM %d]\nData Source: %s\nRaw Output: %s\n",
+                        n + 1, tool.getName() + ": " + items.get(i), outputs[i]));
+            }
+            Map<Integer, String> answers = splitByItem(llmService.generate(BATCH_SYSTEM_PROMPT, userPrompt.toString()));
+
+            for (int n = 0; n < batch.size(); n++) {
+                int i = batch.get(n);
+                String answer = answers.get(n + 1);
+                // The model skipped or garbled this item: ask about it on its own
+                insights.put(i, answer != null ? answer : analyzeSingle(tool, items.get(i), context, outputs[i]));
+            }
+        } catch (Exception e) {
+            log.error("Error analyzing batch of {} items: {}", batch.size(), e.getMessage());
+        }
+        return insights;
+    }
+
+    // "[ITEM 1] foo\n[ITEM 2] bar" -> {1=foo, 2=bar}
+    private Map<Integer, String> splitByItem(String response) {
+        Map<Integer, String> answers = new HashMap<>();
+        if (response == null) return answers;
+        Matcher m = ITEM_MARKER.matcher(response);
+        int item = -1;
+        int start = 0;
+        while (m.find()) {
+            if (item > 0) answers.putIfAbsent(item, response.substring(start, m.start()).strip());
+            item = Integer.parseInt(m.group(1));
+            start = m.end();
+        }
+        if (item > 0) answers.putIfAbsent(item, response.substring(start).strip());
+        answers.values().removeIf(String::isEmpty);
+        return answers;
+    }
+
     private String extractKeyword(String context) {
         if(context == null) return "";
         if(context.toLowerCase().contains("overheat")) return "overheat";
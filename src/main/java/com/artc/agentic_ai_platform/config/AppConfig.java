@@ -1,9 +1,15 @@
 package com.artc.agentic_ai_platform.config;
 
+import com.artc.agentic_ai_platform.model.AgentType;
+import com.artc.agentic_ai_platform.model.TaskPriority;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
 @Data
 @Configuration
 @ConfigurationProperties(prefix = "app")
@@ -12,6 +18,8 @@ public class AppConfig {
     private Storage storage = new Storage();
     private Queue queue = new Queue();
     private Agents agents = new Agents();
+    private Llm llm = new Llm();
+    private Tools tools = new Tools();
 
     @Data
     public static class Storage {
@@ -28,13 +36,72 @@ public class AppConfig {
     @Data
     public static class Queue {
         private String backend;
+        private int capacity = 0; // inmem only: offer() refuses new incidents once this many tasks are queued (0 = unbounded)
         private Concurrency concurrency = new Concurrency();
+        private Stream stream = new Stream();
+        private Lanes lanes = new Lanes();
+        private Priority priority = new Priority();
+        private Admission admission = new Admission();
+        private Dedup dedup = new Dedup();
 
         @Data
         public static class Concurrency {
             private int workers = 4;
             private int maxRetries = 3;
             private String backoffStrategy = "exponential";
+            private String threadMode = "platform"; // "platform", "virtual" or "async"
+            private int batchSize = 16; // Tasks per popBatch in virtual/async mode (platform mode always fetches 1)
+        }
+
+        @Data
+        public static class Stream {
+            private int batchSize = 10;     // Entries per XAUTOCLAIM sweep
+            private long claimIdleSec = 60; // Pending this long => owner presumed dead, XAUTOCLAIM takes over
+        }
+
+        // Dedicated consumers per lane, on top of the 'workers' shared consumers that serve every lane
+        // (reviewer first, then worker, then planner). Lane concurrency is each agent's max_concurrency.
+        @Data
+        public static class Lanes {
+            private int planner = 1; // Keeps new incidents moving while shared consumers drain later stages
+            private int worker = 0;
+            private int reviewer = 0;
+
+            public int consumersFor(AgentType type) {
+                return switch (type) {
+                    case PLANNER -> planner;
+                    case WORKER -> worker;
+                    case REVIEWER -> reviewer;
+                };
+            }
+
+            public int total() {
+                return planner + worker + reviewer;
+            }
+        }
+
+        @Data
+        public static class Priority {
+            private long agingSec = 60; // A waiting task gains one priority level per interval (starvation guard)
+            // Ingest: an incident whose text contains one of these (case-insensitive) gets that priority
+            private Map<TaskPriority, List<String>> keywords = new EnumMap<>(TaskPriority.class);
+        }
+
+        // Ingest backpressure: POST /api/incidents answers 429 + Retry-After instead of queueing without bound
+        @Data
+        public static class Admission {
+            private boolean enabled = false;
+            private long maxDepth = 0;      // Incidents waiting for a planner (0 = no cap)
+            private long maxWaitSec = 0;    // Estimated wait, depth / recent drain rate (0 = no cap)
+            private long retryAfterSec = 5; // Lower bound for Retry-After, and the value used while no drain rate is known
+        }
+
+        // Ingest coalescing: a repeat of a recent incident is linked to its workflow instead of starting a new one
+        @Data
+        public static class Dedup {
+            private boolean enabled = false;
+            private long windowSec = 120;
+            private String assetPattern; // Regex, group 1 = asset id. Incidents naming the same asset coalesce; unset = payload only
         }
     }
 
@@ -47,17 +114,108 @@ public class AppConfig {
         @Data
         public static class PlannerConfig {
             private boolean enabled = true;
+            private int maxConcurrency = 16;
+            private boolean streaming = false; // Queue each plan step as soon as the LLM has streamed it
+            private PlanCache planCache = new PlanCache();
+
+            // Reuse the steps planned for the same incident text instead of asking the LLM again
+            @Data
+            public static class PlanCache {
+                private boolean enabled = false;
+                private int maxEntries = 1000;
+                private long ttlSec = 600;      // 0 = no expiry
+                private boolean shared = false; // Also read/write plans through IStorageBackend (cross-node on Redis)
+            }
         }
 
         @Data
         public static class ReviewerConfig {
             private boolean enabled = true;
+            private int maxConcurrency = 16;
         }
 
         @Data
         public static class WorkerConfig {
             private int poolSize = 4;
             private boolean enabled = true;
+            private int maxConcurrency = 64;
+            private long itemTimeoutSec = 0; // Per item (tool call + analysis); 0 = no deadline
+            private long taskTimeoutSec = 0; // Whole WORKER task; unfinished items are cancelled. 0 = no deadline
+            private LlmBatch llmBatch = new LlmBatch();
+            private Tools tools = new Tools();
+
+            @Data
+            public static class LlmBatch {
+                private boolean enabled = false; // Pack several items' tool outputs into one LLM prompt
+                private int maxItems = 8;
+                private int maxChars = 8000;     // Tool output per prompt; an oversized single item still goes alone
+            }
+
+            @Data
+            public static class Tools {
+                private int maxConcurrency = 0; // In-flight tool calls (0 = unlimited); the starting limit when adaptive
+                private Adaptive adaptive = new Adaptive();
+                private Hedge hedge = new Hedge(); // Duplicate a tool call that is slower than usual
+            }
         }
     }
+
+    @Data
+    public static class Llm {
+        private int maxConcurrency = 32; // In-flight calls to the upstream LLM (0 = unlimited)
+        private boolean singleFlight = true; // Concurrent identical prompts share one upstream call
+        private Adaptive adaptive = new Adaptive(); // Move max_concurrency with observed latency and errors
+        private Hedge hedge = new Hedge(); // Duplicate a call that is slower than usual, first answer wins
+        private Cache cache = new Cache();
+
+        @Data
+        public static class Cache {
+            private boolean enabled = true;
+            private int maxEntries = 10000;
+            private long ttlSec = 3600;     // 0 = no expiry
+            private boolean shared = false; // Also read/write responses through IStorageBackend (cross-node on Redis)
+        }
+    }
+
+    @Data
+    public static class Tools {
+        private LogAnalyzer logAnalyzer = new LogAnalyzer();
+
+        @Data
+        public static class LogAnalyzer {
+            private String rootDir;        // Log files are read from here; unset = built-in sample log only
+            private int chunkMb = 16;      // Files are memory-mapped and scanned in line-aligned chunks of about this size
+            private int parallelism = 0;   // Chunks scanned at once (0 = one per CPU)
+            private List<String> alwaysMatch = List.of("error", "critical"); // Relevant whatever the planner asks for
+            private boolean incremental = false; // Tail files: only read what was appended since the last call
+            private long stateTtlSec = 86400;    // How long the scanned offset of a file is remembered (0 = default TTL)
+            private Index index = new Index();
+
+            // Inverted index stored next to each large log (FILE.idx), see LogIndex
+            @Data
+            public static class Index {
+                private boolean enabled = false;
+                private int minFileMb = 64; // Smaller files are always scanned
+            }
+        }
+    }
+
+    // Latency-driven concurrency limit (see AdaptiveLimiter)
+    @Data
+    public static class Adaptive {
+        private boolean enabled = false;
+        private int minLimit = 2;
+        private int maxLimit = 128;
+        private double tolerance = 1.5;    // Latency may grow to this multiple of its baseline before the limit shrinks
+        private double backoffRatio = 0.9; // Limit multiplier on every failed call
+    }
+
+    // Hedged requests (see Hedger)
+    @Data
+    public static class Hedge {
+        private boolean enabled = false;
+        private double percentile = 95;   // A call still running after this percentile of recent latencies gets a duplicate
+        private double budgetPercent = 5; // Hedges as a share of calls, at most
+        private int minSamples = 20;      // Calls observed before the first hedge
+    }
 }
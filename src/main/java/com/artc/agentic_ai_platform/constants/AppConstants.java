@@ -7,5 +7,16 @@ public final class AppConstants {
     public static final String KEY_REVIEW = "wf:%s:review";
     public static final String KEY_TOOL_RESULT = "wf:%s:res:%s";
     public static final String KEY_ERROR = "wf:%s:error";
+    public static final String KEY_COMPLETED_TOOLS = "wf:%s:done";
+    public static final String KEY_INCIDENTS = "wf:%s:incidents";
+    public static final String KEY_REVIEW_HANDOFF = "wf:%s:review_handoff";
+    public static final String KEY_PLAN_STEP = "wf:%s:step:%d";
+
+    public static final String KEY_INCIDENT_DEDUP = "incident:dedup:%s";
+
+    public static final String KEY_LLM_CACHE = "llm:cache:%s";
+    public static final String KEY_PLAN_CACHE = "planner:plan:%s";
+
+    public static final String KEY_LOG_SCAN = "tool:logscan:%s";
 
 }
@@ -1,18 +1,27 @@
 package com.artc.agentic_ai_platform.controller;
 
+import com.artc.agentic_ai_platform.config.AppConfig;
 import com.artc.agentic_ai_platform.constants.AppConstants;
 import com.artc.agentic_ai_platform.core.IStorageBackend;
 import com.artc.agentic_ai_platform.core.ITaskQueue;
+import com.artc.agentic_ai_platform.engine.AdmissionControl;
+import com.artc.agentic_ai_platform.engine.IncidentCoalescer;
 import com.artc.agentic_ai_platform.model.AgentType;
 import com.artc.agentic_ai_platform.model.Task;
+import com.artc.agentic_ai_platform.model.TaskPriority;
 import com.artc.agentic_ai_platform.model.WorkflowResponse;
 import com.artc.agentic_ai_platform.model.WorkflowStatus;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 
 @RestController
@@ -23,28 +32,58 @@ public class IncidentController {
 
     private final ITaskQueue queue;
     private final IStorageBackend storage;
+    private final AppConfig appConfig;
+    private final AdmissionControl admission;
+    private final IncidentCoalescer coalescer;
 
+    /**
+     * Severity comes from the optional 'priority' parameter, e.g. POST /api/incidents?priority=CRITICAL.
+     * Without it the incident text is matched against the configured keywords (app.queue.priority.keywords).
+     * Under overload (app.queue.admission, or a full bounded queue) the incident is refused with
+     * 429 Too Many Requests and a Retry-After header, so accepted incidents still finish in time.
+     * A repeat of a recent incident (app.queue.dedup) is linked to the existing workflow: 200 OK with its ID.
+     */
     @PostMapping
-    public ResponseEntity<WorkflowResponse> create(@RequestBody String payload) {
+    public ResponseEntity<WorkflowResponse> create(@RequestBody String payload,
+                                                   @RequestParam(required = false) TaskPriority priority) {
         String wfId = UUID.randomUUID().toString();
+        String incidentId = UUID.randomUUID().toString();
+        TaskPriority severity = priority != null ? priority : classify(payload);
 
-        log.info("Received Incident Report. Workflow ID: {}", wfId);
+        // Duplicates cost nothing, so they are linked even when new work is being refused
+        Optional<String> existing = coalescer.attach(payload, severity, wfId, incidentId);
+        if (existing.isPresent()) return linked(existing.get(), incidentId);
+
+        AdmissionControl.Decision decision = admission.check();
+        if (!decision.admitted()) {
+            coalescer.detach(payload, severity, wfId);
+            return tooManyRequests(decision);
+        }
+
+        log.info("Received Incident Report. Workflow ID: {}, Priority: {}", wfId, severity);
 
         // Set Status to PENDING immediately
         String redisKey = String.format(AppConstants.KEY_STATUS, wfId);
         storage.save(redisKey, WorkflowStatus.PENDING.name(), 3600);
 
         // Push to Queue
-        queue.push(Task.builder()
+        boolean queued = queue.offer(Task.builder()
                 .workflowId(wfId)
                 .taskId(UUID.randomUUID().toString())
                 .targetAgent(AgentType.PLANNER)
                 .userRequest(payload)
+                .priority(severity)
                 .build());
-
+        if (!queued) {
+            storage.delete(redisKey);
+            coalescer.detach(payload, severity, wfId);
+            return tooManyRequests(admission.queueFull());
+        }
+        coalescer.register(wfId, incidentId);
 
         WorkflowResponse response = WorkflowResponse.builder()
                 .workflowId(wfId)
+                .incidentId(incidentId)
                 .status(WorkflowStatus.PENDING.name())
                 .message("Incident Accepted for processing")
                 .build();
@@ -53,4 +92,41 @@ public class IncidentController {
                 .status(HttpStatus.ACCEPTED)
                 .body(response);
     }
-}
\ No newline at end of file
+
+    private ResponseEntity<WorkflowResponse> linked(String workflowId, String incidentId) {
+        String status = storage.get(String.format(AppConstants.KEY_STATUS, workflowId), String.class)
+                .orElse(WorkflowStatus.PENDING.name());
+
+        WorkflowResponse response = WorkflowResponse.builder()
+                .workflowId(workflowId)
+                .incidentId(incidentId)
+                .status(status)
+                .message("Duplicate incident linked to an existing workflow")
+                .build();
+
+        return ResponseEntity.ok(response);
+    }
+
+    private ResponseEntity<WorkflowResponse> tooManyRequests(AdmissionControl.Decision decision) {
+        WorkflowResponse response = WorkflowResponse.builder()
+                .status("REJECTED")
+                .message("Incident queue is overloaded (" + decision.reason() + "). Retry after " + decision.retryAfterSec() + "s")
+                .build();
+
+        return ResponseEntity
+                .status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(decision.retryAfterSec()))
+                .body(response);
+    }
+
+    // Most severe match wins
+    private TaskPriority classify(String payload) {
+        String text = payload == null ? "" : payload.toLowerCase(Locale.ROOT);
+        Map<TaskPriority, List<String>> keywords = appConfig.getQueue().getPriority().getKeywords();
+        for (TaskPriority level : TaskPriority.values()) {
+            List<String> words = keywords.getOrDefault(level, List.of());
+            if (words.stream().anyMatch(w -> text.contains(w.toLowerCase(Locale.ROOT)))) return level;
+        }
+        return TaskPriority.NORMAL;
+    }
+}
@@ -2,14 +2,14 @@ package com.artc.agentic_ai_platform.controller;
 
 import com.artc.agentic_ai_platform.constants.AppConstants;
 import com.artc.agentic_ai_platform.core.IStorageBackend;
+import com.artc.agentic_ai_platform.engine.IncidentCoalescer;
 import com.artc.agentic_ai_platform.model.WorkflowStatusResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/workflows")
@@ -17,23 +17,29 @@ import java.util.Optional;
 public class WorkflowController {
 
     private final IStorageBackend storage;
+    private final IncidentCoalescer coalescer;
 
     @GetMapping("/{workflowId}/status")
     public ResponseEntity<WorkflowStatusResponse> getStatus(@PathVariable String workflowId) {
 
-        // Fetch status from storage
+        // Fetch status and final decision (if available) in one round trip
         String statusKey = String.format(AppConstants.KEY_STATUS, workflowId);
-        String status = storage.get(statusKey, String.class).orElse("UNKNOWN");
-
-        // Fetch final decision (if available)
         String reviewKey = String.format(AppConstants.KEY_REVIEW, workflowId);
-        String decision = storage.get(reviewKey, String.class).orElse(null);
+        Map<String, String> values = storage.multiGet(List.of(statusKey, reviewKey), String.class);
+
+        String status = values.getOrDefault(statusKey, "UNKNOWN");
+        String decision = values.get(reviewKey);
+        // Incident lists exist only with dedup on; otherwise the status stays a single round trip
+        List<String> incidents = coalescer.isEnabled()
+                ? storage.members(String.format(AppConstants.KEY_INCIDENTS, workflowId)).stream().sorted().toList()
+                : List.of();
 
         // Build Response
         WorkflowStatusResponse response = WorkflowStatusResponse.builder()
                 .workflowId(workflowId)
                 .status(status)
                 .finalDecision(decision)
+                .linkedIncidents(incidents.isEmpty() ? null : incidents)
                 .build();
 
         return ResponseEntity.ok(response);
@@ -5,8 +5,19 @@ import com.artc.agentic_ai_platform.model.AgentType;
 import com.artc.agentic_ai_platform.model.Task;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public interface IAgent {
     AgentType getType();
     List<Task> process(Task task);
+
+    // Used by the engine in 'async' thread mode: completes when the agent's LLM/tool work does,
+    // instead of parking the calling thread. Agents that don't override it run process() inline.
+    default CompletableFuture<List<Task>> processAsync(Task task) {
+        try {
+            return CompletableFuture.completedFuture(process(task));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
 }
@@ -1,10 +1,36 @@
 package com.artc.agentic_ai_platform.core;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 public interface IStorageBackend {
     void save(String key, Object value);
     void save(String key, Object value, long ttlSeconds);
     <T> Optional<T> get(String key, Class<T> clazz);
     void delete(String key);
+
+    // Batched variants: one round trip on Redis (MGET / pipeline), one lock acquisition in RAM.
+    // Keys without a value are left out of the returned map.
+    <T> Map<String, T> multiGet(List<String> keys, Class<T> clazz);
+    void multiSave(Map<String, Object> entries); // Default TTL, written in iteration order
+
+    // Atomically adds 'member' to the set at 'key' and returns the set size afterwards.
+    // Re-adding an existing member is a no-op, so retried callers don't inflate the count.
+    long addToSet(String key, String member);
+
+    // Members of the set at 'key' (empty if there is none)
+    Set<String> members(String key);
+
+    // Atomically stores 'value' only if 'key' has no live value. Returns the value already there
+    // (nothing was written), or empty if this call stored it.
+    <T> Optional<T> saveIfAbsent(String key, T value, long ttlSeconds);
+
+    // Atomically replaces the value at 'key' with 'value' only if it currently equals 'expected'.
+    // Returns whether it did (false if the key holds something else or nothing).
+    boolean compareAndSet(String key, Object expected, Object value, long ttlSeconds);
+
+    // Atomically deletes 'key' only if its value equals 'expected'. Returns whether it did.
+    boolean deleteIfEquals(String key, Object expected);
 }
\ No newline at end of file
@@ -1,10 +1,43 @@
 package com.artc.agentic_ai_platform.core;
 
+import com.artc.agentic_ai_platform.model.AgentType;
 import com.artc.agentic_ai_platform.model.Task;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.Optional;
 
 public interface ITaskQueue {
-    void push(Task task);
+
+    // Every queue keeps one lane per target AgentType (tasks without a target ride the PLANNER lane).
+    // Unless a caller names its lanes, work closest to completion is served first.
+    List<AgentType> ALL_LANES = List.of(AgentType.REVIEWER, AgentType.WORKER, AgentType.PLANNER);
+
+    void push(Task task); // Tasks with a future nextRetryTimestamp stay invisible to pop() until due
     Optional<Task> pop(); // Blocking pop
-}
\ No newline at end of file
+
+    // Batched variants (one round trip on Redis). popBatch waits up to 'timeout' for the first task,
+    // then adds whatever else is ready right now, up to 'max'. Returns an empty list on timeout.
+    void pushAll(List<Task> tasks);
+
+    default List<Task> popBatch(int max, Duration timeout) {
+        return popBatch(ALL_LANES, max, timeout);
+    }
+
+    // Only serves the given lanes, draining them in the given order (earlier lanes first)
+    List<Task> popBatch(List<AgentType> lanes, int max, Duration timeout);
+
+    // Admission-checked push for new work: a bounded queue refuses it instead of growing.
+    // Internal pushes (downstream tasks, retries) use push() so work already accepted is never dropped.
+    default boolean offer(Task task) {
+        push(task);
+        return true;
+    }
+
+    // Tasks ready in a lane and not yet popped (backing-off retries are not counted)
+    long depth(AgentType lane);
+
+    // Called once a popped task has been fully handled (done, rescheduled or dropped).
+    // Queues with delivery guarantees release the entry here; a task never acked gets redelivered.
+    default void ack(Task task) {}
+}
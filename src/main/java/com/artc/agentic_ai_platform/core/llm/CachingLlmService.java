@@ -0,0 +1,150 @@
+package com.artc.agentic_ai_platform.core.llm;
+
+import com.artc.agentic_ai_platform.config.AppConfig;
+import com.artc.agentic_ai_platform.constants.AppConstants;
+import com.artc.agentic_ai_platform.core.IStorageBackend;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Exact-match response cache in front of the LLM.
+ * Looks in the in-process cache first, then (optionally) in the shared IStorageBackend so that
+ * other nodes' answers are reused, and only then calls upstream.
+ *
+ * Metrics: llm.cache.requests{result=hit|miss, tier=local|shared} and llm.cache.miss.latency
+ * (upstream time per miss). Latency saved ~= hits * mean miss latency.
+ */
+@Slf4j
+public class CachingLlmService implements ILlmService {
+
+    private final ILlmService delegate;
+    private final Cache<String, String> local;
+    private final IStorageBackend shared; // null = in-process only
+    private final long ttlSec;
+
+    private final Counter localHits;
+    private final Counter sharedHits;
+    private final Counter misses;
+    private final Timer missLatency;
+
+    public CachingLlmService(ILlmService delegate, AppConfig.Llm.Cache config, IStorageBackend shared, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.shared = shared;
+        this.ttlSec = config.getTtlSec();
+        Caffeine<Object, Object> builder = Caffeine.newBuilder().maximumSize(config.getMaxEntries()).recordStats();
+        if (ttlSec > 0) builder.expireAfterWrite(Duration.ofSeconds(ttlSec));
+        this.local = builder.build();
+
+        CaffeineCacheMetrics.monitor(registry, local, "llm_responses");
+        this.localHits = registry.counter("llm.cache.requests", "result", "hit", "tier", "local");
+        this.sharedHits = registry.counter("llm.cache.requests", "result", "hit", "tier", "shared");
+        this.misses = registry.counter("llm.cache.requests", "result", "miss", "tier", "none");
+        this.missLatency = registry.timer("llm.cache.miss.latency");
+    }
+
+    @Override
+    public String generate(String systemPrompt, String userPrompt) {
+        String key = PromptKey.of(systemPrompt, userPrompt);
+
+        Optional<String> cached = lookup(key);
+        if (cached.isPresent()) return cached.get();
+
+        long start = System.nanoTime();
+        String response = delegate.generate(systemPrompt, userPrompt);
+        onMiss(key, response, start);
+        return response;
+    }
+
+    @Override
+    public CompletableFuture<String> generateAsync(String systemPrompt, String userPrompt) {
+        String key = PromptKey.of(systemPrompt, userPrompt);
+
+        Optional<String> cached = lookup(key);
+        if (cached.isPresent()) return CompletableFuture.completedFuture(cached.get());
+
+        long start = System.nanoTime();
+        return delegate.generateAsync(systemPrompt, userPrompt).thenApply(response -> {
+            onMiss(key, response, start);
+            return response;
+        });
+    }
+
+    // A hit is delivered as a single chunk; a miss streams through and is cached once complete
+    @Override
+    public CompletableFuture<String> generateStream(String systemPrompt, String userPrompt, Consumer<String> onChunk) {
+        String key = PromptKey.of(systemPrompt, userPrompt);
+
+        Optional<String> cached = lookup(key);
+        if (cached.isPresent()) {
+            try {
+                onChunk.accept(cached.get());
+                return CompletableFuture.completedFuture(cached.get());
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+
+        long start = System.nanoTime();
+        return delegate.generateStream(systemPrompt, userPrompt, onChunk).thenApply(response -> {
+            onMiss(key, response, start);
+            return response;
+        });
+    }
+
+    private Optional<String> lookup(String key) {
+        String cached = local.getIfPresent(key);
+        if (cached != null) {
+            localHits.increment();
+            return Optional.of(cached);
+        }
+
+        Optional<String> fromShared = readShared(key);
+        if (fromShared.isPresent()) {
+            sharedHits.increment();
+            local.put(key, fromShared.get());
+            return fromShared;
+        }
+
+        misses.increment();
+        return Optional.empty();
+    }
+
+    private void onMiss(String key, String response, long startNanos) {
+        missLatency.record(Duration.ofNanos(System.nanoTime() - startNanos));
+        if (response != null) { // Failures throw and are never cached
+            local.put(key, response);
+            writeShared(key, response);
+        }
+    }
+
+    // The shared tier is an optimization: if storage is down, behave like a miss rather than fail the task
+    private Optional<String> readShared(String key) {
+        if (shared == null) return Optional.empty();
+        try {
+            return shared.get(String.format(AppConstants.KEY_LLM_CACHE, key), String.class);
+        } catch (RuntimeException e) {
+            log.warn("Shared LLM cache read failed: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private void writeShared(String key, String response) {
+        if (shared == null) return;
+        try {
+            String sharedKey = String.format(AppConstants.KEY_LLM_CACHE, key);
+            if (ttlSec > 0) shared.save(sharedKey, response, ttlSec); else shared.save(sharedKey, response);
+        } catch (RuntimeException e) {
+            log.warn("Shared LLM cache write failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.artc.agentic_ai_platform.core.llm;
+
+import com.artc.agentic_ai_platform.executor.AdaptiveLimiter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Caps in-flight calls to the upstream LLM, no matter how many (virtual) threads want to call it.
+ * Async callers never block: when no permit is free they wait in a queue and are started on release.
+ * Every call's latency and outcome go back to the limiter, which may move the cap (AdaptiveLimiter).
+ */
+@RequiredArgsConstructor
+public class ConcurrencyLimitedLlmService implements ILlmService {
+
+    private final ILlmService delegate;
+    private final AdaptiveLimiter limiter;
+    private final Queue<CompletableFuture<Void>> waiters = new ConcurrentLinkedQueue<>();
+
+    @Override
+    public String generate(String systemPrompt, String userPrompt) {
+        try {
+            limiter.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for an LLM permit", e);
+        }
+
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            String response = delegate.generate(systemPrompt, userPrompt);
+            failed = false;
+            return response;
+        } finally {
+            release(start, failed);
+        }
+    }
+
+    @Override
+    public CompletableFuture<String> generateAsync(String systemPrompt, String userPrompt) {
+        return whenPermitted(() -> delegate.generateAsync(systemPrompt, userPrompt));
+    }
+
+    // The permit is held until the stream ends
+    @Override
+    public CompletableFuture<String> generateStream(String systemPrompt, String userPrompt, Consumer<String> onChunk) {
+        return whenPermitted(() -> delegate.generateStream(systemPrompt, userPrompt, onChunk));
+    }
+
+    // Cancelling (or timing out) the returned future withdraws the waiter, or cancels the upstream call if it started
+    private CompletableFuture<String> whenPermitted(Supplier<CompletableFuture<String>> upstream) {
+        CompletableFuture<Void> permit = new CompletableFuture<>();
+        CompletableFuture<String> result = new CompletableFuture<>();
+        result.whenComplete((response, error) -> permit.cancel(false)); // No-op once granted
+
+        // Runs only for a granted permit (a cancelled one never was), which is released or given back below
+        permit.thenRun(() -> {
+            if (result.isDone()) { // Abandoned as the permit was granted
+                limiter.cancel();
+                grantWaiters();
+                return;
+            }
+            long start = System.nanoTime();
+            CompletableFuture<String> call;
+            try {
+                call = upstream.get();
+            } catch (RuntimeException e) {
+                call = CompletableFuture.failedFuture(e);
+            }
+            CompletableFuture<String> started = call;
+            started.whenComplete((response, error) -> {
+                release(start, error != null && !started.isCancelled()); // Our cancellation says nothing about the upstream
+                if (error != null) result.completeExceptionally(error); else result.complete(response);
+            });
+            result.whenComplete((response, error) -> started.cancel(true)); // No-op once the call is done
+        });
+
+        waiters.offer(permit);
+        grantWaiters(); // Re-check after enqueueing so a release that just happened isn't missed
+        return result;
+    }
+
+    private void release(long startNanos, boolean failed) {
+        limiter.release(startNanos, failed);
+        grantWaiters();
+    }
+
+    private void grantWaiters() {
+        while (!waiters.isEmpty() && limiter.tryAcquire()) {
+            CompletableFuture<Void> next = waiters.poll();
+            if (next == null) { // Another thread took it first
+                limiter.cancel();
+                return;
+            }
+            if (!next.complete(null)) limiter.cancel(); // Cancelled while queued: the slot goes to the next waiter
+        }
+    }
+}
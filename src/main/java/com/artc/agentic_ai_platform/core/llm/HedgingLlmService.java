@@ -0,0 +1,49 @@
+package com.artc.agentic_ai_platform.core.llm;
+
+import com.artc.agentic_ai_platform.executor.Hedger;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * Hedged LLM calls (app.llm.hedge): a call slower than the recent p95 (configurable) gets a duplicate,
+ * and the first answer wins. Sits above the concurrency cap, so a hedge waits for a permit like any other call.
+ * Blocking callers wait on the async race, so the hedge never needs a thread of its own.
+ * Streams are not hedged: chunks from two calls can't be merged.
+ */
+public class HedgingLlmService implements ILlmService {
+
+    private final ILlmService delegate;
+    private final Hedger hedger;
+
+    public HedgingLlmService(ILlmService delegate, Hedger hedger) {
+        this.delegate = delegate;
+        this.hedger = hedger;
+    }
+
+    @Override
+    public String generate(String systemPrompt, String userPrompt) {
+        CompletableFuture<String> race = generateAsync(systemPrompt, userPrompt);
+        try {
+            return race.get();
+        } catch (InterruptedException e) {
+            race.cancel(true); // Cancels every attempt, which gives its LLM permit back
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a hedged LLM call", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re; // Same exception type as an unhedged call
+            throw new IllegalStateException("Hedged LLM call failed", e.getCause());
+        }
+    }
+
+    @Override
+    public CompletableFuture<String> generateAsync(String systemPrompt, String userPrompt) {
+        return hedger.race(() -> delegate.generateAsync(systemPrompt, userPrompt));
+    }
+
+    @Override
+    public CompletableFuture<String> generateStream(String systemPrompt, String userPrompt, Consumer<String> onChunk) {
+        return delegate.generateStream(systemPrompt, userPrompt, onChunk);
+    }
+}
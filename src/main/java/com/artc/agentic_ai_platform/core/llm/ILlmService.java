@@ -1,5 +1,29 @@
 package com.artc.agentic_ai_platform.core.llm;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
 public interface ILlmService {
     public String generate(String systemPrompt, String userPrompt);
+
+    // Non-blocking variant: no thread should be held while the model is working.
+    // Clients without native async support fall back to running generate() on the caller's thread.
+    default CompletableFuture<String> generateAsync(String systemPrompt, String userPrompt) {
+        try {
+            return CompletableFuture.completedFuture(generate(systemPrompt, userPrompt));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    // Streaming variant: 'onChunk' receives the response text piece by piece, in order and one call at a time,
+    // as the model produces it; the future completes with the full text afterwards. If 'onChunk' throws,
+    // the stream is abandoned and the future fails with that exception.
+    // Clients without native streaming deliver the whole response as one chunk.
+    default CompletableFuture<String> generateStream(String systemPrompt, String userPrompt, Consumer<String> onChunk) {
+        return generateAsync(systemPrompt, userPrompt).thenApply(response -> {
+            onChunk.accept(response);
+            return response;
+        });
+    }
 }
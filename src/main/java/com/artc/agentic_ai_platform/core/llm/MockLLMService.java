@@ -2,14 +2,51 @@ package com.artc.agentic_ai_platform.core.llm;
 
 import org.springframework.stereotype.Service;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 @Service
 public class MockLLMService implements ILlmService {
 
+    private static final Pattern ITEM_SECTION = Pattern.compile("\\[ITEM (\\d+)]([\\s\\S]*?)(?=\\[ITEM \\d+]|$)");
+
+    private static final int STREAM_CHUNK_CHARS = 24;
+
     private final Random random = new Random();
 
     public String generate(String systemPrompt, String userPrompt) {
         simulateLatency();
+        return respond(systemPrompt, userPrompt);
+    }
+
+    // Same answers, but the latency is a timer instead of a sleeping thread (like a real non-blocking HTTP client)
+    @Override
+    public CompletableFuture<String> generateAsync(String systemPrompt, String userPrompt) {
+        Executor afterLatency = CompletableFuture.delayedExecutor(latencyMs(), TimeUnit.MILLISECONDS);
+        return CompletableFuture.supplyAsync(() -> respond(systemPrompt, userPrompt), afterLatency);
+    }
+
+    // Same answers, produced a few characters at a time over the usual latency
+    @Override
+    public CompletableFuture<String> generateStream(String systemPrompt, String userPrompt, Consumer<String> onChunk) {
+        String response = respond(systemPrompt, userPrompt);
+        int chunks = Math.max(1, (response.length() + STREAM_CHUNK_CHARS - 1) / STREAM_CHUNK_CHARS);
+        long perChunkMs = Math.max(1, latencyMs() / chunks);
+
+        CompletableFuture<Void> emitted = CompletableFuture.completedFuture(null);
+        for (int start = 0; start < response.length(); start += STREAM_CHUNK_CHARS) {
+            String chunk = response.substring(start, Math.min(response.length(), start + STREAM_CHUNK_CHARS));
+            Executor later = CompletableFuture.delayedExecutor(perChunkMs, TimeUnit.MILLISECONDS);
+            emitted = emitted.thenRunAsync(() -> onChunk.accept(chunk), later); // A failed chunk skips the rest
+        }
+        return emitted.thenApply(done -> response);
+    }
+
+    private String respond(String systemPrompt, String userPrompt) {
         String userPromptLower = userPrompt.toLowerCase();
 
         // --- 1. PLANNER LOGIC (Rich Decomposition) ---
@@ -46,14 +83,16 @@ public class MockLLMService implements ILlmService {
 
         // --- 2. WORKER LOGIC (Context Aware) ---
         if (systemPrompt.contains("Worker Agent")) {
-            // Logic to detect "CRITICAL" in raw output
-            if (userPrompt.contains("CRITICAL") || userPrompt.contains("150C")) {
-                return "INSIGHT (Critical): Thermal Runaway pattern detected. Risk: HIGH.";
-            }
-            if (userPrompt.contains("OVERDUE")) {
-                return "INSIGHT (Maintenance): Service is 6 months overdue.";
+            // Batched prompt: answer each [ITEM n] section on its own line
+            if (userPrompt.contains("[ITEM ")) {
+                StringBuilder answer = new StringBuilder();
+                Matcher m = ITEM_SECTION.matcher(userPrompt);
+                while (m.find()) {
+                    answer.append("[ITEM ").append(m.group(1)).append("] ").append(analyzeChunk(m.group(2))).append('\n');
+                }
+                return answer.toString();
             }
-            return "INSIGHT: No anomalies found in this chunk.";
+            return analyzeChunk(userPrompt);
         }
 
         // --- 3. REVIEWER LOGIC ---
@@ -67,8 +106,23 @@ public class MockLLMService implements ILlmService {
         return "I am unsure.";
     }
 
+    private String analyzeChunk(String chunk) {
+        // Logic to detect "CRITICAL" in raw output
+        if (chunk.contains("CRITICAL") || chunk.contains("150C")) {
+            return "INSIGHT (Critical): Thermal Runaway pattern detected. Risk: HIGH.";
+        }
+        if (chunk.contains("OVERDUE")) {
+            return "INSIGHT (Maintenance): Service is 6 months overdue.";
+        }
+        return "INSIGHT: No anomalies found in this chunk.";
+    }
+
+    private long latencyMs() {
+        return 300 + random.nextInt(1000);
+    }
+
     private void simulateLatency() {
-        try { Thread.sleep(300 + random.nextInt(1000)); }
-        catch (InterruptedException e) {}
+        try { Thread.sleep(latencyMs()); }
+        catch (InterruptedException e) { Thread.currentThread().interrupt(); } // Cancelled by a worker deadline
     }
 }
\ No newline at end of file
@@ -0,0 +1,31 @@
+package com.artc.agentic_ai_platform.core.llm;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Stable identity of an LLM request: SHA-256 over the normalized system and user prompts.
+ * Whitespace-only differences (indentation of text blocks, trailing newlines) map to the same key.
+ */
+public final class PromptKey {
+
+    private PromptKey() {}
+
+    public static String of(String systemPrompt, String userPrompt) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(normalize(systemPrompt).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0); // Separator: ("ab", "c") and ("a", "bc") must not collide
+            digest.update(normalize(userPrompt).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e); // Mandatory in every JRE
+        }
+    }
+
+    static String normalize(String prompt) {
+        return prompt == null ? "" : prompt.strip().replaceAll("\\s+", " ");
+    }
+}
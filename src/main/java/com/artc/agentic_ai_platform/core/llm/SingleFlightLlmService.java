@@ -0,0 +1,148 @@
+package com.artc.agentic_ai_platform.core.llm;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * Request coalescing: while a call for a prompt is in flight, identical calls from other threads
+ * wait for it instead of going upstream. Every caller gets the leader's result (or its exception).
+ * Nothing is kept once the call completes; repeats after that are the response cache's job.
+ * A blocking leader that is interrupted (its deadline, shutdown) fails alone: its followers, possibly
+ * from other workflows, start over and one of them makes the call.
+ */
+public class SingleFlightLlmService implements ILlmService {
+
+    private final ILlmService delegate;
+    private final Map<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+    private final Counter coalesced;
+
+    // Published instead of the exception of an interrupted leader; never leaves this class
+    private static final LeaderInterrupted LEADER_INTERRUPTED = new LeaderInterrupted();
+
+    public SingleFlightLlmService(ILlmService delegate, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.coalesced = registry.counter("llm.singleflight.coalesced");
+    }
+
+    @Override
+    public String generate(String systemPrompt, String userPrompt) {
+        String key = PromptKey.of(systemPrompt, userPrompt);
+
+        boolean counted = false;
+        while (true) {
+            CompletableFuture<String> mine = new CompletableFuture<>();
+            CompletableFuture<String> leader = inFlight.putIfAbsent(key, mine);
+            if (leader == null) return leadBlocking(key, mine, systemPrompt, userPrompt);
+
+            if (!counted) coalesced.increment();
+            counted = true;
+            try {
+                return await(leader);
+            } catch (LeaderInterrupted e) {
+                // Its call was cut short for its own reasons: lead or follow the next one
+            }
+        }
+    }
+
+    // This thread is the leader: make the call, let the next caller start fresh, then publish the outcome
+    private String leadBlocking(String key, CompletableFuture<String> mine, String systemPrompt, String userPrompt) {
+        String response;
+        try {
+            response = delegate.generate(systemPrompt, userPrompt);
+        } catch (RuntimeException | Error e) {
+            inFlight.remove(key, mine);
+            mine.completeExceptionally(Thread.currentThread().isInterrupted() ? LEADER_INTERRUPTED : e);
+            throw e;
+        }
+        inFlight.remove(key, mine);
+        mine.complete(response);
+        return response;
+    }
+
+    @Override
+    public CompletableFuture<String> generateAsync(String systemPrompt, String userPrompt) {
+        return lead(systemPrompt, userPrompt, null);
+    }
+
+    // The leader streams; followers can't join a stream halfway, so they get the full text as one chunk
+    @Override
+    public CompletableFuture<String> generateStream(String systemPrompt, String userPrompt, Consumer<String> onChunk) {
+        return lead(systemPrompt, userPrompt, onChunk);
+    }
+
+    private CompletableFuture<String> lead(String systemPrompt, String userPrompt, Consumer<String> onChunk) {
+        String key = PromptKey.of(systemPrompt, userPrompt);
+
+        CompletableFuture<String> mine = new CompletableFuture<>();
+        CompletableFuture<String> leader = inFlight.putIfAbsent(key, mine);
+        if (leader != null) {
+            coalesced.increment();
+            return follow(leader, systemPrompt, userPrompt, onChunk);
+        }
+
+        CompletableFuture<String> call;
+        try {
+            call = onChunk == null
+                    ? delegate.generateAsync(systemPrompt, userPrompt)
+                    : delegate.generateStream(systemPrompt, userPrompt, onChunk);
+        } catch (RuntimeException e) {
+            call = CompletableFuture.failedFuture(e);
+        }
+        call.whenComplete((response, error) -> {
+            inFlight.remove(key, mine);
+            if (error == null) {
+                mine.complete(response);
+            } else { // Store the real cause so synchronous followers rethrow the leader's exception type
+                mine.completeExceptionally(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+            }
+        });
+        return mine.copy();
+    }
+
+    // A new future per follower: callers can't complete or cancel the shared one
+    private CompletableFuture<String> follow(CompletableFuture<String> leader, String systemPrompt, String userPrompt, Consumer<String> onChunk) {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        leader.whenComplete((response, error) -> {
+            if (error instanceof LeaderInterrupted) { // A blocking leader gave up: start over
+                lead(systemPrompt, userPrompt, onChunk).whenComplete((r, e) -> {
+                    if (e != null) result.completeExceptionally(e); else result.complete(r);
+                });
+            } else if (error != null) {
+                result.completeExceptionally(error);
+            } else {
+                try {
+                    if (onChunk != null) onChunk.accept(response);
+                    result.complete(response);
+                } catch (RuntimeException e) {
+                    result.completeExceptionally(e);
+                }
+            }
+        });
+        return result;
+    }
+
+    private static String await(CompletableFuture<String> leader) {
+        try {
+            return leader.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a coalesced LLM call", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re; // Same exception type the leader saw (or LeaderInterrupted)
+            throw new IllegalStateException("Coalesced LLM call failed", e.getCause());
+        }
+    }
+
+    private static final class LeaderInterrupted extends RuntimeException {
+        LeaderInterrupted() {
+            super("Coalesced LLM call abandoned by its interrupted leader", null, false, false);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.artc.agentic_ai_platform.engine;
+
+import com.artc.agentic_ai_platform.config.AppConfig;
+import com.artc.agentic_ai_platform.core.ITaskQueue;
+import com.artc.agentic_ai_platform.model.AgentType;
+import com.artc.agentic_ai_platform.model.Task;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * Ingest backpressure: decides whether a new incident is accepted or turned away with 429 + Retry-After.
+ * A new incident waits behind the ingest (PLANNER) lane, so its wait is estimated as
+ * lane depth / how fast consumers have been draining that lane recently.
+ *
+ * The drain rate is this node's; on a shared Redis queue the estimate is therefore conservative.
+ *
+ * Metrics: incidents.rejected{reason=depth|wait|capacity} and queue.depth{lane}.
+ */
+@Component
+@Slf4j
+public class AdmissionControl {
+
+    private static final AgentType INGEST_LANE = AgentType.PLANNER;
+    private static final int WINDOW_SEC = 30; // Drain rate = tasks taken from the ingest lane over the last 30s
+
+    private final AppConfig.Queue.Admission config;
+    private final ITaskQueue queue;
+    private final MeterRegistry registry;
+    private final LongSupplier clock;
+    private final long startSec;
+
+    // Ring of per-second buckets, guarded by 'this'
+    private final long[] bucketSec = new long[WINDOW_SEC];
+    private final long[] bucketCount = new long[WINDOW_SEC];
+
+    @Autowired
+    public AdmissionControl(AppConfig appConfig, ITaskQueue queue, MeterRegistry registry) {
+        this(appConfig, queue, registry, System::currentTimeMillis);
+    }
+
+    AdmissionControl(AppConfig appConfig, ITaskQueue queue, MeterRegistry registry, LongSupplier clock) {
+        this.config = appConfig.getQueue().getAdmission();
+        this.queue = queue;
+        this.registry = registry;
+        this.clock = clock;
+        this.startSec = clock.getAsLong() / 1000;
+        for (AgentType lane : AgentType.values()) {
+            Gauge.builder("queue.depth", queue, q -> q.depth(lane)).tag("lane", lane.name().toLowerCase()).register(registry);
+        }
+    }
+
+    public record Decision(boolean admitted, String reason, long retryAfterSec) {
+        static final Decision ADMIT = new Decision(true, null, 0);
+    }
+
+    /**
+     * Checked before an incident is queued. Rejects when the ingest lane is at max_depth, or when
+     * the estimated wait exceeds max_wait_sec. Without a drain rate yet (idle or just started) only
+     * the depth cap applies.
+     */
+    public Decision check() {
+        if (config == null || !config.isEnabled()) return Decision.ADMIT;
+
+        long depth = queue.depth(INGEST_LANE);
+        double rate = drainRate();
+
+        if (config.getMaxDepth() > 0 && depth >= config.getMaxDepth()) {
+            return reject("depth", depth - config.getMaxDepth() + 1, rate);
+        }
+        if (config.getMaxWaitSec() > 0 && rate > 0 && depth / rate > config.getMaxWaitSec()) {
+            return reject("wait", depth - config.getMaxWaitSec() * rate, rate);
+        }
+        return Decision.ADMIT;
+    }
+
+    // The queue itself refused the push (bounded InMemoryQueue is full)
+    public Decision queueFull() {
+        return reject("capacity", 1, drainRate());
+    }
+
+    // Called by consumers with every fetched batch
+    public void onDequeued(List<Task> batch) {
+        int n = 0;
+        for (Task t : batch) {
+            if (t.getTargetAgent() == null || t.getTargetAgent() == INGEST_LANE) n++;
+        }
+        if (n > 0) record(n);
+    }
+
+    // Ingest-lane tasks per second over the window (or since start, while the window isn't full yet)
+    synchronized double drainRate() {
+        long now = clock.getAsLong() / 1000;
+        long total = 0;
+        for (int i = 0; i < WINDOW_SEC; i++) {
+            if (now - bucketSec[i] < WINDOW_SEC) total += bucketCount[i];
+        }
+        long span = Math.min(WINDOW_SEC, now - startSec + 1);
+        return (double) total / span;
+    }
+
+    private synchronized void record(int n) {
+        long now = clock.getAsLong() / 1000;
+        int i = (int) (now % WINDOW_SEC);
+        if (bucketSec[i] != now) {
+            bucketSec[i] = now;
+            bucketCount[i] = 0;
+        }
+        bucketCount[i] += n;
+    }
+
+    // Retry-After: time for the backlog above the threshold to drain, never below retry_after_sec
+    private Decision reject(String reason, double excessTasks, double rate) {
+        long retryAfter = config.getRetryAfterSec();
+        if (rate > 0) retryAfter = Math.max(retryAfter, (long) Math.ceil(excessTasks / rate));
+        registry.counter("incidents.rejected", "reason", reason).increment();
+        log.warn("Incident rejected ({}). Retry after {}s, drain rate {}/s", reason, retryAfter, String.format("%.2f", rate));
+        return new Decision(false, reason, retryAfter);
+    }
+}
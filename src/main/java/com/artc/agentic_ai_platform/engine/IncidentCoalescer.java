@@ -0,0 +1,121 @@
+package com.artc.agentic_ai_platform.engine;
+
+import com.artc.agentic_ai_platform.config.AppConfig;
+import com.artc.agentic_ai_platform.constants.AppConstants;
+import com.artc.agentic_ai_platform.core.IStorageBackend;
+import com.artc.agentic_ai_platform.model.TaskPriority;
+import com.artc.agentic_ai_platform.model.WorkflowStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Ingest-side deduplication for incident storms. The first incident for an identity claims it in
+ * IStorageBackend (saveIfAbsent, so concurrent reports on other nodes race safely). Repeats within
+ * the window are linked to that workflow instead of starting a new one.
+ *
+ * Identity = the asset named in the text (app.queue.dedup.asset_pattern) or else the normalized payload,
+ * plus the severity: a CRITICAL report about an asset never disappears into a routine workflow.
+ */
+@Component
+@Slf4j
+public class IncidentCoalescer {
+
+    private static final Set<String> TERMINAL = Set.of(
+            WorkflowStatus.COMPLETED.name(), WorkflowStatus.COMPLETED_NO_REVIEW.name(), WorkflowStatus.FAILED.name());
+
+    private final AppConfig.Queue.Dedup config;
+    private final IStorageBackend storage;
+    private final Pattern assetPattern;
+    private final Counter coalesced;
+
+    public IncidentCoalescer(AppConfig appConfig, IStorageBackend storage, MeterRegistry registry) {
+        this.config = appConfig.getQueue().getDedup();
+        this.storage = storage;
+        String pattern = config == null ? null : config.getAssetPattern();
+        this.assetPattern = pattern == null || pattern.isBlank() ? null : Pattern.compile(pattern);
+        this.coalesced = registry.counter("incidents.coalesced");
+    }
+
+    public boolean isEnabled() {
+        return config != null && config.isEnabled();
+    }
+
+    /**
+     * Registers 'workflowId' as the owner of this incident's identity, or links the incident to the
+     * workflow that already owns it. Returns that workflow's ID when the incident was linked.
+     * A workflow that already finished owns nothing: the incident takes the identity over and starts afresh.
+     */
+    public Optional<String> attach(String payload, TaskPriority priority, String workflowId, String incidentId) {
+        if (!isEnabled()) return Optional.empty();
+
+        String dedupKey = dedupKey(payload, priority);
+        Optional<String> owner;
+        while (true) {
+            owner = storage.saveIfAbsent(dedupKey, workflowId, config.getWindowSec());
+            if (owner.isEmpty() || !isFinished(owner.get())) break;
+            // Compare-and-set: of several reports finding the same finished owner, exactly one takes over
+            if (storage.compareAndSet(dedupKey, owner.get(), workflowId, config.getWindowSec())) {
+                owner = Optional.empty();
+                break;
+            }
+            // Another report took over first (or the claim expired): follow it, or claim afresh
+        }
+        if (owner.isEmpty()) return owner; // The new workflow's own incident is recorded by register(), once queued
+
+        storage.addToSet(String.format(AppConstants.KEY_INCIDENTS, owner.get()), incidentId);
+        coalesced.increment();
+        log.info("Incident {} coalesced into workflow {} ({})", incidentId, owner.get(), dedupKey);
+        return owner;
+    }
+
+    // The new workflow was accepted (queued): its first incident becomes the head of its incident list
+    public void register(String workflowId, String incidentId) {
+        if (!isEnabled()) return;
+        storage.addToSet(String.format(AppConstants.KEY_INCIDENTS, workflowId), incidentId);
+    }
+
+    // The new workflow was not started after all (rejected at admission): free the identity again
+    public void detach(String payload, TaskPriority priority, String workflowId) {
+        if (!isEnabled()) return;
+        storage.deleteIfEquals(dedupKey(payload, priority), workflowId); // A newer owner keeps its claim
+    }
+
+    // No status yet means the owner was claimed a moment ago and is still being queued
+    private boolean isFinished(String workflowId) {
+        return storage.get(String.format(AppConstants.KEY_STATUS, workflowId), String.class)
+                .filter(TERMINAL::contains)
+                .isPresent();
+    }
+
+    String dedupKey(String payload, TaskPriority priority) {
+        String text = payload == null ? "" : payload;
+        String identity = null;
+        if (assetPattern != null) {
+            Matcher m = assetPattern.matcher(text);
+            if (m.find() && m.groupCount() >= 1 && m.group(1) != null) identity = "asset:" + m.group(1).toUpperCase(Locale.ROOT);
+        }
+        if (identity == null) identity = "payload:" + sha256(text.strip().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT));
+        return String.format(AppConstants.KEY_INCIDENT_DEDUP, priority + ":" + identity);
+    }
+
+    private static String sha256(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e); // Mandatory in every JRE
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.artc.agentic_ai_platform.engine;
 
 import com.artc.agentic_ai_platform.config.AppConfig;
+import com.artc.agentic_ai_platform.core.ITaskQueue;
+import com.artc.agentic_ai_platform.model.AgentType;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -9,6 +11,7 @@ import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
 import java.util.concurrent.Executor;
 
 @Component
@@ -36,5 +39,17 @@ public class WorkerBootstrap {
             final int workerId = i;
             executor.execute(() -> workflowEngine.runConsumerLoop(workerId));
         }
+
+        // Dedicated lane consumers: a burst in one lane can't take every consumer away from the others
+        int workerId = workerCount;
+        AppConfig.Queue.Lanes lanes = appConfig.getQueue().getLanes();
+        for (AgentType lane : ITaskQueue.ALL_LANES) {
+            int count = lanes.consumersFor(lane);
+            if (count > 0) log.info(">> BOOTSTRAP: Launching {} dedicated {} consumer(s) ...", count, lane);
+            for (int i = 0; i < count; i++) {
+                final int id = workerId++;
+                executor.execute(() -> workflowEngine.runConsumerLoop(id, List.of(lane)));
+            }
+        }
     }
 }
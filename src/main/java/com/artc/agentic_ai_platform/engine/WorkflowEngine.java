@@ -7,43 +7,64 @@ import com.artc.agentic_ai_platform.core.IStorageBackend;
 import com.artc.agentic_ai_platform.core.ITaskQueue;
 import com.artc.agentic_ai_platform.core.exception.RetryableException;
 import com.artc.agentic_ai_platform.core.exception.TerminalException;
+import com.artc.agentic_ai_platform.executor.ConcurrencyLimits;
 import com.artc.agentic_ai_platform.model.AgentType;
 import com.artc.agentic_ai_platform.model.Task;
 import com.artc.agentic_ai_platform.model.WorkflowStatus;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
 import java.util.stream.Collectors;
 
 @Service
 @Slf4j
 public class WorkflowEngine {
 
+    private static final Duration POP_TIMEOUT = Duration.ofSeconds(2);
+
     private final AppConfig appConfig;
     private final ITaskQueue queue;
     private final Map<AgentType, IAgent> agentMap;
     private final IStorageBackend storage;
+    private final ConcurrencyLimits limits;
+    private final Executor taskExecutor;
+    private final AdmissionControl admission;
 
-    public WorkflowEngine(AppConfig appConfig, ITaskQueue queue, List<IAgent> agentList, IStorageBackend storage) {
+    public WorkflowEngine(AppConfig appConfig, ITaskQueue queue, List<IAgent> agentList, IStorageBackend storage,
+                          ConcurrencyLimits limits, @Qualifier("agentTaskExecutor") Executor taskExecutor,
+                          AdmissionControl admission) {
         this.appConfig = appConfig;
         this.queue = queue;
         this.agentMap = agentList.stream().collect(Collectors.toMap(IAgent::getType, a -> a));
         this.storage = storage;
+        this.limits = limits;
+        this.taskExecutor = taskExecutor;
+        this.admission = admission;
     }
 
     /**
      * The main consumer loop. This runs indefinitely on a worker thread.
      */
     public void runConsumerLoop(int workerId) {
-        log.info("Worker-{} started.", workerId);
+        runConsumerLoop(workerId, ITaskQueue.ALL_LANES);
+    }
 
-        while (true) {
-            Task task = null;
+    /**
+     * Consumer loop serving only the given lanes, in order of preference.
+     */
+    public void runConsumerLoop(int workerId, List<AgentType> lanes) {
+        log.info("Worker-{} started. Lanes: {}", workerId, lanes);
 
+        while (true) {
             try {
                 // 1. Check for Shutdown Signal before blocking
                 if (Thread.currentThread().isInterrupted()) {
@@ -51,39 +72,22 @@ public class WorkflowEngine {
                     break;
                 }
 
-                // 2. Fetch Task (Blocking)
-                Optional<Task> taskOpt = queue.pop();
-                if (taskOpt.isEmpty()) {
+                // 2. Fetch Tasks (Blocking until at least one is ready)
+                List<Task> batch = queue.popBatch(lanesWithCapacity(lanes), fetchSize(), POP_TIMEOUT);
+                if (batch.isEmpty()) {
                     if (Thread.interrupted()) { // Clear flag if interrupted during poll
                         log.info("Worker-{} interrupted during poll. Shutting down.", workerId);
                         break;
                     }
                     continue;
                 }
+                admission.onDequeued(batch); // Drain rate behind the ingest wait estimate
 
-                task = taskOpt.get();
-                MDC.put("traceId", task.getWorkflowId());
-
-                // 3. Check Backoff (Is it too early?)
-                if (shouldWait(task)) {
-                    queue.push(task);
-                    try { Thread.sleep(200); } catch (InterruptedException ig) {}
-                    continue;
+                // 3. Dispatch (backing-off retries stay in the queue's delay structure until due)
+                for (Task task : batch) {
+                    dispatch(task);
                 }
 
-                // 4. Process
-                processTask(task);
-
-            } catch (RetryableException e) {
-                handleRetry(task, e);
-
-            } catch (TerminalException e) {
-                log.error("TERMINAL FAILURE [Task: {}]: {}. Dropping.",
-                        task != null ? task.getTaskId() : "unknown", e.getMessage());
-
-                // Handle Expected Fatal Errors and update workflow status accordingly
-                if (task != null) markAsFailed(task.getWorkflowId(), e.getMessage());
-
             } catch (Exception e) {
                 // Handle Shutdown or Crash
                 if (isShutdownSignal(e)) {
@@ -91,28 +95,162 @@ public class WorkflowEngine {
                     Thread.currentThread().interrupt();
                     break;
                 }
-                log.error("Unexpected error processing task", e);
-
-                // Handle unexpected crashes and update workflow status accordingly
-                if (task != null) markAsFailed(task.getWorkflowId(), e.getMessage());
+                log.error("Unexpected error in consumer loop", e);
 
                 // Prevent tight loop on crash
                 try { Thread.sleep(1000); } catch (InterruptedException ig) {}
+            }
+        }
+    }
+
+    /**
+     * Don't pull work for an agent type whose bulkhead is full: it would only park this consumer
+     * while other lanes have work it could run. If every lane is full, wait on the preferred one.
+     */
+    private List<AgentType> lanesWithCapacity(List<AgentType> lanes) {
+        if (lanes.size() == 1) return lanes;
+        List<AgentType> open = lanes.stream().filter(lane -> limits.forAgent(lane).availablePermits() > 0).toList();
+        return open.isEmpty() ? lanes : open;
+    }
+
+    /**
+     * platform mode runs tasks inline on the consumer thread, so a batch would be processed serially
+     * while other consumers sit idle: fetch one at a time there.
+     */
+    private int fetchSize() {
+        AppConfig.Queue.Concurrency concurrency = appConfig.getQueue().getConcurrency();
+        boolean inline = !"virtual".equalsIgnoreCase(concurrency.getThreadMode()) && !isAsyncMode();
+        return inline ? 1 : Math.max(1, concurrency.getBatchSize());
+    }
+
+    private boolean isAsyncMode() {
+        return "async".equalsIgnoreCase(appConfig.getQueue().getConcurrency().getThreadMode());
+    }
+
+    /**
+     * Bulkhead: a permit per agent type is taken before the task runs, so a full agent type
+     * pushes back on the consumer instead of piling up threads.
+     * platform mode runs the task inline; virtual mode hands it to its own virtual thread;
+     * async mode starts it and returns, the permit is released when the agent's future completes.
+     */
+    private void dispatch(Task task) throws InterruptedException {
+        Semaphore permits = limits.forAgent(task.getTargetAgent());
+        permits.acquire();
+        if (isAsyncMode()) {
+            runTaskAsync(task, permits);
+            return;
+        }
+        try {
+            taskExecutor.execute(() -> {
+                try {
+                    runTask(task);
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RuntimeException e) { // Rejected by the executor
+            permits.release();
+            throw e;
+        }
+    }
+
+    private void runTask(Task task) {
+        MDC.put("traceId", task.getWorkflowId());
+        try {
+            Exception error = null;
+            try {
+                pushDownstream(agentFor(task).process(task));
+            } catch (Exception e) {
+                error = e;
+            }
+            settle(task, error, true);
+        } finally {
+            MDC.clear();
+        }
+    }
+
+    // No thread is parked while the agent waits on the LLM; the outcome is handled on 'taskExecutor'
+    private void runTaskAsync(Task task, Semaphore permits) {
+        MDC.put("traceId", task.getWorkflowId());
+        CompletableFuture<List<Task>> pending;
+        try {
+            pending = agentFor(task).processAsync(task);
+        } catch (RuntimeException e) { // Failed before going async (unknown agent, bad tool, ...)
+            pending = CompletableFuture.failedFuture(e);
+        } finally {
+            MDC.clear();
+        }
+
+        pending.whenCompleteAsync((downstream, error) -> {
+            MDC.put("traceId", task.getWorkflowId());
+            try {
+                Throwable failure = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                if (failure == null) {
+                    try {
+                        pushDownstream(downstream);
+                    } catch (RuntimeException e) {
+                        failure = e;
+                    }
+                }
+                settle(task, failure, false);
             } finally {
                 MDC.clear();
+                permits.release();
             }
+        }, taskExecutor);
+    }
+
+    // Outcome handling shared by all thread modes
+    private void settle(Task task, Throwable error, boolean inline) {
+        if (error == null) {
+            queue.ack(task);
+            return;
+        }
+
+        boolean handled = true;
+        try {
+            if (error instanceof RetryableException e) {
+                handleRetry(task, e);
+
+            } else if (error instanceof TerminalException e) {
+                log.error("TERMINAL FAILURE [Task: {}]: {}. Dropping.", task.getTaskId(), e.getMessage());
+
+                // Handle Expected Fatal Errors and update workflow status accordingly
+                markAsFailed(task.getWorkflowId(), e.getMessage());
+
+            } else {
+                // Shutdown while processing: let the consumer loop see it
+                if (isShutdownSignal(error)) {
+                    handled = false; // Leave it un-acked so a live consumer picks it up again
+                    if (inline) Thread.currentThread().interrupt();
+                    return;
+                }
+                log.error("Unexpected error processing task", error);
+
+                // Handle unexpected crashes and update workflow status accordingly
+                markAsFailed(task.getWorkflowId(), error.getMessage());
+
+                // Prevent tight loop on crash (the consumer thread is the one running it)
+                if (inline) {
+                    try { Thread.sleep(1000); } catch (InterruptedException ig) {}
+                }
+            }
+        } finally {
+            if (handled) queue.ack(task);
         }
     }
 
-    private void processTask(Task task) {
+    private IAgent agentFor(Task task) {
         IAgent agent = agentMap.get(task.getTargetAgent());
         if (agent == null) {
             throw new TerminalException("Unknown Agent Type: " + task.getTargetAgent());
         }
+        return agent;
+    }
 
-        List<Task> downstreamTasks = agent.process(task);
-        if (downstreamTasks != null) {
-            downstreamTasks.forEach(queue::push);
+    private void pushDownstream(List<Task> downstreamTasks) {
+        if (downstreamTasks != null && !downstreamTasks.isEmpty()) {
+            queue.pushAll(downstreamTasks);
         }
     }
 
@@ -159,12 +297,7 @@ public class WorkflowEngine {
         }
     }
 
-    private boolean shouldWait(Task task) {
-        return task.getNextRetryTimestamp() > 0 &&
-                System.currentTimeMillis() < task.getNextRetryTimestamp();
-    }
-
-    private boolean isShutdownSignal(Exception e) {
+    private boolean isShutdownSignal(Throwable e) {
         return e instanceof InterruptedException || e.getCause() instanceof InterruptedException;
     }
 }
\ No newline at end of file
@@ -0,0 +1,154 @@
+package com.artc.agentic_ai_platform.executor;
+
+import com.artc.agentic_ai_platform.config.AppConfig;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limit that follows the observed latency of the calls it guards (gradient style).
+ *
+ * A slow-moving average of the latency is the baseline and a fast one tracks the current value.
+ * While current <= tolerance * baseline the limit grows by about sqrt(limit) per sample (smoothed). Once
+ * latency rises past that, the limit shrinks in proportion, down to half per sample. Every failed
+ * call cuts the limit by 'backoffRatio' (AIMD-style decrease). Samples taken while less than half the
+ * limit is in use are ignored, since they say nothing about capacity.
+ *
+ * A fixed limiter (see fixed()) never adapts; a limit of 0 there means unlimited.
+ */
+@Slf4j
+public class AdaptiveLimiter {
+
+    private static final double SMOOTHING = 0.2;
+    private static final int SHORT_WINDOW = 10;
+    private static final int LONG_WINDOW = 500;
+
+    private final String name;
+    private final boolean adaptive;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double backoffRatio;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private double limit;      // Guarded by 'lock'
+    private int inFlight;      // Guarded by 'lock'
+    private double shortRttNs; // Guarded by 'lock', 0 = no sample yet
+    private double longRttNs;  // Guarded by 'lock'
+
+    public AdaptiveLimiter(String name, int initialLimit, AppConfig.Adaptive config) {
+        this(name, true, config.getMinLimit(), config.getMaxLimit(), initialLimit, config.getTolerance(), config.getBackoffRatio());
+    }
+
+    private AdaptiveLimiter(String name, boolean adaptive, int minLimit, int maxLimit, int initialLimit, double tolerance, double backoffRatio) {
+        this.name = name;
+        this.adaptive = adaptive;
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.tolerance = tolerance;
+        this.backoffRatio = backoffRatio;
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+    }
+
+    public static AdaptiveLimiter fixed(String name, int limit) {
+        int cap = limit > 0 ? limit : Integer.MAX_VALUE;
+        return new AdaptiveLimiter(name, false, cap, cap, cap, 1, 1);
+    }
+
+    public void acquire() throws InterruptedException {
+        lock.lock();
+        try {
+            while (inFlight >= (int) limit) released.await();
+            inFlight++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean tryAcquire() {
+        lock.lock();
+        try {
+            if (inFlight >= (int) limit) return false;
+            inFlight++;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the permit and feeds the call's outcome into the limit.
+     * @param startNanos System.nanoTime() when the guarded call started
+     */
+    public void release(long startNanos, boolean failed) {
+        long rttNs = System.nanoTime() - startNanos;
+        lock.lock();
+        try {
+            if (adaptive) update(rttNs, failed);
+            inFlight--;
+            released.signalAll(); // The limit may have grown by more than one
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Returns a permit without a sample (the call never started)
+    public void cancel() {
+        lock.lock();
+        try {
+            inFlight--;
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Caller holds the lock
+    private void update(long rttNs, boolean failed) {
+        int before = (int) limit;
+        if (failed) {
+            limit = Math.max(minLimit, limit * backoffRatio);
+        } else {
+            shortRttNs = shortRttNs == 0 ? rttNs : ema(shortRttNs, rttNs, SHORT_WINDOW);
+            longRttNs = longRttNs == 0 ? rttNs : ema(longRttNs, rttNs, LONG_WINDOW);
+            // After a slow period, let the baseline catch up with the recovered latency quickly
+            if (longRttNs > 2 * shortRttNs) longRttNs *= 0.95;
+
+            if (inFlight < limit / 2) return;
+
+            double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRttNs / shortRttNs));
+            double target = limit * gradient + Math.sqrt(limit);
+            limit = Math.min(maxLimit, Math.max(minLimit, limit * (1 - SMOOTHING) + target * SMOOTHING));
+        }
+        if ((int) limit != before && log.isDebugEnabled()) {
+            log.debug("Limit '{}' {} -> {} (rtt {}ms, baseline {}ms, failed={})", name, before, (int) limit,
+                    TimeUnit.NANOSECONDS.toMillis((long) shortRttNs), TimeUnit.NANOSECONDS.toMillis((long) longRttNs), failed);
+        }
+    }
+
+    private static double ema(double average, double sample, int window) {
+        double alpha = 2.0 / (window + 1);
+        return average + alpha * (sample - average);
+    }
+}
@@ -0,0 +1,74 @@
+package com.artc.agentic_ai_platform.executor;
+
+import com.artc.agentic_ai_platform.config.AppConfig;
+import com.artc.agentic_ai_platform.model.AgentType;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Explicit concurrency caps: one semaphore per agent type, and a limiter each for the LLM and for tool calls.
+ * In 'virtual' thread mode these replace pool sizing as the throttle. A limit of 0 means unlimited.
+ * The LLM and tool limiters can adapt to observed latency (app.llm.adaptive, app.agents.workers.tools.adaptive);
+ * their current limits are published as the 'concurrency.limit' gauge.
+ */
+@Component
+@Slf4j
+public class ConcurrencyLimits implements MeterBinder {
+
+    private static final Semaphore UNLIMITED = new Semaphore(Integer.MAX_VALUE);
+
+    private final Map<AgentType, Semaphore> agentPermits = new EnumMap<>(AgentType.class);
+    private final AdaptiveLimiter llmLimiter;
+    private final AdaptiveLimiter toolLimiter;
+
+    public ConcurrencyLimits(AppConfig appConfig) {
+        AppConfig.Agents agents = appConfig.getAgents();
+        agentPermits.put(AgentType.PLANNER, permits(agents.getPlanner().getMaxConcurrency()));
+        agentPermits.put(AgentType.WORKER, permits(agents.getWorkers().getMaxConcurrency()));
+        agentPermits.put(AgentType.REVIEWER, permits(agents.getReviewer().getMaxConcurrency()));
+        this.llmLimiter = limiter("llm", appConfig.getLlm().getMaxConcurrency(), appConfig.getLlm().getAdaptive());
+        AppConfig.Agents.WorkerConfig.Tools tools = agents.getWorkers().getTools();
+        this.toolLimiter = limiter("tools", tools.getMaxConcurrency(), tools.getAdaptive());
+
+        log.info(">> LIMITS: agents={} llm={} tools={}", agentPermits, llmLimiter.getLimit(), toolLimiter.getLimit());
+    }
+
+    public Semaphore forAgent(AgentType type) {
+        return agentPermits.getOrDefault(type, UNLIMITED);
+    }
+
+    public AdaptiveLimiter forLlm() {
+        return llmLimiter;
+    }
+
+    public AdaptiveLimiter forTools() {
+        return toolLimiter;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        gauges(registry, "llm", llmLimiter);
+        gauges(registry, "tools", toolLimiter);
+    }
+
+    private static void gauges(MeterRegistry registry, String resource, AdaptiveLimiter limiter) {
+        Gauge.builder("concurrency.limit", limiter, AdaptiveLimiter::getLimit).tag("resource", resource).register(registry);
+        Gauge.builder("concurrency.inflight", limiter, AdaptiveLimiter::getInFlight).tag("resource", resource).register(registry);
+    }
+
+    private static AdaptiveLimiter limiter(String name, int limit, AppConfig.Adaptive adaptive) {
+        if (adaptive == null || !adaptive.isEnabled()) return AdaptiveLimiter.fixed(name, limit);
+        return new AdaptiveLimiter(name, limit > 0 ? limit : adaptive.getMaxLimit(), adaptive);
+    }
+
+    private static Semaphore permits(int limit) {
+        return limit > 0 ? new Semaphore(limit) : new Semaphore(Integer.MAX_VALUE);
+    }
+}
@@ -0,0 +1,203 @@
+package com.artc.agentic_ai_platform.executor;
+
+import com.artc.agentic_ai_platform.config.AppConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Hedged requests: when a call is still running after the configured percentile of recent latencies,
+ * an identical second call is started and whichever succeeds first wins; the other is cancelled.
+ *
+ * Hedges are capped by a budget: every call earns budget_percent/100 of a hedge (up to a small burst),
+ * every hedge spends one, so extra load stays near budget_percent even when the upstream is slow for
+ * everyone. Hedging starts after min_samples calls. A failure is not a reason to hedge: if the first
+ * call fails before a hedge was sent, the failure is returned as is.
+ *
+ * Metrics: hedge.requests{client, outcome=sent|won|no_budget}.
+ */
+public class Hedger {
+
+    private static final int WINDOW = 256;        // Latency samples the percentile is taken from
+    private static final int RECOMPUTE_EVERY = 16; // Samples between percentile updates
+    private static final double MAX_BUDGET = 10;   // Hedges that may be saved up for a burst
+
+    private final boolean enabled;
+    private final double percentile;
+    private final double budgetPerCall;
+    private final int minSamples;
+    private final Counter sent;
+    private final Counter won;
+    private final Counter noBudget;
+
+    private final long[] samples = new long[WINDOW]; // Guarded by 'this'
+    private long recorded;                           // Guarded by 'this'
+    private double budget;                           // Guarded by 'this'
+    private volatile long delayNanos = -1;           // -1 = not enough samples yet
+
+    public Hedger(String client, AppConfig.Hedge config, MeterRegistry registry) {
+        this.enabled = config != null && config.isEnabled();
+        this.percentile = config == null ? 95 : Math.min(100, Math.max(1, config.getPercentile()));
+        this.budgetPerCall = config == null ? 0 : Math.max(0, config.getBudgetPercent()) / 100.0;
+        this.minSamples = config == null ? 0 : Math.max(1, config.getMinSamples());
+        this.sent = registry.counter("hedge.requests", "client", client, "outcome", "sent");
+        this.won = registry.counter("hedge.requests", "client", client, "outcome", "won");
+        this.noBudget = registry.counter("hedge.requests", "client", client, "outcome", "no_budget");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Non-blocking: 'attempt' starts a call and returns its future. The hedge is started from a timer thread,
+     * so the attempt should not block (clients without native async support simply never get hedged).
+     */
+    public <T> CompletableFuture<T> race(Supplier<CompletableFuture<T>> attempt) {
+        if (!enabled) return attempt.get();
+
+        earnBudget();
+        Race<T> race = new Race<>();
+        race.add(start(attempt), false);
+
+        long delay = delayNanos;
+        if (delay >= 0 && !race.result.isDone()) {
+            CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS).execute(() -> {
+                if (race.result.isDone() || !takeBudget()) return;
+                if (race.reserveHedge()) race.add(start(attempt), true);
+            });
+        }
+        return race.result;
+    }
+
+    /**
+     * Blocking: the first call runs on the calling thread and the hedge on 'executor'. If the hedge wins,
+     * the calling thread is interrupted so a call that honours interrupts gives up early.
+     * The hedge is cancelled (or never started) as soon as the first call returns.
+     */
+    public <T> T call(Supplier<T> attempt, Executor executor) {
+        if (!enabled) return attempt.get();
+
+        earnBudget();
+        long start = System.nanoTime();
+        long delay = delayNanos;
+        if (delay < 0) {
+            T value = attempt.get();
+            record(System.nanoTime() - start);
+            return value;
+        }
+
+        CompletableFuture<T> winner = new CompletableFuture<>();
+        Thread caller = Thread.currentThread();
+        Object lock = new Object();
+        boolean[] callerRunning = {true};       // Guarded by 'lock'
+        boolean[] callerInterrupted = {false};  // Guarded by 'lock'
+
+        CompletableFuture<T> hedge = InterruptibleTask.supplyAsync(() -> {
+            if (!takeBudget()) throw new CancellationException("No hedge budget");
+            return attempt.get();
+        }, CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS, executor));
+        hedge.whenComplete((value, error) -> {
+            if (error != null || !winner.complete(value)) return;
+            record(System.nanoTime() - start); // Like race(): the winner's latency, whichever attempt won
+            won.increment();
+            synchronized (lock) {
+                if (callerRunning[0]) {
+                    callerInterrupted[0] = true;
+                    caller.interrupt();
+                }
+            }
+        });
+
+        try {
+            T value = attempt.get();
+            if (winner.complete(value)) record(System.nanoTime() - start);
+        } catch (RuntimeException e) {
+            if (!winner.isDone()) throw e; // Failed on its own, not because the hedge won
+        } finally {
+            synchronized (lock) {
+                callerRunning[0] = false;
+                if (callerInterrupted[0]) Thread.interrupted(); // Only clear the interrupt we sent
+            }
+            hedge.cancel(true);
+        }
+        return winner.join();
+    }
+
+    // A client that throws instead of returning a failed future
+    private <T> CompletableFuture<T> start(Supplier<CompletableFuture<T>> attempt) {
+        try {
+            return attempt.get();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private synchronized void earnBudget() {
+        budget = Math.min(MAX_BUDGET, budget + budgetPerCall);
+    }
+
+    private boolean takeBudget() {
+        synchronized (this) {
+            if (budget >= 1 - 1e-9) { // Tolerate rounding: 20 x 0.05 must buy a hedge
+                budget -= 1;
+                sent.increment();
+                return true;
+            }
+        }
+        noBudget.increment();
+        return false;
+    }
+
+    // Latency of the winning call, measured from the first attempt (what the caller waited)
+    synchronized void record(long nanos) {
+        samples[(int) (recorded++ % WINDOW)] = nanos;
+        if (recorded >= minSamples && (recorded % RECOMPUTE_EVERY == 0 || delayNanos < 0)) {
+            long[] window = Arrays.copyOf(samples, (int) Math.min(recorded, WINDOW));
+            Arrays.sort(window);
+            int index = (int) Math.ceil(percentile / 100.0 * window.length) - 1;
+            delayNanos = window[Math.max(0, index)];
+        }
+    }
+
+    long hedgeDelayNanos() {
+        return delayNanos;
+    }
+
+    synchronized long recordedSamples() {
+        return recorded;
+    }
+
+    // One hedged call: at most two attempts, result = first success, or the last failure
+    private final class Race<T> {
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        final AtomicInteger running = new AtomicInteger(1);
+        final long start = System.nanoTime();
+
+        void add(CompletableFuture<T> attempt, boolean isHedge) {
+            result.whenComplete((value, error) -> attempt.cancel(true)); // No-op on the attempt that finished
+            attempt.whenComplete((value, error) -> {
+                if (error == null) {
+                    if (result.complete(value)) {
+                        record(System.nanoTime() - start);
+                        if (isHedge) won.increment();
+                    }
+                } else if (running.decrementAndGet() == 0) {
+                    result.completeExceptionally(error);
+                }
+            });
+        }
+
+        // Counts the hedge in before it starts, unless every attempt has already failed
+        boolean reserveHedge() {
+            return running.getAndUpdate(n -> n == 0 ? 0 : n + 1) > 0;
+        }
+    }
+}
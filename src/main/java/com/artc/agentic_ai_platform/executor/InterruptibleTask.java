@@ -0,0 +1,46 @@
+package com.artc.agentic_ai_platform.executor;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * CompletableFuture.supplyAsync whose cancellation reaches the running thread. When the returned future
+ * completes before the work does (cancel(), orTimeout(), completeExceptionally()), the pool thread is
+ * interrupted, and work that hasn't started yet is skipped, so a missed deadline frees the thread
+ * instead of leaving it stuck on a hung call.
+ */
+public final class InterruptibleTask {
+
+    private InterruptibleTask() {}
+
+    public static <T> CompletableFuture<T> supplyAsync(Supplier<T> work, Executor executor) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Object lock = new Object();
+        Thread[] runner = new Thread[1]; // Guarded by 'lock'
+
+        result.whenComplete((value, error) -> {
+            synchronized (lock) {
+                if (runner[0] != null && runner[0] != Thread.currentThread()) runner[0].interrupt(); // Not when the work itself completed it
+            }
+        });
+
+        executor.execute(() -> {
+            synchronized (lock) {
+                if (result.isDone()) return; // Cancelled while queued
+                runner[0] = Thread.currentThread();
+            }
+            try {
+                result.complete(work.get());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            } finally {
+                synchronized (lock) {
+                    runner[0] = null;
+                }
+                Thread.interrupted(); // Don't leak our interrupt into the pool's next task
+            }
+        });
+        return result;
+    }
+}
@@ -2,14 +2,18 @@ package com.artc.agentic_ai_platform.executor;
 
 import com.artc.agentic_ai_platform.config.AppConfig;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.SyncTaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
 
 @Configuration
 @RequiredArgsConstructor
+@Slf4j
 public class ThreadConfig {
 
     private final AppConfig appConfig;
@@ -18,9 +22,12 @@ public class ThreadConfig {
     // This pool is used by WorkerEngine to pull and execute tasks from main queue.
     @Bean(name = "globalQueueExecutor")
     public Executor globalQueueExecutor() {
+        if (isVirtualMode()) return virtualThreadExecutor("GlobalQ-");
+
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
 
-        int workers = appConfig.getQueue().getConcurrency().getWorkers();
+        // Shared consumers plus the dedicated lane consumers
+        int workers = appConfig.getQueue().getConcurrency().getWorkers() + appConfig.getQueue().getLanes().total();
 
         // CONCURRENCY SETTINGS
         // Core = Max ensures we always have exactly 'poolSize' threads active
@@ -41,6 +48,7 @@ public class ThreadConfig {
      // This pool is used by WorkerAgent for parallel sub-task processing
      @Bean(name = "workerInternalExecutor")
      public Executor workerInternalExecutor() {
+        if (isVirtualMode()) return virtualThreadExecutor("InnerWork-");
 
         int poolSize = appConfig.getAgents().getWorkers().getPoolSize();
 
@@ -53,4 +61,80 @@ public class ThreadConfig {
         executor.initialize();
         return executor;
      }
+
+     // 3. AGENT TASK EXECUTOR
+     // Used by WorkflowEngine to run each popped task.
+     // platform: inline on the consumer thread, the fixed GlobalQ pool is the throttle.
+     // virtual: one virtual thread per task, throttled by the ConcurrencyLimits semaphores instead.
+     // async: tasks are started with IAgent.processAsync; this small pool only settles the completed ones
+     //        (push downstream, retry, ack), so in-flight work is bounded by ConcurrencyLimits, not by threads.
+     @Bean(name = "agentTaskExecutor")
+     public Executor agentTaskExecutor() {
+        if (isVirtualMode()) return virtualThreadExecutor("AgentTask-");
+        if (isAsyncMode()) {
+            ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+            int workers = appConfig.getQueue().getConcurrency().getWorkers();
+            executor.setCorePoolSize(workers);
+            executor.setMaxPoolSize(workers);
+            executor.setThreadNamePrefix("AgentDone-");
+            executor.setWaitForTasksToCompleteOnShutdown(true);
+            executor.setAwaitTerminationSeconds(30);
+            executor.initialize();
+            return executor;
+        }
+        return new SyncTaskExecutor();
+     }
+
+     // 4. LOG SCAN POOL
+     // CPU-bound chunk scans for LogAnalyzerTool (memory-mapped files); the calling worker thread waits for them.
+     // Always platform threads: the work never blocks on I/O beyond page faults.
+     @Bean(name = "logScanExecutor")
+     public Executor logScanExecutor() {
+        int parallelism = appConfig.getTools().getLogAnalyzer().getParallelism();
+        if (parallelism <= 0) parallelism = Runtime.getRuntime().availableProcessors();
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(parallelism);
+        executor.setMaxPoolSize(parallelism);
+        executor.setThreadNamePrefix("LogScan-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+     }
+
+     // 5. LOG INDEX BUILDER
+     // Builds LogAnalyzerTool's on-disk indexes in the background, one file at a time, so indexing never
+     // competes with live scans for more than one core. A build cut short at shutdown leaves the previous
+     // index in place (builds write to a temp file first).
+     @Bean(name = "logIndexExecutor")
+     public Executor logIndexExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setThreadNamePrefix("LogIndex-");
+        executor.setThreadPriority(Thread.MIN_PRIORITY);
+        executor.initialize();
+        return executor;
+     }
+
+     private boolean isVirtualMode() {
+        return "virtual".equalsIgnoreCase(appConfig.getQueue().getConcurrency().getThreadMode());
+     }
+
+     private boolean isAsyncMode() {
+        return "async".equalsIgnoreCase(appConfig.getQueue().getConcurrency().getThreadMode());
+     }
+
+     private Executor virtualThreadExecutor(String threadNamePrefix) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+        try {
+            executor.setVirtualThreads(true);
+        } catch (UnsupportedOperationException e) {
+            // Virtual threads need a Java 21 runtime (see Dockerfile). Degrade to thread-per-task.
+            log.warn("Virtual threads not supported on this JVM. '{}' falls back to platform threads.", threadNamePrefix);
+        }
+        executor.setTaskTerminationTimeout(30_000);
+        return executor;
+     }
 }
@@ -5,22 +5,36 @@ package com.artc.agentic_ai_platform.infra;
 import com.artc.agentic_ai_platform.config.AppConfig;
 import com.artc.agentic_ai_platform.core.IStorageBackend;
 import com.artc.agentic_ai_platform.core.ITaskQueue;
+import com.artc.agentic_ai_platform.core.llm.CachingLlmService;
+import com.artc.agentic_ai_platform.core.llm.ConcurrencyLimitedLlmService;
+import com.artc.agentic_ai_platform.core.llm.HedgingLlmService;
+import com.artc.agentic_ai_platform.core.llm.ILlmService;
+import com.artc.agentic_ai_platform.core.llm.MockLLMService;
+import com.artc.agentic_ai_platform.core.llm.SingleFlightLlmService;
+import com.artc.agentic_ai_platform.executor.ConcurrencyLimits;
+import com.artc.agentic_ai_platform.executor.Hedger;
 import com.artc.agentic_ai_platform.model.Task;
 import com.artc.agentic_ai_platform.storage.RamStorage;
 import com.artc.agentic_ai_platform.storage.RedisStorage;
 import com.artc.agentic_ai_platform.taskqueue.InMemoryQueue;
 import com.artc.agentic_ai_platform.taskqueue.RedisQueue;
+import com.artc.agentic_ai_platform.taskqueue.RedisStreamQueue;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import java.time.Duration;
+
 @Configuration
 @Slf4j
 public class InfrastructureConfig {
@@ -38,16 +52,19 @@ public class InfrastructureConfig {
     // --- STRATEGY: IN-MEMORY (Default) ---
     @Bean
     @ConditionalOnProperty(name = "app.storage.backend", havingValue = "ram", matchIfMissing = true)
-    public IStorageBackend ramStorage(AppConfig appConfig) {
+    public IStorageBackend ramStorage(AppConfig appConfig, MeterRegistry meterRegistry) {
         log.info(">> STORAGE: RAM (Volatile)");
-        return new RamStorage(appConfig);
+        RamStorage storage = new RamStorage(appConfig);
+        storage.bindMetrics(meterRegistry);
+        return storage;
     }
 
     @Bean
     @ConditionalOnProperty(name = "app.queue.backend", havingValue = "inmem", matchIfMissing = true)
-    public ITaskQueue inMemoryQueue() {
-        log.info(">> QUEUE: RAM (Local)");
-        return new InMemoryQueue();
+    public ITaskQueue inMemoryQueue(AppConfig appConfig) {
+        int capacity = appConfig.getQueue().getCapacity();
+        log.info(">> QUEUE: RAM (Local), capacity={}", capacity > 0 ? capacity : "unbounded");
+        return new InMemoryQueue(Duration.ofSeconds(appConfig.getQueue().getPriority().getAgingSec()), capacity);
     }
 
     // --- STRATEGY: REDIS (Production) ---
@@ -60,8 +77,42 @@ public class InfrastructureConfig {
 
     @Bean
     @ConditionalOnProperty(name = "app.queue.backend", havingValue = "redis")
-    public ITaskQueue redisQueue(RedisTemplate<String, Object> template, ObjectMapper mapper) {
+    public ITaskQueue redisQueue(RedisTemplate<String, Object> template, ObjectMapper mapper, AppConfig appConfig) {
         log.info(">> QUEUE: REDIS (Distributed)");
-        return new RedisQueue(template, mapper);
+        return new RedisQueue(template, mapper, Duration.ofSeconds(appConfig.getQueue().getPriority().getAgingSec()));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.queue.backend", havingValue = "redis-stream")
+    public ITaskQueue redisStreamQueue(StringRedisTemplate template, ObjectMapper mapper, AppConfig appConfig) {
+        log.info(">> QUEUE: REDIS STREAMS (Consumer Group, At-Least-Once)");
+        return new RedisStreamQueue(template, mapper, appConfig);
+    }
+
+    // --- LLM CLIENT ---
+    // Agents inject ILlmService and get the upstream client wrapped, outermost first:
+    // response cache -> single-flight -> hedging -> global LLM concurrency cap -> upstream
+    // (cache hits and coalesced callers never take a permit; a hedge takes one like any call)
+    @Bean
+    @Primary
+    public ILlmService llmService(MockLLMService upstream, ConcurrencyLimits limits, AppConfig appConfig,
+                                  IStorageBackend storage, MeterRegistry meterRegistry) {
+        ILlmService service = new ConcurrencyLimitedLlmService(upstream, limits.forLlm());
+
+        Hedger hedger = new Hedger("llm", appConfig.getLlm().getHedge(), meterRegistry);
+        if (hedger.isEnabled()) {
+            service = new HedgingLlmService(service, hedger);
+        }
+
+        if (appConfig.getLlm().isSingleFlight()) {
+            service = new SingleFlightLlmService(service, meterRegistry);
+        }
+
+        AppConfig.Llm.Cache cache = appConfig.getLlm().getCache();
+        if (cache.isEnabled()) {
+            log.info(">> LLM CACHE: {} entries, ttl {}s{}", cache.getMaxEntries(), cache.getTtlSec(), cache.isShared() ? ", shared via storage" : "");
+            service = new CachingLlmService(service, cache, cache.isShared() ? storage : null, meterRegistry);
+        }
+        return service;
     }
 }
@@ -25,6 +25,10 @@ public class Task implements Serializable {
     @Builder.Default
     private List<String> toolArguments = new ArrayList<>();
 
+    // Queue order: set at ingest and inherited by every downstream task of the workflow
+    @Builder.Default
+    private TaskPriority priority = TaskPriority.NORMAL;
+
     // Reliability Fields
     private int retryCount;
     private long nextRetryTimestamp;
@@ -0,0 +1,9 @@
+package com.artc.agentic_ai_platform.model;
+
+// Severity of the incident a task belongs to. Declaration order is queue order (CRITICAL first).
+public enum TaskPriority {
+    CRITICAL,  // Safety shutdowns, hazards to people or equipment
+    HIGH,      // Production stopped or degraded
+    NORMAL,    // Routine diagnostics
+    LOW        // Background / housekeeping
+}
@@ -6,6 +6,7 @@ import lombok.Data;
 @Builder
 public class WorkflowResponse {
     private String workflowId;
+    private String incidentId; // This report; several incidents can share one workflow (app.queue.dedup)
     private String status;
     private String message;
 }
\ No newline at end of file
@@ -4,6 +4,8 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Builder;
 import lombok.Data;
 
+import java.util.List;
+
 @Data
 @Builder
 @JsonInclude(JsonInclude.Include.NON_NULL) // prevents null fields from showing in JSON
@@ -11,4 +13,5 @@ public class WorkflowStatusResponse {
     private String workflowId;
     private String status;
     private String finalDecision;
+    private List<String> linkedIncidents; // Incidents coalesced into this workflow (only with app.queue.dedup)
 }
@@ -3,47 +3,183 @@ package com.artc.agentic_ai_platform.storage;
 
 import com.artc.agentic_ai_platform.config.AppConfig;
 import com.artc.agentic_ai_platform.core.IStorageBackend;
-import java.util.Collections;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 
 public class RamStorage implements IStorageBackend {
 
-    // Wrapped in synchronizedMap for thread safety
-    private final Map<String, Object> store;
+    // Caffeine cache: lock-free reads, W-TinyLFU (frequency-aware) eviction once maxEntries is reached,
+    // and per-entry TTL tracked on a hierarchical timing wheel.
+    private final Cache<String, Entry> store;
+    private final long defaultTtlSec;
 
     public RamStorage(AppConfig appConfig) {
-        this(appConfig.getStorage().getRam().getMaxEntries());
+        this(appConfig.getStorage().getRam().getMaxEntries(), appConfig.getStorage().getDefaultTtlSec());
     }
 
     public RamStorage(int maxEntries) {
-        // LinkedHashMap with accessOrder=true creates an LRU cache
-        this.store = Collections.synchronizedMap(
-                new LinkedHashMap<String, Object>(maxEntries, 0.75f, true) {
-                    @Override
-                    protected boolean removeEldestEntry(Map.Entry<String, Object> eldest) {
-                        // Automatically remove oldest entry when size exceeds limit
-                        return size() > maxEntries;
-                    }
-                }
-        );
+        this(maxEntries, 0); // No default expiry
+    }
+
+    public RamStorage(int maxEntries, long defaultTtlSec) {
+        this(maxEntries, defaultTtlSec, Ticker.systemTicker(), ForkJoinPool.commonPool());
+    }
+
+    // Visible for tests: fake clock + same-thread maintenance make expiry/eviction deterministic
+    RamStorage(int maxEntries, long defaultTtlSec, Ticker ticker, Executor maintenanceExecutor) {
+        this.defaultTtlSec = defaultTtlSec;
+        this.store = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfter(new TtlExpiry())
+                .ticker(ticker)
+                .executor(maintenanceExecutor)
+                .recordStats()
+                .build();
     }
 
     @Override
     public void save(String k, Object v) {
-        store.put(k, v);
+        save(k, v, defaultTtlSec);
     }
 
     public void save(String k, Object v, long ttl) {
-        store.put(k, v);
+        store.put(k, new Entry(v, ttlNanos(ttl)));
     }
 
     public <T> Optional<T> get(String k, Class<T> c) {
-        return Optional.ofNullable(c.cast(store.get(k)));
+        Entry e = store.getIfPresent(k);
+        return e == null ? Optional.empty() : Optional.of(c.cast(e.value()));
     }
 
     public void delete(String k) {
-        store.remove(k);
+        store.invalidate(k);
+    }
+
+    @Override
+    public <T> Map<String, T> multiGet(List<String> keys, Class<T> c) {
+        Map<String, Entry> present = store.getAllPresent(keys);
+        Map<String, T> found = new LinkedHashMap<>();
+        for (String k : keys) {
+            Entry e = present.get(k);
+            if (e != null) found.put(k, c.cast(e.value()));
+        }
+        return found;
+    }
+
+    @Override
+    public void multiSave(Map<String, Object> entries) {
+        long ttl = ttlNanos(defaultTtlSec);
+        entries.forEach((k, v) -> store.put(k, new Entry(v, ttl)));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public long addToSet(String k, String member) {
+        long[] size = new long[1];
+        // compute() is atomic per key, so concurrent adds to the same set never race
+        store.asMap().compute(k, (key, current) -> {
+            Set<String> set = current == null ? ConcurrentHashMap.newKeySet() : (Set<String>) current.value();
+            set.add(member);
+            size[0] = set.size();
+            return new Entry(set, ttlNanos(defaultTtlSec));
+        });
+        return size[0];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Set<String> members(String k) {
+        Entry e = store.getIfPresent(k);
+        return e == null ? Set.of() : Set.copyOf((Set<String>) e.value());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> Optional<T> saveIfAbsent(String k, T v, long ttl) {
+        Object[] existing = new Object[1];
+        // compute() only sees live entries, so an expired one is replaced like a missing one
+        store.asMap().compute(k, (key, current) -> {
+            if (current != null) {
+                existing[0] = current.value();
+                return current;
+            }
+            return new Entry(v, ttlNanos(ttl));
+        });
+        return Optional.ofNullable((T) existing[0]);
+    }
+
+    @Override
+    public boolean compareAndSet(String k, Object expected, Object v, long ttl) {
+        boolean[] replaced = new boolean[1];
+        store.asMap().computeIfPresent(k, (key, current) -> {
+            replaced[0] = Objects.equals(current.value(), expected);
+            return replaced[0] ? new Entry(v, ttlNanos(ttl)) : current;
+        });
+        return replaced[0];
+    }
+
+    @Override
+    public boolean deleteIfEquals(String k, Object expected) {
+        boolean[] deleted = new boolean[1];
+        store.asMap().computeIfPresent(k, (key, current) -> {
+            deleted[0] = Objects.equals(current.value(), expected);
+            return deleted[0] ? null : current; // null removes the entry
+        });
+        return deleted[0];
+    }
+
+    // --- Observability ---
+
+    public CacheStats stats() {
+        return store.stats(); // hitCount(), missCount(), evictionCount(), ...
+    }
+
+    public long size() {
+        return store.estimatedSize();
+    }
+
+    // Publishes cache.gets{result=hit|miss}, cache.evictions, cache.size under cache=ram_storage
+    public void bindMetrics(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, store, "ram_storage");
+    }
+
+    private static long ttlNanos(long ttlSec) {
+        return ttlSec > 0 ? TimeUnit.SECONDS.toNanos(ttlSec) : Long.MAX_VALUE;
+    }
+
+    private record Entry(Object value, long ttlNanos) {}
+
+    // Each entry carries its own TTL: set on create/update, untouched by reads
+    private static class TtlExpiry implements Expiry<String, Entry> {
+        @Override
+        public long expireAfterCreate(String key, Entry entry, long currentTime) {
+            return entry.ttlNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+            return entry.ttlNanos();
+        }
+
+        @Override
+        public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
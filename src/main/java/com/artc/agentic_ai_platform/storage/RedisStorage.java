@@ -4,14 +4,52 @@ import com.artc.agentic_ai_platform.config.AppConfig;
 import com.artc.agentic_ai_platform.core.IStorageBackend;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 @RequiredArgsConstructor
 public class RedisStorage implements IStorageBackend {
 
+    // SADD + EXPIRE + SCARD in one atomic step
+    private static final RedisScript<Long> ADD_TO_SET_SCRIPT = new DefaultRedisScript<>("""
+            redis.call('SADD', KEYS[1], ARGV[1])
+            if tonumber(ARGV[2]) > 0 then redis.call('EXPIRE', KEYS[1], ARGV[2]) end
+            return redis.call('SCARD', KEYS[1])
+            """, Long.class);
+
+    // GET + compare + SET (EX) in one atomic step; the comparison is on the serialized bytes
+    private static final byte[] COMPARE_AND_SET_SCRIPT = RedisSerializer.string().serialize("""
+            if redis.call('GET', KEYS[1]) ~= ARGV[1] then return 0 end
+            if tonumber(ARGV[3]) > 0 then
+                redis.call('SET', KEYS[1], ARGV[2], 'EX', ARGV[3])
+            else
+                redis.call('SET', KEYS[1], ARGV[2])
+            end
+            return 1
+            """);
+
+    // GET + compare + DEL in one atomic step
+    private static final byte[] DELETE_IF_EQUALS_SCRIPT = RedisSerializer.string().serialize("""
+            if redis.call('GET', KEYS[1]) ~= ARGV[1] then return 0 end
+            redis.call('DEL', KEYS[1])
+            return 1
+            """);
+
     private final RedisTemplate<String, Object> template;
     private final ObjectMapper mapper;
     private final AppConfig appConfig;
@@ -33,4 +71,87 @@ public class RedisStorage implements IStorageBackend {
     public void delete(String k) {
         template.delete(k);
     }
+
+    @Override
+    public <T> Map<String, T> multiGet(List<String> keys, Class<T> c) {
+        List<Object> values = template.opsForValue().multiGet(keys); // MGET: one round trip, aligned with 'keys'
+        Map<String, T> found = new LinkedHashMap<>();
+        if (values == null) return found;
+        for (int i = 0; i < keys.size(); i++) {
+            Object o = values.get(i);
+            if (o != null) found.put(keys.get(i), mapper.convertValue(o, c));
+        }
+        return found;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void multiSave(Map<String, Object> entries) {
+        long ttl = appConfig.getStorage().getDefaultTtlSec();
+        // SET EX per key in a single pipeline (MSET can't carry a TTL)
+        template.executePipelined(new SessionCallback<Object>() {
+            @Override
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                entries.forEach((k, v) -> ops.opsForValue().set(k, v, ttl, TimeUnit.SECONDS));
+                return null;
+            }
+        });
+    }
+
+    @Override
+    public long addToSet(String k, String member) {
+        Long size = template.execute(ADD_TO_SET_SCRIPT, RedisSerializer.string(), new GenericToStringSerializer<>(Long.class),
+                List.of(k), member, String.valueOf(appConfig.getStorage().getDefaultTtlSec()));
+        return size == null ? 0 : size;
+    }
+
+    @Override
+    public Set<String> members(String k) {
+        // Members are written as plain strings by ADD_TO_SET_SCRIPT, not through the JSON value serializer
+        Set<byte[]> members = template.execute((RedisCallback<Set<byte[]>>) connection ->
+                connection.setCommands().sMembers(RedisSerializer.string().serialize(k)));
+        if (members == null) return Set.of();
+        return members.stream().map(RedisSerializer.string()::deserialize).collect(Collectors.toSet());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> Optional<T> saveIfAbsent(String k, T v, long ttl) {
+        // SET NX EX is the atomic step; the GET only reports who won. If the winner expired in
+        // between, try again rather than report a key that no longer exists.
+        for (int attempt = 0; attempt < 3; attempt++) {
+            if (Boolean.TRUE.equals(template.opsForValue().setIfAbsent(k, v, ttl, TimeUnit.SECONDS))) {
+                return Optional.empty();
+            }
+            Object current = template.opsForValue().get(k);
+            if (current != null) return Optional.of(mapper.convertValue(current, (Class<T>) v.getClass()));
+        }
+        throw new IllegalStateException("Key " + k + " keeps expiring while being claimed");
+    }
+
+    // Values go in as the template writes them, so they compare equal to what save() stored
+    @Override
+    public boolean compareAndSet(String k, Object expected, Object v, long ttl) {
+        return eval(COMPARE_AND_SET_SCRIPT, k, valueBytes(expected), valueBytes(v), RedisSerializer.string().serialize(String.valueOf(ttl)));
+    }
+
+    @Override
+    public boolean deleteIfEquals(String k, Object expected) {
+        return eval(DELETE_IF_EQUALS_SCRIPT, k, valueBytes(expected));
+    }
+
+    private boolean eval(byte[] script, String k, byte[]... args) {
+        byte[][] keysAndArgs = new byte[args.length + 1][];
+        keysAndArgs[0] = RedisSerializer.string().serialize(k);
+        System.arraycopy(args, 0, keysAndArgs, 1, args.length);
+        Long done = template.execute((RedisCallback<Long>) connection ->
+                connection.scriptingCommands().eval(script, ReturnType.INTEGER, 1, keysAndArgs));
+        return done != null && done == 1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] valueBytes(Object v) {
+        return ((RedisSerializer<Object>) template.getValueSerializer()).serialize(v);
+    }
 }
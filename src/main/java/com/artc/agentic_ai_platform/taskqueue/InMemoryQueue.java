@@ -1,18 +1,177 @@
 package com.artc.agentic_ai_platform.taskqueue;
 
 import com.artc.agentic_ai_platform.core.ITaskQueue;
+import com.artc.agentic_ai_platform.model.AgentType;
 import com.artc.agentic_ai_platform.model.Task;
+import com.artc.agentic_ai_platform.taskqueue.PriorityAging.Ranked;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.PriorityQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 public class InMemoryQueue implements ITaskQueue {
-    private final BlockingQueue<Task> queue = new LinkedBlockingQueue<>();
-    public void push(Task t) { queue.offer(t); }
+
+    private static final Duration POP_TIMEOUT = Duration.ofSeconds(2);
+
+    private final PriorityAging aging;
+    private final int capacity; // offer() refuses once this many tasks are held (0 = unbounded)
+    // One priority heap per agent-type lane. A single lock guards all lanes so a consumer can wait on
+    // "any of my lanes has work" without racing other consumers.
+    private final Map<AgentType, PriorityQueue<Ranked>> lanes = new EnumMap<>(AgentType.class);
+    // Retries that are backing off wait here (ordered by nextRetryTimestamp) and only move to their lane once due
+    private final PriorityQueue<Ranked> delayed = new PriorityQueue<>(Comparator.comparingLong(r -> r.task().getNextRetryTimestamp()));
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private long seq; // Guarded by 'lock'
+
+    public InMemoryQueue() {
+        this(PriorityAging.DEFAULT_AGING);
+    }
+
+    public InMemoryQueue(Duration agingInterval) {
+        this(agingInterval, 0);
+    }
+
+    public InMemoryQueue(Duration agingInterval, int capacity) {
+        this.aging = new PriorityAging(agingInterval);
+        this.capacity = capacity;
+        for (AgentType type : AgentType.values()) lanes.put(type, new PriorityQueue<>(Ranked.ORDER));
+    }
+
+    public void push(Task t) {
+        lock.lock();
+        try {
+            enqueue(t);
+            changed.signalAll(); // Consumers wait on different lane sets, so wake them all to re-check
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Bounded push for new work. push() stays unbounded: downstream tasks and retries belong to
+     * work that was already accepted, so the queue may exceed capacity by their fan-out.
+     */
+    @Override
+    public boolean offer(Task t) {
+        lock.lock();
+        try {
+            if (capacity > 0 && size() >= capacity) return false;
+            enqueue(t);
+            changed.signalAll();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long depth(AgentType lane) {
+        lock.lock();
+        try {
+            return lanes.get(lane).size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
     public Optional<Task> pop() {
-        try { return Optional.ofNullable(queue.poll(2, TimeUnit.SECONDS)); }
-        catch (InterruptedException e) { return Optional.empty(); }
+        return popBatch(1, POP_TIMEOUT).stream().findFirst();
+    }
+
+    @Override
+    public void pushAll(List<Task> tasks) {
+        if (tasks.isEmpty()) return;
+        lock.lock();
+        try {
+            tasks.forEach(this::enqueue);
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<Task> popBatch(List<AgentType> wanted, int max, Duration timeout) {
+        List<Task> batch = new ArrayList<>(max);
+        long deadline = System.nanoTime() + timeout.toNanos();
+        lock.lock();
+        try {
+            while (true) {
+                promoteDueTasks();
+
+                // Highest effective priority first; lane preference breaks ties
+                long now = System.currentTimeMillis();
+                while (batch.size() < max) {
+                    PriorityQueue<Ranked> best = null;
+                    long bestLevel = Long.MAX_VALUE;
+                    for (AgentType type : wanted) {
+                        Ranked head = lanes.get(type).peek();
+                        if (head == null) continue;
+                        long level = aging.effectiveLevel(head.rank(), now);
+                        if (level < bestLevel) {
+                            best = lanes.get(type);
+                            bestLevel = level;
+                        }
+                    }
+                    if (best == null) break;
+                    batch.add(best.poll().task());
+                }
+                if (!batch.isEmpty()) return batch;
+
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) return batch;
+
+                // Wake up in time for the next retry instead of sleeping through it
+                Ranked next = delayed.peek();
+                long untilDue = next == null ? remaining
+                        : Math.max(1, TimeUnit.MILLISECONDS.toNanos(next.task().getNextRetryTimestamp() - System.currentTimeMillis()));
+                changed.awaitNanos(Math.min(remaining, untilDue));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // Let the consumer loop see the shutdown signal
+            return batch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Caller holds the lock
+    private int size() {
+        int size = delayed.size();
+        for (PriorityQueue<Ranked> lane : lanes.values()) size += lane.size();
+        return size;
+    }
+
+    // Caller holds the lock. A retry's enqueue time is its due time, so its rank is fixed up front.
+    private void enqueue(Task t) {
+        long now = System.currentTimeMillis();
+        Ranked ranked = new Ranked(aging.rank(t, Math.max(now, t.getNextRetryTimestamp())), seq++, t);
+        if (t.getNextRetryTimestamp() > now) {
+            delayed.offer(ranked);
+        } else {
+            lanes.get(laneOf(t)).offer(ranked);
+        }
+    }
+
+    // Caller holds the lock
+    private void promoteDueTasks() {
+        long now = System.currentTimeMillis();
+        while (!delayed.isEmpty() && delayed.peek().task().getNextRetryTimestamp() <= now) {
+            Ranked due = delayed.poll();
+            lanes.get(laneOf(due.task())).offer(due);
+        }
+    }
+
+    private static AgentType laneOf(Task t) {
+        return t.getTargetAgent() == null ? AgentType.PLANNER : t.getTargetAgent();
     }
 }
@@ -0,0 +1,46 @@
+package com.artc.agentic_ai_platform.taskqueue;
+
+import com.artc.agentic_ai_platform.model.Task;
+import com.artc.agentic_ai_platform.model.TaskPriority;
+
+import java.time.Duration;
+import java.util.Comparator;
+
+/**
+ * Queue order shared by the queue backends: priority (with aging), then lane preference, then FIFO.
+ *
+ * A task's rank is its enqueue time plus one aging interval per level below CRITICAL, so the rank
+ * never changes once queued. Its effective level at time 'now' is (rank - now) / aging rounded up, and
+ * never below 0: a NORMAL task that has waited two intervals competes with a CRITICAL one, which bounds starvation.
+ */
+final class PriorityAging {
+
+    static final Duration DEFAULT_AGING = Duration.ofSeconds(60);
+
+    private final long agingMs;
+
+    PriorityAging(Duration aging) {
+        this.agingMs = Math.max(1, aging.toMillis());
+    }
+
+    long agingMs() {
+        return agingMs;
+    }
+
+    long rank(Task t, long enqueuedAt) {
+        return enqueuedAt + level(t) * agingMs;
+    }
+
+    long effectiveLevel(long rank, long now) {
+        return Math.max(0, -Math.floorDiv(now - rank, agingMs)); // Rounded up: a fresh task keeps its nominal level
+    }
+
+    static int level(Task t) {
+        return (t.getPriority() == null ? TaskPriority.NORMAL : t.getPriority()).ordinal();
+    }
+
+    // A queued task with its rank; 'seq' keeps equal ranks FIFO
+    record Ranked(long rank, long seq, Task task) {
+        static final Comparator<Ranked> ORDER = Comparator.comparingLong(Ranked::rank).thenComparingLong(Ranked::seq);
+    }
+}
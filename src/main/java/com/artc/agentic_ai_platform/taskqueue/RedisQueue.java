@@ -1,28 +1,223 @@
 package com.artc.agentic_ai_platform.taskqueue;
 
 import com.artc.agentic_ai_platform.core.ITaskQueue;
+import com.artc.agentic_ai_platform.model.AgentType;
 import com.artc.agentic_ai_platform.model.Task;
+import com.artc.agentic_ai_platform.model.TaskPriority;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.TimeUnit;
 
-@RequiredArgsConstructor
+/**
+ * One sorted set per agent-type lane, scored by priority rank (see PriorityAging), so the lowest
+ * score is the next task. Sorted sets can't be BRPOPed, so every ready push also drops a token
+ * into the lane's wake-up list and idle consumers block on those instead.
+ */
 public class RedisQueue implements ITaskQueue {
+
+    private static final String QUEUE_KEY = "task_queue";
+    // Per lane: sorted set of backing-off retries, scored by nextRetryTimestamp
+    private static final String DELAYED_SUFFIX = ":delayed";
+    private static final String WAKEUP_SUFFIX = ":wakeup";
+    private static final String TOKEN = "1";
+    private static final long POP_TIMEOUT_SEC = 2;
+    private static final int PROMOTE_BATCH = 100;
+
+    // KEYS = delayed1, lane1, delayed2, lane2, ...
+    // ARGV = now, batch, agingMs, default level, priority names in level order
+    // Moves due retries into their lanes atomically (no two nodes promote the same task), ranked from
+    // their due time, and returns the earliest pending retry timestamp, or -1 if there is none.
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<Long> PROMOTE_DUE_SCRIPT = new DefaultRedisScript<>("""
+            local levels = {}
+            for i = 5, #ARGV do levels[ARGV[i]] = i - 5 end
+            local aging = tonumber(ARGV[3])
+            local nextDue = -1
+            for i = 1, #KEYS, 2 do
+                local due = redis.call('ZRANGEBYSCORE', KEYS[i], '-inf', ARGV[1], 'WITHSCORES', 'LIMIT', 0, ARGV[2])
+                for j = 1, #due, 2 do
+                    local ok, t = pcall(cjson.decode, due[j])
+                    local level = ok and type(t) == 'table' and levels[t.priority] or tonumber(ARGV[4])
+                    redis.call('ZREM', KEYS[i], due[j])
+                    redis.call('ZADD', KEYS[i + 1], tonumber(due[j + 1]) + level * aging, due[j])
+                end
+                local nxt = redis.call('ZRANGE', KEYS[i], 0, 0, 'WITHSCORES')
+                if nxt[2] then
+                    local score = tonumber(nxt[2])
+                    if nextDue < 0 or score < nextDue then nextDue = score end
+                end
+            end
+            return nextDue
+            """, Long.class);
+
+    // KEYS = lane1..laneN (preference order), wakeup1..wakeupN
+    // ARGV = max, now, agingMs
+    // Pops up to ARGV[1] tasks by effective priority, lane order breaking ties, then trims
+    // each wake-up list to the tasks its lane still holds.
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> DRAIN_LANES_SCRIPT = new DefaultRedisScript<>("""
+            local n = #KEYS / 2
+            local now, aging = tonumber(ARGV[2]), tonumber(ARGV[3])
+            local out = {}
+            while #out < tonumber(ARGV[1]) do
+                local best, bestLevel
+                for i = 1, n do
+                    local head = redis.call('ZRANGE', KEYS[i], 0, 0, 'WITHSCORES')
+                    if head[1] then
+                        local level = math.max(0, math.ceil((tonumber(head[2]) - now) / aging))
+                        if not best or level < bestLevel then best, bestLevel = i, level end
+                    end
+                end
+                if not best then break end
+                out[#out + 1] = redis.call('ZPOPMIN', KEYS[best])[1]
+            end
+            for i = 1, n do
+                local left = redis.call('ZCARD', KEYS[i])
+                if left == 0 then redis.call('DEL', KEYS[n + i]) else redis.call('LTRIM', KEYS[n + i], 0, left - 1) end
+            end
+            return out
+            """, List.class);
+
     private final RedisTemplate<String, Object> template;
     private final ObjectMapper mapper;
+    private final PriorityAging aging;
+
+    public RedisQueue(RedisTemplate<String, Object> template, ObjectMapper mapper) {
+        this(template, mapper, PriorityAging.DEFAULT_AGING);
+    }
+
+    public RedisQueue(RedisTemplate<String, Object> template, ObjectMapper mapper, Duration agingInterval) {
+        this.template = template;
+        this.mapper = mapper;
+        this.aging = new PriorityAging(agingInterval);
+    }
 
     public void push(Task t) {
-        template.opsForList().leftPush("task_queue", t);
+        long now = System.currentTimeMillis();
+        if (t.getNextRetryTimestamp() > now) {
+            template.opsForZSet().add(delayedKey(laneOf(t)), t, t.getNextRetryTimestamp());
+        } else {
+            template.opsForZSet().add(laneKey(laneOf(t)), t, aging.rank(t, now));
+            template.opsForList().leftPush(wakeupKey(laneOf(t)), TOKEN);
+        }
     }
 
     public Optional<Task> pop() {
-        Object t = template.opsForList().rightPop("task_queue", 2, TimeUnit.SECONDS);
-        if (t == null) return Optional.empty();
-        // Handle Jackson deserialization if Redis returns raw map
-        try { return Optional.of(mapper.convertValue(t, Task.class)); }
-        catch (Exception e) { return Optional.of((Task) t); }
+        return popBatch(1, Duration.ofSeconds(POP_TIMEOUT_SEC)).stream().findFirst();
+    }
+
+    // One pipelined round trip: a ZADD (plus wake-up token) per ready task, a ZADD per backing-off retry
+    @Override
+    public void pushAll(List<Task> tasks) {
+        if (tasks.isEmpty()) return;
+        long now = System.currentTimeMillis();
+        template.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                for (Task t : tasks) {
+                    if (t.getNextRetryTimestamp() > now) {
+                        ops.opsForZSet().add(delayedKey(laneOf(t)), t, t.getNextRetryTimestamp());
+                    } else {
+                        ops.opsForZSet().add(laneKey(laneOf(t)), t, aging.rank(t, now));
+                        ops.opsForList().leftPush(wakeupKey(laneOf(t)), TOKEN);
+                    }
+                }
+                return null;
+            }
+        });
+    }
+
+    // Drains ready tasks across lanes in one script call and only blocks (multi-key BRPOP on the
+    // wake-up lists) when all are empty
+    @Override
+    public List<Task> popBatch(List<AgentType> lanes, int max, Duration timeout) {
+        long nextDue = promoteDueTasks(lanes);
+        List<String> keys = new ArrayList<>(lanes.stream().map(RedisQueue::laneKey).toList());
+        lanes.forEach(lane -> keys.add(wakeupKey(lane)));
+
+        List<Task> batch = drain(keys, max);
+        if (!batch.isEmpty()) return batch;
+
+        int blockSec = (int) blockTimeoutSec(nextDue, Math.max(1, timeout.toSeconds()));
+        List<byte[]> token = template.execute((RedisCallback<List<byte[]>>) connection -> connection.listCommands().bRPop(blockSec,
+                lanes.stream().map(lane -> RedisSerializer.string().serialize(wakeupKey(lane))).toArray(byte[][]::new)));
+        if (token == null && nextDue < 0) return List.of(); // Timed out with nothing due
+
+        // Woken by a push or by a retry falling due
+        promoteDueTasks(lanes);
+        return drain(keys, max);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private List<Task> drain(List<String> keys, int max) {
+        // Each element of a multi-bulk script reply goes through the result serializer
+        List<Object> raw = template.execute(DRAIN_LANES_SCRIPT, RedisSerializer.string(), (RedisSerializer) template.getValueSerializer(),
+                keys, String.valueOf(max), String.valueOf(System.currentTimeMillis()), String.valueOf(aging.agingMs()));
+        return raw == null ? new ArrayList<>() : raw.stream().map(this::toTask).collect(ArrayList::new, List::add, List::addAll);
+    }
+
+    // Handle Jackson deserialization if Redis returns raw map
+    private Task toTask(Object raw) {
+        try { return mapper.convertValue(raw, Task.class); }
+        catch (Exception e) { return (Task) raw; }
+    }
+
+    private long promoteDueTasks(List<AgentType> lanes) {
+        List<String> keys = new ArrayList<>();
+        for (AgentType lane : lanes) {
+            keys.add(delayedKey(lane));
+            keys.add(laneKey(lane));
+        }
+        List<String> args = new ArrayList<>(List.of(String.valueOf(System.currentTimeMillis()), String.valueOf(PROMOTE_BATCH),
+                String.valueOf(aging.agingMs()), String.valueOf(TaskPriority.NORMAL.ordinal())));
+        Arrays.stream(TaskPriority.values()).forEach(p -> args.add(p.name()));
+
+        Long nextDue = template.execute(PROMOTE_DUE_SCRIPT, RedisSerializer.string(), new GenericToStringSerializer<>(Long.class),
+                keys, args.toArray());
+        return nextDue == null ? -1 : nextDue;
+    }
+
+    // Don't block past the next retry's due time (BRPOP has 1s granularity)
+    private long blockTimeoutSec(long nextDue, long timeoutSec) {
+        if (nextDue < 0) return timeoutSec;
+        long untilDueSec = (nextDue - System.currentTimeMillis() + 999) / 1000;
+        return Math.max(1, Math.min(timeoutSec, untilDueSec));
+    }
+
+    @Override
+    public long depth(AgentType lane) {
+        Long size = template.opsForZSet().zCard(laneKey(lane));
+        return size == null ? 0 : size;
+    }
+
+    static String laneKey(AgentType lane) {
+        return QUEUE_KEY + ":" + lane.name().toLowerCase();
+    }
+
+    private static String delayedKey(AgentType lane) {
+        return laneKey(lane) + DELAYED_SUFFIX;
+    }
+
+    private static String wakeupKey(AgentType lane) {
+        return laneKey(lane) + WAKEUP_SUFFIX;
+    }
+
+    private static AgentType laneOf(Task t) {
+        return t.getTargetAgent() == null ? AgentType.PLANNER : t.getTargetAgent();
     }
 }
@@ -0,0 +1,363 @@
+package com.artc.agentic_ai_platform.taskqueue;
+
+import com.artc.agentic_ai_platform.config.AppConfig;
+import com.artc.agentic_ai_platform.core.ITaskQueue;
+import com.artc.agentic_ai_platform.model.AgentType;
+import com.artc.agentic_ai_platform.model.Task;
+import com.artc.agentic_ai_platform.taskqueue.PriorityAging.Ranked;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.lettuce.core.XAutoClaimArgs;
+import io.lettuce.core.api.async.RedisStreamAsyncCommands;
+import io.lettuce.core.models.stream.ClaimedMessages;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.connection.RedisStreamCommands.XClaimOptions;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Redis Streams queue shared by several app nodes through one consumer group.
+ * XREADGROUP pulls only as many entries as the caller asked for. An entry stays pending for its consumer
+ * until ack(), and XAUTOCLAIM hands entries left pending by a crashed node to a live one. While this node
+ * holds an entry (buffered or running) a background thread keeps resetting its idle time, so nobody
+ * reclaims it meanwhile, even when every consumer is busy running a long task inline.
+ * Each lane (agent type) is its own stream; the PLANNER lane keeps the original stream key.
+ */
+@Slf4j
+public class RedisStreamQueue implements ITaskQueue, AutoCloseable {
+
+    static final String STREAM_KEY = "task_stream";
+    static final String GROUP = "agentic-workers";
+    private static final String FIELD = "task";
+    private static final Duration BLOCK_TIMEOUT = Duration.ofSeconds(2);
+    private static final int PROMOTE_BATCH = 100;
+
+    // Same contract as RedisQueue's delay sets (KEYS = delayed1, stream1, delayed2, stream2, ...):
+    // due retries are moved onto their lane's stream atomically
+    private static final RedisScript<Long> PROMOTE_DUE_SCRIPT = new DefaultRedisScript<>("""
+            local moved = 0
+            for i = 1, #KEYS, 2 do
+                local due = redis.call('ZRANGEBYSCORE', KEYS[i], '-inf', ARGV[1], 'LIMIT', 0, ARGV[2])
+                for _, t in ipairs(due) do
+                    redis.call('ZREM', KEYS[i], t)
+                    redis.call('XADD', KEYS[i + 1], '*', 'task', t)
+                end
+                moved = moved + #due
+            end
+            return moved
+            """, Long.class);
+
+    private final StringRedisTemplate template;
+    private final ObjectMapper mapper;
+    private final String consumerName;
+    private final int batchSize;
+    private final Duration claimMinIdle;
+
+    private final PriorityAging aging;
+    // Entries already delivered to this consumer (pending in Redis) but not yet handed to a worker thread,
+    // per lane and in priority order. A stream itself is FIFO, so priority applies within what is prefetched.
+    private final Map<AgentType, PriorityBlockingQueue<Ranked>> prefetched = new EnumMap<>(AgentType.class);
+    private final AtomicLong seq = new AtomicLong();
+    // taskId -> stream entry, so ack() knows what to XACK
+    private final Map<String, Delivery> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong nextClaimAt = new AtomicLong();
+    private final ScheduledExecutorService refresher;
+    private final Set<String> groupsReady = ConcurrentHashMap.newKeySet();
+
+    public RedisStreamQueue(StringRedisTemplate template, ObjectMapper mapper, AppConfig appConfig) {
+        this(template, mapper, appConfig, ManagementFactory.getRuntimeMXBean().getName()); // "pid@host"
+    }
+
+    RedisStreamQueue(StringRedisTemplate template, ObjectMapper mapper, AppConfig appConfig, String consumerName) {
+        this.template = template;
+        this.mapper = mapper;
+        this.consumerName = consumerName;
+        this.batchSize = appConfig.getQueue().getStream().getBatchSize();
+        this.claimMinIdle = Duration.ofSeconds(appConfig.getQueue().getStream().getClaimIdleSec());
+        this.aging = new PriorityAging(Duration.ofSeconds(appConfig.getQueue().getPriority().getAgingSec()));
+        for (AgentType type : AgentType.values()) prefetched.put(type, new PriorityBlockingQueue<>(11, Ranked.ORDER));
+
+        long taskTimeoutSec = appConfig.getAgents().getWorkers().getTaskTimeoutSec();
+        if (taskTimeoutSec > 0 && claimMinIdle.toSeconds() <= taskTimeoutSec) {
+            log.warn("app.queue.stream.claim_idle_sec ({}) is not above app.agents.workers.task_timeout_sec ({}): "
+                    + "a running task whose ownership refresh is late can be reclaimed and run twice",
+                    claimMinIdle.toSeconds(), taskTimeoutSec);
+        }
+
+        long refreshMs = Math.max(1, claimMinIdle.toMillis() / 3);
+        this.refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "stream-ownership-" + consumerName);
+            t.setDaemon(true);
+            return t;
+        });
+        refresher.scheduleAtFixedRate(this::refreshOwnership, refreshMs, refreshMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() {
+        refresher.shutdownNow();
+    }
+
+    @Override
+    public void push(Task t) {
+        String json = toJson(t);
+        AgentType lane = laneOf(t);
+        if (t.getNextRetryTimestamp() > System.currentTimeMillis()) {
+            template.opsForZSet().add(delayedKey(lane), json, t.getNextRetryTimestamp());
+        } else {
+            template.opsForStream().add(StreamRecords.newRecord().in(streamKey(lane)).ofMap(Map.of(FIELD, json)));
+        }
+    }
+
+    @Override
+    public Optional<Task> pop() {
+        return popBatch(1, BLOCK_TIMEOUT).stream().findFirst();
+    }
+
+    // One pipelined round trip: an XADD per ready task, a ZADD per backing-off retry
+    @Override
+    public void pushAll(List<Task> tasks) {
+        if (tasks.isEmpty()) return;
+        long now = System.currentTimeMillis();
+        List<String> json = tasks.stream().map(this::toJson).toList();
+        template.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                for (int i = 0; i < tasks.size(); i++) {
+                    AgentType lane = laneOf(tasks.get(i));
+                    long due = tasks.get(i).getNextRetryTimestamp();
+                    if (due > now) {
+                        ops.opsForZSet().add(delayedKey(lane), json.get(i), due);
+                    } else {
+                        ops.opsForStream().add(StreamRecords.newRecord().in(streamKey(lane)).ofMap(Map.of(FIELD, json.get(i))));
+                    }
+                }
+                return null;
+            }
+        });
+    }
+
+    @Override
+    public List<Task> popBatch(List<AgentType> lanes, int max, Duration timeout) {
+        List<Task> batch = new ArrayList<>(max);
+        drainPrefetched(lanes, batch, max);
+        if (!batch.isEmpty()) return batch;
+
+        ensureGroups(lanes);
+        promoteDueTasks(lanes);
+        reclaimStalled(lanes);
+        drainPrefetched(lanes, batch, max);
+        if (!batch.isEmpty()) return batch;
+
+        readBatch(lanes, max, timeout); // Anything more would sit in this node's PEL, idle, waiting to be reclaimed
+        drainPrefetched(lanes, batch, max);
+        return batch;
+    }
+
+    @Override
+    public void ack(Task task) {
+        Delivery d = task.getTaskId() == null ? null : inFlight.remove(task.getTaskId());
+        if (d == null) return;
+        template.opsForStream().acknowledge(d.stream(), GROUP, d.id());
+        template.opsForStream().delete(d.stream(), d.id()); // Keep the stream from growing without bound
+    }
+
+    // XLEN: acked entries are deleted, so this also counts entries delivered but still in progress
+    @Override
+    public long depth(AgentType lane) {
+        Long size = template.opsForStream().size(streamKey(lane));
+        return size == null ? 0 : size;
+    }
+
+    // Highest effective priority first; lane preference breaks ties
+    private void drainPrefetched(List<AgentType> lanes, List<Task> batch, int max) {
+        long now = System.currentTimeMillis();
+        while (batch.size() < max) {
+            PriorityBlockingQueue<Ranked> best = null;
+            long bestLevel = Long.MAX_VALUE;
+            for (AgentType lane : lanes) {
+                Ranked head = prefetched.get(lane).peek();
+                if (head == null) continue;
+                long level = aging.effectiveLevel(head.rank(), now);
+                if (level < bestLevel) {
+                    best = prefetched.get(lane);
+                    bestLevel = level;
+                }
+            }
+            if (best == null) return;
+            Ranked next = best.poll(); // Another consumer thread may have taken the head meanwhile
+            if (next != null) batch.add(next.task());
+        }
+    }
+
+    // One XREADGROUP over all requested lanes' streams
+    @SuppressWarnings("unchecked")
+    private void readBatch(List<AgentType> lanes, int count, Duration block) {
+        StreamOffset<String>[] offsets = lanes.stream()
+                .map(lane -> StreamOffset.create(streamKey(lane), ReadOffset.lastConsumed()))
+                .toArray(StreamOffset[]::new);
+        List<MapRecord<String, Object, Object>> records = template.opsForStream().read(
+                Consumer.from(GROUP, consumerName),
+                StreamReadOptions.empty().count(count).block(block.isZero() ? Duration.ofMillis(1) : block), // BLOCK 0 = forever
+                offsets);
+        if (records == null) return;
+
+        for (MapRecord<String, Object, Object> r : records) {
+            accept(r.getStream(), r.getId(), (String) r.getValue().get(FIELD));
+        }
+    }
+
+    // XCLAIM ... JUSTID to ourselves, three times per claim interval on the refresher thread: resets the idle time
+    // of every entry this node holds, so XAUTOCLAIM (elsewhere or here) only takes entries of a dead node
+    private void refreshOwnership() {
+        Map<String, List<RecordId>> held = new HashMap<>();
+        inFlight.values().forEach(d -> held.computeIfAbsent(d.stream(), k -> new ArrayList<>()).add(d.id()));
+        held.forEach((stream, ids) -> {
+            try {
+                template.execute((RedisCallback<List<RecordId>>) connection ->
+                        connection.streamCommands().xClaimJustId(bytes(stream), GROUP, consumerName,
+                                XClaimOptions.minIdle(Duration.ZERO).ids(ids)));
+            } catch (RuntimeException e) { // A thrown exception would cancel the schedule
+                log.warn("Ownership refresh on {} failed: {}", stream, e.getMessage());
+            }
+        });
+    }
+
+    // XAUTOCLAIM (Redis 6.2+): take over entries another consumer has left pending for longer than claimMinIdle.
+    // Spring Data Redis has no wrapper for it yet, so this goes through the native Lettuce connection.
+    @SuppressWarnings("unchecked")
+    private void reclaimStalled(List<AgentType> lanes) {
+        long now = System.currentTimeMillis();
+        long due = nextClaimAt.get();
+        if (now < due || !nextClaimAt.compareAndSet(due, now + claimMinIdle.toMillis())) return; // One thread per interval
+
+        // Every lane, not just the caller's: nobody else may look at them for a whole interval
+        for (AgentType lane : AgentType.values()) {
+            String stream = streamKey(lane);
+            if (!lanes.contains(lane) && !groupsReady.contains(stream)) continue; // Never read here, nothing to claim yet
+
+            ClaimedMessages<byte[], byte[]> claimed = template.execute((RedisCallback<ClaimedMessages<byte[], byte[]>>) connection -> {
+                RedisStreamAsyncCommands<byte[], byte[]> commands = (RedisStreamAsyncCommands<byte[], byte[]>) connection.getNativeConnection();
+                XAutoClaimArgs<byte[]> args = XAutoClaimArgs.Builder
+                        .xautoclaim(io.lettuce.core.Consumer.from(bytes(GROUP), bytes(consumerName)), claimMinIdle, "0-0")
+                        .count(batchSize);
+                try {
+                    return commands.xautoclaim(bytes(stream), args).get(BLOCK_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+                } catch (Exception e) {
+                    log.warn("XAUTOCLAIM on {} failed: {}", stream, e.getMessage());
+                    return null;
+                }
+            });
+            if (claimed == null) continue;
+
+            claimed.getMessages().forEach(m -> {
+                // byte[] map keys compare by identity, so match the field by content
+                m.getBody().forEach((field, body) -> {
+                    if (FIELD.equals(new String(field, StandardCharsets.UTF_8)) && !isHeld(stream, m.getId())) {
+                        log.info("Reclaimed stalled stream entry {} on {}", m.getId(), stream);
+                        accept(stream, RecordId.of(m.getId()), new String(body, StandardCharsets.UTF_8));
+                    }
+                });
+            });
+        }
+    }
+
+    // Our own entries come back from XAUTOCLAIM too once idle; they are already buffered or running here
+    private boolean isHeld(String stream, String id) {
+        return inFlight.containsValue(new Delivery(stream, RecordId.of(id)));
+    }
+
+    private void promoteDueTasks(List<AgentType> lanes) {
+        List<String> keys = new ArrayList<>();
+        for (AgentType lane : lanes) {
+            keys.add(delayedKey(lane));
+            keys.add(streamKey(lane));
+        }
+        template.execute(PROMOTE_DUE_SCRIPT, keys, String.valueOf(System.currentTimeMillis()), String.valueOf(PROMOTE_BATCH));
+    }
+
+    private void accept(String stream, RecordId id, String json) {
+        try {
+            Task t = mapper.readValue(json, Task.class);
+            if (t.getTaskId() != null) inFlight.put(t.getTaskId(), new Delivery(stream, id));
+            // The entry ID's timestamp is when it was added to the stream
+            prefetched.get(laneOf(t)).offer(new Ranked(aging.rank(t, id.getTimestamp()), seq.incrementAndGet(), t));
+        } catch (JsonProcessingException e) {
+            // Poison entry: it can never be processed, so drop it instead of reclaiming it forever
+            log.error("Dropping unreadable stream entry {}: {}", id, e.getMessage());
+            template.opsForStream().acknowledge(stream, GROUP, id);
+            template.opsForStream().delete(stream, id);
+        }
+    }
+
+    private void ensureGroups(List<AgentType> lanes) {
+        for (AgentType lane : lanes) {
+            String stream = streamKey(lane);
+            if (groupsReady.contains(stream)) continue;
+            try {
+                template.opsForStream().createGroup(stream, ReadOffset.from("0"), GROUP); // MKSTREAM
+            } catch (RedisSystemException e) {
+                if (!String.valueOf(e.getMostSpecificCause().getMessage()).contains("BUSYGROUP")) throw e;
+            }
+            groupsReady.add(stream);
+        }
+    }
+
+    private String toJson(Task t) {
+        try {
+            return mapper.writeValueAsString(t);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Task is not serializable: " + t.getTaskId(), e);
+        }
+    }
+
+    static String streamKey(AgentType lane) {
+        return lane == AgentType.PLANNER ? STREAM_KEY : STREAM_KEY + ":" + lane.name().toLowerCase();
+    }
+
+    static String delayedKey(AgentType lane) {
+        return streamKey(lane) + ":delayed";
+    }
+
+    private static AgentType laneOf(Task t) {
+        return t.getTargetAgent() == null ? AgentType.PLANNER : t.getTargetAgent();
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private record Delivery(String stream, RecordId id) {}
+}
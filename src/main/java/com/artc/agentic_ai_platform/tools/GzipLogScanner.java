@@ -0,0 +1,267 @@
+package com.artc.agentic_ai_platform.tools;
+
+import com.artc.agentic_ai_platform.executor.InterruptibleTask;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Scans gzip-compressed logs (rotated "app.log.1.gz") in place, without inflating them to disk. The file is
+ * inflated in pieces of about PIECE_BYTES; each piece is matched on the scan pool while the next one is
+ * inflated, and pieces are stitched back together in order. Same answer as MappedLogScanner on the plain
+ * file: the first 'limit' matching lines, trailing '\r' stripped, the last line counted even without '\n'.
+ *
+ * A plain gzip file (one deflate stream, or members simply concatenated) can only be inflated front to
+ * back, on the calling thread. A file of independent members whose sizes are in their headers (BGZF, as
+ * written by bgzip) is also inflated in parallel, a group of members per task.
+ */
+final class GzipLogScanner {
+
+    private static final int PIECE_BYTES = 4 * 1024 * 1024; // Inflated bytes per scan task
+    private static final int IN_FLIGHT = 8;                  // Pieces inflated or scanned ahead of the one being stitched
+    private static final int INPUT_BUFFER = 1024 * 1024;
+    private static final int INFLATE_BUFFER = 256 * 1024;
+    private static final int BGZF_HEADER = 18;
+    private static final int GZIP_TRAILER = 8;
+
+    private final int pieceBytes;
+    private final Executor executor;
+
+    GzipLogScanner(Executor executor) {
+        this(PIECE_BYTES, executor);
+    }
+
+    // Visible for tests: small pieces put line breaks across pieces
+    GzipLogScanner(int pieceBytes, Executor executor) {
+        this.pieceBytes = pieceBytes;
+        this.executor = executor;
+    }
+
+    static boolean isGzip(Path file) {
+        return file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".gz");
+    }
+
+    List<String> scan(Path file, LineMatcher matcher, int limit) throws IOException {
+        if (limit <= 0 || Files.size(file) == 0) return new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            List<long[]> groups = memberGroups(channel);
+            if (groups != null) {
+                Iterator<long[]> members = groups.iterator();
+                return run(() -> {
+                    if (!members.hasNext()) return null;
+                    long[] group = members.next();
+                    return () -> scanPiece(inflate(channel, group), matcher, limit); // Inflated and matched on the pool
+                }, matcher, limit);
+            }
+        }
+        try (InputStream in = new GZIPInputStream(new BufferedInputStream(Files.newInputStream(file), INPUT_BUFFER), INFLATE_BUFFER)) {
+            return run(() -> {
+                byte[] piece = new byte[pieceBytes];
+                int n = in.readNBytes(piece, 0, pieceBytes); // Inflated here, matched on the pool
+                return n == 0 ? null : () -> scanPiece(n == pieceBytes ? piece : Arrays.copyOf(piece, n), matcher, limit);
+            }, matcher, limit);
+        }
+    }
+
+    // The next piece's work, or null after the last one
+    @FunctionalInterface
+    private interface PieceSource {
+        Supplier<Piece> next() throws IOException;
+    }
+
+    // Pieces in order, at most IN_FLIGHT running ahead; stops reading once 'limit' lines are in
+    private List<String> run(PieceSource source, LineMatcher matcher, int limit) throws IOException {
+        Deque<CompletableFuture<Piece>> inFlight = new ArrayDeque<>();
+        Stitcher stitcher = new Stitcher(matcher, limit);
+        try {
+            Supplier<Piece> work;
+            while (!stitcher.full() && (work = source.next()) != null) {
+                inFlight.add(InterruptibleTask.supplyAsync(work, executor));
+                if (inFlight.size() >= IN_FLIGHT) stitcher.add(inFlight.poll().get());
+            }
+            while (!stitcher.full() && !inFlight.isEmpty()) stitcher.add(inFlight.poll().get());
+            return stitcher.finish();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while scanning compressed log", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException io) throw io.getCause();
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException("Compressed log scan failed", e.getCause());
+        } finally {
+            inFlight.forEach(piece -> piece.cancel(true));
+        }
+    }
+
+    // A piece of inflated text: the bytes before its first '\n' (the end of a line begun in earlier pieces),
+    // the matching lines after it, and the bytes after its last '\n' (the start of a line ending later)
+    private record Piece(byte[] head, List<String> lines, byte[] tail) {}
+
+    private static Piece scanPiece(byte[] text, LineMatcher matcher, int limit) {
+        int first = 0;
+        while (first < text.length && text[first] != '\n') first++;
+        if (first == text.length) return new Piece(text, List.of(), null); // No line ends here
+        int last = text.length - 1;
+        while (text[last] != '\n') last--;
+        List<String> lines = last > first
+                ? MappedLogScanner.scanBuffer(ByteBuffer.wrap(text, first + 1, last - first).slice(), matcher, limit)
+                : List.of();
+        return new Piece(Arrays.copyOf(text, first), lines, Arrays.copyOfRange(text, last + 1, text.length));
+    }
+
+    // Joins the lines cut by piece boundaries and keeps the first 'limit' matches
+    private static final class Stitcher {
+        private final LineMatcher matcher;
+        private final int limit;
+        private final List<String> lines = new ArrayList<>();
+        private final ByteArrayOutputStream carry = new ByteArrayOutputStream(); // The line being assembled
+
+        Stitcher(LineMatcher matcher, int limit) {
+            this.matcher = matcher;
+            this.limit = limit;
+        }
+
+        boolean full() {
+            return lines.size() >= limit;
+        }
+
+        void add(Piece piece) {
+            carry.writeBytes(piece.head());
+            if (piece.tail() == null) return;
+            flushLine();
+            for (String line : piece.lines()) {
+                if (full()) return;
+                lines.add(line);
+            }
+            carry.writeBytes(piece.tail());
+        }
+
+        List<String> finish() {
+            if (!full()) flushLine(); // The last line of the file has no '\n'
+            return lines;
+        }
+
+        private void flushLine() {
+            byte[] line = carry.toByteArray();
+            carry.reset();
+            int end = line.length > 0 && line[line.length - 1] == '\r' ? line.length - 1 : line.length;
+            if (end > 0 && !full() && matcher.matches(ByteBuffer.wrap(line), 0, end)) {
+                lines.add(new String(line, 0, end, StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    // [start, end) ranges of whole members, about pieceBytes inflated each; null unless every member is a BGZF block
+    List<long[]> memberGroups(FileChannel channel) throws IOException {
+        long size = channel.size();
+        ByteBuffer header = ByteBuffer.allocate(BGZF_HEADER).order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer inflatedSize = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+        List<long[]> groups = new ArrayList<>();
+        long groupStart = 0, inflated = 0, pos = 0;
+        while (pos < size) {
+            header.clear();
+            if (readFully(channel, header, pos) < BGZF_HEADER || !isBgzfHeader(header)) return null;
+            long blockSize = (header.getShort(16) & 0xFFFF) + 1L;
+            if (blockSize < BGZF_HEADER + GZIP_TRAILER || pos + blockSize > size) return null;
+            inflatedSize.clear();
+            readFully(channel, inflatedSize, pos + blockSize - 4);
+            inflated += inflatedSize.getInt(0) & 0xFFFFFFFFL;
+            pos += blockSize;
+            if (inflated >= pieceBytes) {
+                groups.add(new long[]{groupStart, pos});
+                groupStart = pos;
+                inflated = 0;
+            }
+        }
+        if (groupStart < pos) groups.add(new long[]{groupStart, pos});
+        return groups;
+    }
+
+    // gzip, deflate, FEXTRA only, and a single "BC" extra subfield holding the block size
+    private static boolean isBgzfHeader(ByteBuffer h) {
+        return h.get(0) == (byte) 0x1F && h.get(1) == (byte) 0x8B && h.get(2) == 8 && h.get(3) == 4
+                && h.getShort(10) == 6 && h.get(12) == 'B' && h.get(13) == 'C' && h.getShort(14) == 2;
+    }
+
+    // Inflated text of the BGZF blocks in [start, end), each checked against its CRC32 and size
+    private static byte[] inflate(FileChannel channel, long[] group) {
+        try {
+            byte[] raw = new byte[(int) (group[1] - group[0])];
+            readFully(channel, ByteBuffer.wrap(raw), group[0]);
+            ByteBuffer le = ByteBuffer.wrap(raw).order(ByteOrder.LITTLE_ENDIAN);
+            int total = 0;
+            for (int p = 0; p < raw.length; p += blockSize(le, p)) total += le.getInt(p + blockSize(le, p) - 4);
+
+            byte[] text = new byte[total];
+            Inflater inflater = new Inflater(true);
+            CRC32 crc = new CRC32();
+            try {
+                int out = 0;
+                for (int p = 0; p < raw.length; p += blockSize(le, p)) {
+                    int block = blockSize(le, p);
+                    int expected = le.getInt(p + block - 4);
+                    inflater.reset();
+                    inflater.setInput(raw, p + BGZF_HEADER, block - BGZF_HEADER - GZIP_TRAILER);
+                    int start = out;
+                    while (out - start < expected) {
+                        int n = inflater.inflate(text, out, expected - (out - start));
+                        if (n == 0 && (inflater.finished() || inflater.needsInput())) break;
+                        out += n;
+                    }
+                    crc.reset();
+                    crc.update(text, start, out - start);
+                    if (out - start != expected || (int) crc.getValue() != le.getInt(p + block - GZIP_TRAILER)) {
+                        throw new ZipException("Corrupt gzip member at byte " + (group[0] + p));
+                    }
+                }
+            } finally {
+                inflater.end();
+            }
+            return text;
+        } catch (DataFormatException e) {
+            throw new UncheckedIOException(new ZipException(e.getMessage()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static int blockSize(ByteBuffer le, int p) {
+        return (le.getShort(p + 16) & 0xFFFF) + 1;
+    }
+
+    private static int readFully(FileChannel channel, ByteBuffer buf, long pos) throws IOException {
+        int total = 0;
+        while (buf.hasRemaining()) {
+            int n = channel.read(buf, pos + total);
+            if (n <= 0) break;
+            total += n;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,85 @@
+package com.artc.agentic_ai_platform.tools;
+
+import com.artc.agentic_ai_platform.constants.AppConstants;
+import com.artc.agentic_ai_platform.core.IStorageBackend;
+import com.artc.agentic_ai_platform.core.llm.PromptKey;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Tail scanning: remembers, per file and keyword set, how far the file was scanned and the latest relevant
+ * lines, so the next scan only reads the bytes appended since. The state lives in IStorageBackend.
+ *
+ * A file is scanned from the start again when it was rotated (new inode), truncated (smaller than the offset)
+ * or truncated and rewritten past the offset (its first bytes changed). Lines still being written (no '\n'
+ * yet) are left for the next scan. Two scans of the same file at once both read the new bytes; the last one
+ * to finish stores its state, which is consistent either way.
+ */
+@Slf4j
+final class IncrementalLogScanner {
+
+    private final MappedLogScanner scanner;
+    private final IStorageBackend storage;
+    private final long stateTtlSec;
+
+    IncrementalLogScanner(MappedLogScanner scanner, IStorageBackend storage, long stateTtlSec) {
+        this.scanner = scanner;
+        this.storage = storage;
+        this.stateTtlSec = stateTtlSec;
+    }
+
+    // The last 'limit' relevant lines of the file, in file order
+    List<String> scan(Path file, String keywordSet, LineMatcher matcher, int limit) throws IOException {
+        String key = String.format(AppConstants.KEY_LOG_SCAN, PromptKey.of(file.toString(), keywordSet));
+        String fileKey = LogFiles.fileKey(file);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            LogScanState previous = readState(key)
+                    .filter(state -> LogFiles.sameFile(channel, fileKey, size, state.getFileKey(), state.getOffset(), state.getHeadLength(), state.getHeadHash()))
+                    .orElse(null);
+            long from = previous == null ? 0 : previous.getOffset();
+            long to = MappedLogScanner.lastLineEnd(channel, from, size);
+            if (previous != null && to == from) return previous.getRecent(); // Nothing new
+
+            MappedLogScanner.Tail tail = scanner.scanTail(channel, from, to, matcher, limit);
+            List<String> recent = new ArrayList<>(previous == null ? List.of() : previous.getRecent());
+            recent.addAll(tail.lines());
+            int headLength = (int) Math.min(LogFiles.HEAD_BYTES, to); // Grows with the file until it covers HEAD_BYTES
+            // A new object: RamStorage hands out the stored instance, which other scans may be reading
+            LogScanState state = new LogScanState(fileKey, to, headLength, LogFiles.headHash(channel, headLength),
+                    (previous == null ? 0 : previous.getMatchedLines()) + tail.matched(),
+                    new ArrayList<>(recent.subList(Math.max(0, recent.size() - limit), recent.size()))); // Not List.copyOf: Redis stores the list's class
+            writeState(key, state);
+
+            log.info("[TOOL] {}: scanned bytes {}-{} ({}), {} relevant lines so far",
+                    file, from, to, previous == null ? "from the start" : "appended", state.getMatchedLines());
+            return state.getRecent();
+        }
+    }
+
+    // The state is an optimization: if storage is down, scan the whole file rather than fail the call
+    private Optional<LogScanState> readState(String key) {
+        try {
+            return storage.get(key, LogScanState.class);
+        } catch (Exception e) {
+            log.warn("[TOOL] Log scan state read failed: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private void writeState(String key, LogScanState state) {
+        try {
+            if (stateTtlSec > 0) storage.save(key, state, stateTtlSec); else storage.save(key, state);
+        } catch (Exception e) {
+            log.warn("[TOOL] Log scan state write failed: {}", e.getMessage());
+        }
+    }
+}
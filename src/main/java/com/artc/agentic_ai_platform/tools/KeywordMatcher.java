@@ -0,0 +1,154 @@
+package com.artc.agentic_ai_platform.tools;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Aho-Corasick automaton over UTF-8 bytes: is any of the keywords somewhere in the line? One pass per
+ * line whatever the number of keywords, no allocation while matching. ASCII letters match case-insensitively,
+ * other bytes exactly (so "É" only matches "É").
+ *
+ * The automaton is a full transition table (failure links folded in), over byte classes rather than
+ * all 256 bytes: every byte that occurs in no keyword shares one class, which keeps the table small.
+ * Immutable and thread-safe once built; build once per keyword set and reuse.
+ */
+final class KeywordMatcher implements LineMatcher {
+
+    private final int[] classOf = new int[256]; // Byte (case-folded) -> column in 'next'
+    private final int classes;
+    private final int[] next;                   // next[state * classes + class]
+    private final boolean[] accepts;            // A keyword ends in this state (or in one of its suffixes)
+
+    // 'keywords' are already case-folded
+    private KeywordMatcher(List<byte[]> keywords) {
+        // 1. Byte classes: 0 = any byte no keyword uses; upper-case ASCII shares its lower-case class
+        int n = 1;
+        for (byte[] keyword : keywords) {
+            for (byte b : keyword) {
+                if (classOf[b & 0xff] == 0) classOf[b & 0xff] = n++;
+            }
+        }
+        for (int b = 'A'; b <= 'Z'; b++) classOf[b] = classOf[b + ('a' - 'A')];
+        this.classes = n;
+
+        // 2. Trie, -1 = no edge yet
+        List<int[]> edges = new ArrayList<>();
+        List<Boolean> ends = new ArrayList<>();
+        edges.add(newRow());
+        ends.add(false);
+        for (byte[] keyword : keywords) {
+            int state = 0;
+            for (byte b : keyword) {
+                int c = classOf[b & 0xff];
+                if (edges.get(state)[c] < 0) {
+                    edges.get(state)[c] = edges.size();
+                    edges.add(newRow());
+                    ends.add(false);
+                }
+                state = edges.get(state)[c];
+            }
+            ends.set(state, true);
+        }
+
+        // 3. Breadth-first: a missing edge follows the failure link, so matching never backtracks
+        int states = edges.size();
+        this.next = new int[states * classes];
+        this.accepts = new boolean[states];
+        int[] fail = new int[states];
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int c = 0; c < classes; c++) {
+            int child = edges.get(0)[c];
+            next[c] = child < 0 ? 0 : child;
+            if (child > 0) queue.add(child);
+        }
+        for (int s = 0; s < states; s++) accepts[s] = ends.get(s);
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            accepts[state] |= accepts[fail[state]];
+            for (int c = 0; c < classes; c++) {
+                int child = edges.get(state)[c];
+                if (child < 0) {
+                    next[state * classes + c] = next[fail[state] * classes + c];
+                } else {
+                    fail[child] = next[fail[state] * classes + c];
+                    next[state * classes + c] = child;
+                    queue.add(child);
+                }
+            }
+        }
+    }
+
+    private int[] newRow() {
+        int[] row = new int[classes];
+        Arrays.fill(row, -1);
+        return row;
+    }
+
+    // Blank keywords are ignored; no keywords at all matches nothing
+    static KeywordMatcher of(Collection<String> keywords) {
+        Set<String> distinct = new LinkedHashSet<>();
+        for (String keyword : keywords) {
+            if (keyword != null && !keyword.isBlank()) distinct.add(keyword.strip());
+        }
+        List<byte[]> bytes = new ArrayList<>();
+        for (String keyword : distinct) {
+            byte[] b = keyword.getBytes(StandardCharsets.UTF_8);
+            for (int i = 0; i < b.length; i++) b[i] = lower(b[i]);
+            bytes.add(b);
+        }
+        return new KeywordMatcher(bytes);
+    }
+
+    private static byte lower(byte b) {
+        return b >= 'A' && b <= 'Z' ? (byte) (b + ('a' - 'A')) : b;
+    }
+
+    @Override
+    public boolean matches(ByteBuffer buf, int start, int end) {
+        if (accepts.length == 1) return false;
+        int state = 0;
+        for (int i = start; i < end; i++) {
+            state = next[state * classes + classOf[buf.get(i) & 0xff]];
+            if (accepts[state]) return true;
+        }
+        return false;
+    }
+
+    // Same result as matching the text's UTF-8 bytes, without encoding it
+    boolean matches(CharSequence text) {
+        if (accepts.length == 1) return false;
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char ch = text.charAt(i);
+            if (ch < 0x80) {
+                state = step(state, ch);
+            } else if (ch < 0x800) {
+                state = step(step(state, 0xC0 | (ch >> 6)), 0x80 | (ch & 0x3F));
+            } else if (Character.isHighSurrogate(ch) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+                int cp = Character.toCodePoint(ch, text.charAt(++i));
+                state = step(state, 0xF0 | (cp >> 18));
+                state = step(state, 0x80 | ((cp >> 12) & 0x3F));
+                state = step(state, 0x80 | ((cp >> 6) & 0x3F));
+                state = step(state, 0x80 | (cp & 0x3F));
+            } else if (Character.isSurrogate(ch)) {
+                state = step(state, '?'); // Unpaired surrogate, encoded like String.getBytes() does
+            } else {
+                state = step(step(step(state, 0xE0 | (ch >> 12)), 0x80 | ((ch >> 6) & 0x3F)), 0x80 | (ch & 0x3F));
+            }
+            if (accepts[state]) return true;
+        }
+        return false;
+    }
+
+    private int step(int state, int b) {
+        return next[state * classes + classOf[b & 0xff]];
+    }
+}
@@ -0,0 +1,14 @@
+package com.artc.agentic_ai_platform.tools;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Decides whether a log line is relevant, reading the line's bytes in place (no String per line).
+ * See KeywordMatcher.
+ */
+@FunctionalInterface
+interface LineMatcher {
+
+    // Bytes [start, end) of 'buf', absolute positions
+    boolean matches(ByteBuffer buf, int start, int end);
+}
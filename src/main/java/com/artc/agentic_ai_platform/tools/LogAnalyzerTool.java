@@ -1,18 +1,60 @@
 package com.artc.agentic_ai_platform.tools;
 
+import com.artc.agentic_ai_platform.config.AppConfig;
 import com.artc.agentic_ai_platform.core.IAgentTool;
+import com.artc.agentic_ai_platform.core.IStorageBackend;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 
 import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+/**
+ * Returns the log lines relevant to an incident: lines containing any of the context keywords
+ * ("FILE|overheat,vibration"), or any of app.tools.log_analyzer.always_match (errors by default).
+ * Keywords are matched in one pass per line by a KeywordMatcher, built once per keyword set and cached.
+ *
+ * Files are read from app.tools.log_analyzer.root_dir (never outside it) by MappedLogScanner:
+ * memory-mapped, line-aligned chunks scanned in parallel on the logScanExecutor pool.
+ * A file that isn't there is answered from the built-in sample log, so demos and tests run without logs.
+ *
+ * With app.tools.log_analyzer.incremental, a file is tailed instead (IncrementalLogScanner): each call only
+ * reads what was appended since the last call for the same keywords, and returns the latest relevant lines.
+ *
+ * "FILE|KEYWORDS|FROM..TO" only keeps lines whose timestamp is in the window (see TimeWindow); those queries
+ * always return the first relevant lines of the window. With app.tools.log_analyzer.index, large files get an
+ * on-disk inverted index (LogIndexer) and queries read only the lines that can match.
+ *
+ * Rotated "*.gz" files are streamed by GzipLogScanner: inflated in bounded pieces (a few MB, a fixed number
+ * in flight, never the whole file) that are matched in parallel, BGZF members inflated in parallel too.
+ * Same answer as the uncompressed file.
+ */
 @Component
 @Slf4j
 public class LogAnalyzerTool implements IAgentTool {
 
+    private static final int MAX_LINES = 50;
+    private static final int MATCHER_CACHE_SIZE = 256; // Distinct keyword sets kept compiled
+
     // Simulating a huge file on disk
     private static final String MOCK_HUGE_LOG_FILE = """
             [10:00:00] INFO System started
@@ -26,38 +68,112 @@ public class LogAnalyzerTool implements IAgentTool {
             [10:00:08] INFO System restarting...
             """;
 
+    private final Path rootDir; // null = sample log only
+    private final MappedLogScanner scanner;
+    private final GzipLogScanner gzipScanner;
+    private final IncrementalLogScanner tailer; // null = every call scans the whole file
+    private final LogIndexer indexer;           // null = no indexes
+    private final List<String> alwaysMatch;
+    private final Cache<TreeSet<String>, KeywordMatcher> matchers = Caffeine.newBuilder().maximumSize(MATCHER_CACHE_SIZE).build();
+
+    public LogAnalyzerTool(AppConfig appConfig, IStorageBackend storage,
+                           @Qualifier("logScanExecutor") Executor scanExecutor, @Qualifier("logIndexExecutor") Executor indexExecutor) {
+        AppConfig.Tools.LogAnalyzer config = appConfig.getTools().getLogAnalyzer();
+        String root = config.getRootDir();
+        this.rootDir = root == null || root.isBlank() ? null : Path.of(root).toAbsolutePath().normalize();
+        long chunkBytes = Math.max(1, config.getChunkMb()) * 1024L * 1024L;
+        this.scanner = new MappedLogScanner(chunkBytes, scanExecutor);
+        this.gzipScanner = new GzipLogScanner(scanExecutor);
+        this.alwaysMatch = config.getAlwaysMatch() == null ? List.of() : List.copyOf(config.getAlwaysMatch());
+        this.tailer = config.isIncremental() ? new IncrementalLogScanner(scanner, storage, config.getStateTtlSec()) : null;
+        AppConfig.Tools.LogAnalyzer.Index index = config.getIndex();
+        this.indexer = index.isEnabled() ? new LogIndexer(chunkBytes, index.getMinFileMb() * 1024L * 1024L, indexExecutor) : null;
+    }
+
     @Override
     public String getName() { return "LOG_ANALYZER"; }
 
     /**
      * @param input A JSON string or simple string containing parameters.
-     * Format expected: "FILENAME|CONTEXT_KEYWORDS"
+     * Format expected: "FILENAME|CONTEXT_KEYWORDS" (keywords comma-separated), optionally "|FROM..TO"
      */
     @Override
     public String execute(String input) {
         String[] parts = input.split("\\|");
         String fileName = parts[0];
         String contextKeyword = parts.length > 1 ? parts[1].toLowerCase() : "error";
+        TimeWindow window = parts.length > 2 ? TimeWindow.parse(parts[2]) : null;
+        TreeSet<String> keywords = keywords(contextKeyword);
+        KeywordMatcher matcher = matchers.get(keywords, KeywordMatcher::of);
 
-        log.info("[TOOL] Streaming file: {} looking for '{}'...", fileName, contextKeyword);
+        Optional<Path> file = resolve(fileName);
+        String relevantChunk;
+        if (file.isPresent()) {
+            log.info("[TOOL] Scanning file: {} looking for '{}'...", file.get(), contextKeyword);
+            relevantChunk = String.join("\n", scanFile(file.get(), keywords, matcher, window));
+        } else {
+            log.info("[TOOL] Streaming file: {} looking for '{}'...", fileName, contextKeyword);
 
-        // 1. STREAMING PROCESS (Simulated)
-        // Actual: Files.lines(Paths.get(filename))
-        Stream<String> logStream = new BufferedReader(new StringReader(MOCK_HUGE_LOG_FILE)).lines();
+            // 1. STREAMING PROCESS (Simulated: no such file under root_dir)
+            Stream<String> logStream = new BufferedReader(new StringReader(MOCK_HUGE_LOG_FILE)).lines();
 
-        // 2. FILTER LOCALLY (Heuristic Layer)
-        String relevantChunk = logStream
-                .filter(line -> isRelevant(line, contextKeyword))
-                .limit(50)
-                .collect(Collectors.joining("\n"));
+            // 2. FILTER LOCALLY (Heuristic Layer)
+            relevantChunk = logStream
+                    .filter(matcher::matches)
+                    .filter(line -> window == null || window.contains(line))
+                    .limit(MAX_LINES)
+                    .collect(Collectors.joining("\n"));
+        }
 
         if(relevantChunk.isEmpty()) return "No relevant log lines found for keyword: " + contextKeyword;
 
         return relevantChunk;
     }
 
-    private boolean isRelevant(String line, String keyword) {
-        String lower = line.toLowerCase();
-        return lower.contains(keyword) || lower.contains("error") || lower.contains("critical");
+    private List<String> scanFile(Path file, TreeSet<String> keywords, KeywordMatcher matcher, TimeWindow window) {
+        try {
+            LineMatcher relevant = window == null ? matcher : window.and(matcher);
+            if (GzipLogScanner.isGzip(file)) return gzipScanner.scan(file, relevant, MAX_LINES); // Rotated archive: not tailed or indexed
+            if (tailer != null && window == null) return tailer.scan(file, String.join(",", keywords), matcher, MAX_LINES);
+
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                long size = channel.size();
+                Optional<LogIndex> index = indexer == null ? Optional.empty() : indexer.indexFor(file, channel, size);
+                if (index.isEmpty() || !LogIndex.canAnswer(keywords)) return scanner.scan(channel, 0, size, relevant, MAX_LINES);
+
+                // Indexed part first, then whatever was appended since the index was built
+                List<String> lines = new ArrayList<>(index.get().query(channel, matcher, window, MAX_LINES));
+                if (lines.size() < MAX_LINES) lines.addAll(scanner.scan(channel, index.get().size(), size, relevant, MAX_LINES - lines.size()));
+                return lines;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to scan " + file, e); // The worker reports the item as failed
+        }
+    }
+
+    // A regular file under root_dir, after resolving '..' and symlinks; absolute names must point inside root_dir too
+    Optional<Path> resolve(String fileName) {
+        if (rootDir == null || fileName == null || fileName.isBlank()) return Optional.empty();
+        try {
+            Path candidate = Path.of(fileName.strip());
+            if (!candidate.isAbsolute()) candidate = rootDir.resolve(candidate);
+            if (!Files.isRegularFile(candidate)) return Optional.empty();
+            Path real = candidate.toRealPath();
+            return real.startsWith(rootDir.toRealPath()) ? Optional.of(real) : Optional.empty();
+        } catch (InvalidPathException | IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    KeywordMatcher matcher(String keywords) {
+        return matchers.get(keywords(keywords), KeywordMatcher::of);
+    }
+
+    // The planner's keywords plus always_match; the set (not its order) is the cache key
+    private TreeSet<String> keywords(String keywords) {
+        TreeSet<String> set = new TreeSet<>();
+        Arrays.stream(keywords.split(",")).map(String::strip).filter(k -> !k.isEmpty()).forEach(set::add);
+        alwaysMatch.forEach(k -> set.add(k.strip().toLowerCase(Locale.ROOT)));
+        return set;
     }
 }
@@ -0,0 +1,49 @@
+package com.artc.agentic_ai_platform.tools;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Objects;
+import java.util.zip.CRC32;
+
+/**
+ * Is this still the file we scanned? Shared by the scan state and the index of a log file: the same inode,
+ * at least as long as before, and the same first bytes (a file truncated and rewritten keeps its inode).
+ */
+final class LogFiles {
+
+    static final int HEAD_BYTES = 4096;
+
+    private LogFiles() {}
+
+    // Inode (or platform equivalent), null if the file system has none
+    static String fileKey(Path file) throws IOException {
+        return Objects.toString(Files.readAttributes(file, BasicFileAttributes.class).fileKey(), null);
+    }
+
+    // CRC32 of the first 'length' bytes
+    static long headHash(FileChannel channel, int length) throws IOException {
+        ByteBuffer head = ByteBuffer.allocate(length);
+        while (head.hasRemaining() && channel.read(head, head.position()) > 0) { /* fill */ }
+        head.flip();
+        CRC32 crc = new CRC32();
+        crc.update(head);
+        return crc.getValue();
+    }
+
+    // Whether the file seen as (fileKey, size) still starts with the 'seenSize' bytes seen before
+    static boolean sameFile(FileChannel channel, String fileKey, long size,
+                            String seenKey, long seenSize, int headLength, long headHash) {
+        try {
+            return Objects.equals(seenKey, fileKey)
+                    && seenSize <= size
+                    && headLength <= size
+                    && headHash(channel, headLength) == headHash;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
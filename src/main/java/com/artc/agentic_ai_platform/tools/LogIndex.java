@@ -0,0 +1,362 @@
+package com.artc.agentic_ai_platform.tools;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Inverted index of a log file, stored next to it as "FILE.idx": which lines contain each token, and where
+ * in the file each time of day starts. Built by LogIndexer; covers the file up to its last complete line
+ * when it was built.
+ *
+ * Tokens are runs of ASCII letters, digits, '_' and non-ASCII bytes, lower-cased. A keyword made only of
+ * such bytes can only occur inside a token, so the lines holding a token that contains the keyword are
+ * all the candidate lines. Each candidate is then checked with the same matcher as a full scan, which
+ * keeps the answer identical: the first 'limit' relevant lines, in file order.
+ *
+ * Layout: header (file identity), one segment per line-aligned chunk of the log (dictionary: token, line
+ * count, postings position; then the postings: delta + varint encoded line starts), footer (time index,
+ * segment positions), trailer (footer position, magic). The time index holds the timestamp of the first
+ * dated line every TIME_STEP bytes; it narrows time-window queries when the log's timestamps never go back.
+ */
+final class LogIndex {
+
+    static final String SUFFIX = ".idx";
+    static final int TIME_STEP = 64 * 1024;
+
+    private static final int MAGIC = 0x4C494458; // "LIDX"
+    private static final int VERSION = 1;
+
+    private final ByteBuffer index; // The mapped index file
+    private final String fileKey;
+    private final long size;        // Bytes of the log covered, ends just after a '\n'
+    private final int headLength;
+    private final long headHash;
+    private final boolean ordered;  // Timestamps never go back, so 'times' can narrow a time window
+    private final long[] times;
+    private final long[] timeOffsets;
+    private final List<Segment> segments;
+
+    // A chunk [from, to) of the log; token i is index bytes [tokenPos[i], tokenPos[i] + tokenLen[i])
+    private record Segment(long from, long to, int[] tokenPos, int[] tokenLen, int[] lines, int[] postingsPos) {}
+
+    private LogIndex(ByteBuffer index) {
+        this.index = index;
+        ByteBuffer in = index.duplicate();
+        if (in.getInt() != MAGIC || in.getInt() != VERSION) throw new IllegalArgumentException("Not a log index");
+        this.fileKey = readString(in);
+        this.size = in.getLong();
+        this.headLength = in.getInt();
+        this.headHash = in.getLong();
+
+        if (in.getInt(in.limit() - 4) != MAGIC) throw new IllegalArgumentException("Incomplete log index");
+        in.position(in.getInt(in.limit() - 8));
+        this.ordered = in.get() != 0;
+        int timeCount = in.getInt();
+        this.times = new long[timeCount];
+        this.timeOffsets = new long[timeCount];
+        for (int i = 0; i < timeCount; i++) {
+            times[i] = in.getLong();
+            timeOffsets[i] = in.getLong();
+        }
+        int[] segmentPos = new int[in.getInt()];
+        for (int i = 0; i < segmentPos.length; i++) segmentPos[i] = in.getInt();
+
+        this.segments = new ArrayList<>(segmentPos.length);
+        for (int pos : segmentPos) segments.add(readSegment(in.position(pos)));
+    }
+
+    private static Segment readSegment(ByteBuffer in) {
+        long from = in.getLong();
+        long to = in.getLong();
+        int tokens = in.getInt();
+        int[] tokenPos = new int[tokens], tokenLen = new int[tokens], lines = new int[tokens], postingsPos = new int[tokens];
+        for (int i = 0; i < tokens; i++) {
+            tokenLen[i] = in.getInt();
+            tokenPos[i] = in.position();
+            in.position(in.position() + tokenLen[i]);
+            lines[i] = in.getInt();
+            postingsPos[i] = in.getInt();
+        }
+        int postingsStart = in.position() + 4; // After the postings length
+        for (int i = 0; i < tokens; i++) postingsPos[i] += postingsStart;
+        return new Segment(from, to, tokenPos, tokenLen, lines, postingsPos);
+    }
+
+    static Path sidecar(Path log) {
+        return log.resolveSibling(log.getFileName() + SUFFIX);
+    }
+
+    static LogIndex load(Path sidecar) throws IOException {
+        try (FileChannel channel = FileChannel.open(sidecar, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) throw new IOException("Log index too large: " + sidecar);
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new LogIndex(mapped);
+        } catch (RuntimeException e) { // Truncated or foreign file
+            throw new IOException("Unreadable log index " + sidecar + ": " + e.getMessage(), e);
+        }
+    }
+
+    long size() {
+        return size;
+    }
+
+    // Whether the log (now 'currentSize' bytes, inode 'currentKey') still starts with the bytes indexed
+    boolean covers(FileChannel log, String currentKey, long currentSize) {
+        return LogFiles.sameFile(log, currentKey, currentSize, fileKey, size, headLength, headHash);
+    }
+
+    // Whether every keyword is made of token bytes only, so that the token dictionary finds all its lines
+    static boolean canAnswer(Collection<String> keywords) {
+        for (String keyword : keywords) {
+            byte[] bytes = keyword.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length == 0) return false;
+            for (byte b : bytes) {
+                if (!isTokenByte(b)) return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isTokenByte(byte b) {
+        return (b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z') || (b >= '0' && b <= '9') || b == '_' || b < 0;
+    }
+
+    // First 'limit' lines of the indexed part that match 'matcher' and 'window' (null = any time), in file order
+    List<String> query(FileChannel log, KeywordMatcher matcher, TimeWindow window, int limit) throws IOException {
+        long lo = 0, hi = size;
+        if (window != null && ordered) {
+            int before = lastTimeBefore(window.from());
+            int after = firstTimeAfter(window.to());
+            if (before >= 0) lo = timeOffsets[before];
+            if (after < times.length) hi = timeOffsets[after];
+        }
+        LineMatcher relevant = window == null ? matcher : window.and(matcher);
+
+        List<String> lines = new ArrayList<>();
+        for (Segment segment : segments) {
+            if (lines.size() >= limit || segment.from() >= hi) break;
+            if (segment.to() <= lo) continue;
+            int[] candidates = candidates(segment, matcher);
+            if (candidates.length == 0) continue;
+
+            MappedByteBuffer text = log.map(FileChannel.MapMode.READ_ONLY, segment.from(), segment.to() - segment.from());
+            for (int start : candidates) {
+                long offset = segment.from() + start;
+                if (offset < lo) continue;
+                if (offset >= hi || lines.size() >= limit) break;
+                int end = start;
+                while (end < text.limit() && text.get(end) != '\n') end++;
+                if (end > start && text.get(end - 1) == '\r') end--;
+                if (end > start && relevant.matches(text, start, end)) {
+                    byte[] line = new byte[end - start];
+                    text.get(start, line);
+                    lines.add(new String(line, StandardCharsets.UTF_8));
+                }
+            }
+        }
+        return lines;
+    }
+
+    // Sorted, distinct starts (relative to the segment) of the lines holding a token that contains a keyword
+    private int[] candidates(Segment segment, KeywordMatcher matcher) {
+        int[] starts = new int[16];
+        int n = 0;
+        for (int t = 0; t < segment.tokenPos().length; t++) {
+            int pos = segment.tokenPos()[t];
+            if (!matcher.matches(index, pos, pos + segment.tokenLen()[t])) continue;
+            if (n + segment.lines()[t] > starts.length) starts = Arrays.copyOf(starts, Math.max(starts.length * 2, n + segment.lines()[t]));
+            int at = segment.postingsPos()[t];
+            int start = 0;
+            for (int i = 0; i < segment.lines()[t]; i++) {
+                int delta = 0;
+                for (int shift = 0; ; shift += 7) {
+                    byte b = index.get(at++);
+                    delta |= (b & 0x7F) << shift;
+                    if (b >= 0) break;
+                }
+                start += delta;
+                starts[n++] = start;
+            }
+        }
+        Arrays.sort(starts, 0, n);
+        int distinct = 0;
+        for (int i = 0; i < n; i++) {
+            if (distinct == 0 || starts[i] != starts[distinct - 1]) starts[distinct++] = starts[i];
+        }
+        return Arrays.copyOf(starts, distinct);
+    }
+
+    private int lastTimeBefore(long time) {
+        int lo = 0, hi = times.length; // First index with times[i] >= time
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (times[mid] < time) lo = mid + 1; else hi = mid;
+        }
+        return lo - 1;
+    }
+
+    private int firstTimeAfter(long time) {
+        int lo = 0, hi = times.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (times[mid] <= time) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    // Writes the index of 'log' to its sidecar file (atomically replacing an older one), one segment per ~segmentBytes
+    static void build(Path log, long segmentBytes) throws IOException {
+        Path sidecar = sidecar(log);
+        Path tmp = sidecar.resolveSibling(sidecar.getFileName() + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(log, StandardOpenOption.READ);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 64 * 1024))) {
+                long size = MappedLogScanner.lastLineEnd(channel, 0, channel.size());
+                int headLength = (int) Math.min(LogFiles.HEAD_BYTES, size);
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                writeString(out, LogFiles.fileKey(log));
+                out.writeLong(size);
+                out.writeInt(headLength);
+                out.writeLong(LogFiles.headHash(channel, headLength));
+
+                Builder builder = new Builder();
+                List<Integer> segmentPos = new ArrayList<>();
+                for (long[] range : new MappedLogScanner(segmentBytes, Runnable::run).chunks(channel, 0, size)) {
+                    segmentPos.add(out.size());
+                    builder.writeSegment(out, channel.map(FileChannel.MapMode.READ_ONLY, range[0], range[1] - range[0]), range[0]);
+                    if (out.size() == Integer.MAX_VALUE) throw new IOException("Log index would exceed 2 GB: " + log);
+                }
+
+                int footerPos = out.size();
+                out.writeBoolean(builder.ordered);
+                out.writeInt(builder.times.size() / 2);
+                for (long value : builder.times) out.writeLong(value);
+                out.writeInt(segmentPos.size());
+                for (int pos : segmentPos) out.writeInt(pos);
+                out.writeInt(footerPos);
+                out.writeInt(MAGIC);
+            }
+            Files.move(tmp, sidecar, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    // One pass over the log, segment by segment; only the current segment's postings are held in memory
+    private static final class Builder {
+        private final List<Long> times = new ArrayList<>(); // timestamp, offset, timestamp, offset...
+        private boolean ordered = true;
+        private long lastTime = Long.MIN_VALUE;
+        private long nextTimeMark = 0;
+
+        void writeSegment(DataOutputStream out, ByteBuffer text, long from) throws IOException {
+            Map<String, int[]> postings = new HashMap<>(); // Token (Latin-1, so one char per byte) -> [count, last start, starts...]
+            byte[] token = new byte[256];
+            int end = text.limit();
+            int lineStart = 0;
+            while (lineStart < end) {
+                int lineEnd = lineStart;
+                while (lineEnd < end && text.get(lineEnd) != '\n') lineEnd++;
+
+                int tokenLen = 0;
+                for (int i = lineStart; i <= lineEnd; i++) {
+                    byte b = i < lineEnd ? text.get(i) : (byte) '\n';
+                    if (isTokenByte(b)) {
+                        if (tokenLen == token.length) token = Arrays.copyOf(token, tokenLen * 2);
+                        token[tokenLen++] = b >= 'A' && b <= 'Z' ? (byte) (b + ('a' - 'A')) : b;
+                    } else if (tokenLen > 0) {
+                        add(postings, new String(token, 0, tokenLen, StandardCharsets.ISO_8859_1), lineStart);
+                        tokenLen = 0;
+                    }
+                }
+
+                long time = TimeWindow.timestamp(text, lineStart, lineEnd);
+                if (time != TimeWindow.NONE) {
+                    if (time < lastTime) ordered = false;
+                    lastTime = time;
+                    if (from + lineStart >= nextTimeMark) {
+                        times.add(time);
+                        times.add(from + lineStart);
+                        nextTimeMark = from + lineStart + TIME_STEP;
+                    }
+                }
+                lineStart = lineEnd + 1;
+            }
+
+            ByteArrayOutputStream blob = new ByteArrayOutputStream();
+            out.writeLong(from);
+            out.writeLong(from + end);
+            out.writeInt(postings.size());
+            for (Map.Entry<String, int[]> entry : new TreeMap<>(postings).entrySet()) {
+                int[] starts = entry.getValue();
+                byte[] bytes = entry.getKey().getBytes(StandardCharsets.ISO_8859_1);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+                out.writeInt(starts[0]);
+                out.writeInt(blob.size());
+                int previous = 0;
+                for (int i = 2; i < starts[0] + 2; i++) {
+                    writeVarint(blob, starts[i] - previous);
+                    previous = starts[i];
+                }
+            }
+            out.writeInt(blob.size());
+            blob.writeTo(out);
+        }
+
+        private static void add(Map<String, int[]> postings, String token, int lineStart) {
+            int[] starts = postings.get(token);
+            if (starts == null) {
+                postings.put(token, new int[]{1, lineStart, lineStart, 0});
+                return;
+            }
+            if (starts[1] == lineStart) return; // Token seen earlier on this line
+            if (starts[0] + 2 == starts.length) {
+                starts = Arrays.copyOf(starts, starts.length * 2);
+                postings.put(token, starts);
+            }
+            starts[starts[0] + 2] = lineStart;
+            starts[0]++;
+            starts[1] = lineStart;
+        }
+
+        private static void writeVarint(ByteArrayOutputStream out, int value) {
+            while ((value & ~0x7F) != 0) {
+                out.write((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.write(value);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    // Empty reads back as null, like a file system without file keys
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return bytes.length == 0 ? null : new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,91 @@
+package com.artc.agentic_ai_platform.tools;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps a LogIndex next to every large log file the tool is asked about. Indexes are built in the
+ * background (logIndexExecutor), one file at a time; until one is ready, the file is scanned as usual.
+ *
+ * A file is re-indexed when it was rotated or rewritten, or when more than one segment was appended since
+ * the last build (the appended part is scanned meanwhile). A file that can't be indexed (read-only
+ * directory, I/O error) is not tried again for a while.
+ */
+@Slf4j
+final class LogIndexer {
+
+    private static final int LOADED_INDEXES = 64;
+    private static final Duration RETRY_AFTER_FAILURE = Duration.ofMinutes(10);
+
+    private final long segmentBytes;
+    private final long minFileBytes;
+    private final Executor executor;
+    private final Cache<Path, LogIndex> loaded = Caffeine.newBuilder().maximumSize(LOADED_INDEXES).build();
+    private final Cache<Path, Boolean> failed = Caffeine.newBuilder().expireAfterWrite(RETRY_AFTER_FAILURE).build();
+    private final Set<Path> building = ConcurrentHashMap.newKeySet();
+
+    LogIndexer(long segmentBytes, long minFileBytes, Executor executor) {
+        this.segmentBytes = segmentBytes;
+        this.minFileBytes = minFileBytes;
+        this.executor = executor;
+    }
+
+    // The index of 'file' if it still describes the file's first bytes; (re)builds it in the background if needed
+    Optional<LogIndex> indexFor(Path file, FileChannel channel, long size) throws IOException {
+        if (size < minFileBytes) return Optional.empty();
+        LogIndex index = loaded.getIfPresent(file);
+        if (index == null) index = load(file);
+        if (index != null && !index.covers(channel, LogFiles.fileKey(file), size)) index = null;
+        if (index == null || size - index.size() > segmentBytes) schedule(file);
+        return Optional.ofNullable(index);
+    }
+
+    private LogIndex load(Path file) {
+        Path sidecar = LogIndex.sidecar(file);
+        if (!Files.isRegularFile(sidecar)) return null;
+        try {
+            LogIndex index = LogIndex.load(sidecar);
+            loaded.put(file, index); // Kept even if stale: covers() is cheap, loading is not
+            return index;
+        } catch (IOException e) {
+            log.warn("[TOOL] Ignoring log index {}: {}", sidecar, e.getMessage());
+            return null;
+        }
+    }
+
+    private void schedule(Path file) {
+        if (failed.getIfPresent(file) != null || !building.add(file)) return;
+        try {
+            executor.execute(() -> build(file));
+        } catch (RejectedExecutionException e) {
+            building.remove(file); // Shutting down, or the pool is saturated: asked again on the next query
+        }
+    }
+
+    private void build(Path file) {
+        long start = System.nanoTime();
+        try {
+            LogIndex.build(file, segmentBytes);
+            loaded.invalidate(file);
+            log.info("[TOOL] Indexed {} in {} ms", file, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (IOException | RuntimeException e) {
+            failed.put(file, true);
+            log.warn("[TOOL] Could not index {}: {}", file, e.getMessage());
+        } finally {
+            building.remove(file);
+        }
+    }
+}
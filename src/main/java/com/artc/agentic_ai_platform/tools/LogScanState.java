@@ -0,0 +1,24 @@
+package com.artc.agentic_ai_platform.tools;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * What an incremental scan knows about one log file and keyword set (see IncrementalLogScanner).
+ * Stored in IStorageBackend, so every instance picks up where the last scan stopped.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LogScanState {
+    private String fileKey;      // Inode (or platform equivalent); a new one means the file was rotated
+    private long offset;         // Bytes scanned so far, always just after a '\n'
+    private int headLength;      // First bytes of the file covered by headHash
+    private long headHash;       // CRC32 of those bytes; a different head means the file was truncated and rewritten
+    private long matchedLines;   // Relevant lines in [0, offset)
+    private List<String> recent = new ArrayList<>(); // The latest relevant lines, oldest first
+}
@@ -0,0 +1,241 @@
+package com.artc.agentic_ai_platform.tools;
+
+import com.artc.agentic_ai_platform.executor.InterruptibleTask;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.function.Predicate;
+
+/**
+ * Parallel scan of a log file: the file is split into line-aligned chunks, each chunk is memory-mapped
+ * and scanned on its own thread, and matching lines come back in file order. Lines are tested on the
+ * mapped bytes; only matching lines are decoded into Strings.
+ *
+ * Returns the first 'limit' matching lines of the file, like lines().filter().limit(): every chunk stops
+ * after 'limit' matches, and chunks that can no longer contribute are cancelled.
+ * scanTail() is the other direction, for a byte range of the file: the last 'limit' matches and the match count.
+ */
+final class MappedLogScanner {
+
+    private static final int BOUNDARY_PROBE = 8 * 1024; // Read size when looking for the line end after a chunk boundary
+    private static final int INTERRUPT_CHECK_LINES = 4096;
+
+    private final long chunkBytes;
+    private final Executor executor;
+
+    MappedLogScanner(long chunkBytes, Executor executor) {
+        this.chunkBytes = Math.max(1, chunkBytes);
+        this.executor = executor;
+    }
+
+    List<String> scan(Path file, LineMatcher matcher, int limit) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return scan(channel, 0, channel.size(), matcher, limit);
+        }
+    }
+
+    // Same, for [from, to) of an open file; 'from' must be at the start of a line
+    List<String> scan(FileChannel channel, long from, long to, LineMatcher matcher, int limit) throws IOException {
+        List<long[]> chunks = chunks(channel, from, to);
+        if (chunks.isEmpty()) return new ArrayList<>();
+        if (chunks.size() == 1) return scanChunk(channel, chunks.get(0), matcher, limit); // Not worth a thread hop
+
+        // Mappings stay valid after the channel is closed, but every chunk is mapped before we return
+        List<CompletableFuture<List<String>>> scans = chunks.stream()
+                .map(range -> InterruptibleTask.supplyAsync(() -> scanChunkUnchecked(channel, range, matcher, limit), executor))
+                .toList();
+        return collect(scans, limit);
+    }
+
+    // Last matching lines in [from, to) (a line-aligned range) and how many lines matched in it
+    record Tail(List<String> lines, long matched) {}
+
+    Tail scanTail(FileChannel channel, long from, long to, LineMatcher matcher, int limit) throws IOException {
+        List<long[]> chunks = chunks(channel, from, to);
+        if (chunks.size() <= 1) return chunks.isEmpty() ? new Tail(List.of(), 0) : tailChunk(channel, chunks.get(0), matcher, limit);
+
+        List<CompletableFuture<Tail>> scans = chunks.stream()
+                .map(range -> InterruptibleTask.supplyAsync(() -> tailChunkUnchecked(channel, range, matcher, limit), executor))
+                .toList();
+        Deque<String> lines = new ArrayDeque<>();
+        long matched = 0;
+        try {
+            for (CompletableFuture<Tail> scan : scans) {
+                Tail tail = scan.get();
+                matched += tail.matched();
+                for (String line : tail.lines()) keepLast(lines, line, limit);
+            }
+            return new Tail(List.copyOf(lines), matched);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while scanning log chunks", e);
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } finally {
+            scans.forEach(scan -> scan.cancel(true));
+        }
+    }
+
+    // Chunk results in file order until 'limit' lines are in; later chunks are cancelled
+    private static List<String> collect(List<CompletableFuture<List<String>>> scans, int limit) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try {
+            for (CompletableFuture<List<String>> scan : scans) {
+                if (lines.size() >= limit) break;
+                List<String> found = scan.get();
+                lines.addAll(found.subList(0, Math.min(found.size(), limit - lines.size())));
+            }
+            return lines;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while scanning log chunks", e);
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } finally {
+            scans.forEach(scan -> scan.cancel(true)); // No-op for the finished ones
+        }
+    }
+
+    private static IOException unwrap(ExecutionException e) {
+        if (e.getCause() instanceof UncheckedIOException io) return io.getCause();
+        if (e.getCause() instanceof RuntimeException re) throw re;
+        throw new IllegalStateException("Log chunk scan failed", e.getCause());
+    }
+
+    // [start, end) ranges of about chunkBytes, each ending just after a '\n' (or at 'to')
+    List<long[]> chunks(FileChannel channel, long from, long to) throws IOException {
+        List<long[]> chunks = new ArrayList<>();
+        long start = from;
+        while (start < to) {
+            long end = start + chunkBytes >= to ? to : lineEnd(channel, start + chunkBytes - 1, to);
+            chunks.add(new long[]{start, end});
+            start = end;
+        }
+        return chunks;
+    }
+
+    // Position just after the first '\n' at or after 'pos'
+    private static long lineEnd(FileChannel channel, long pos, long to) throws IOException {
+        ByteBuffer probe = ByteBuffer.allocate(BOUNDARY_PROBE);
+        while (pos < to) {
+            probe.clear();
+            int n = channel.read(probe, pos);
+            if (n <= 0) break;
+            for (int i = 0; i < n && pos + i < to; i++) {
+                if (probe.get(i) == '\n') return pos + i + 1;
+            }
+            pos += n;
+        }
+        return to;
+    }
+
+    // Position just after the last '\n' in [from, to), or 'from' if there is none (the writer is mid-line)
+    static long lastLineEnd(FileChannel channel, long from, long to) throws IOException {
+        ByteBuffer probe = ByteBuffer.allocate(BOUNDARY_PROBE);
+        long end = to;
+        while (end > from) {
+            long start = Math.max(from, end - BOUNDARY_PROBE);
+            probe.clear().limit((int) (end - start));
+            int n = 0;
+            while (probe.hasRemaining()) {
+                int read = channel.read(probe, start + n);
+                if (read <= 0) break;
+                n += read;
+            }
+            for (int i = n - 1; i >= 0; i--) {
+                if (probe.get(i) == '\n') return start + i + 1;
+            }
+            end = start;
+        }
+        return from;
+    }
+
+    private static List<String> scanChunkUnchecked(FileChannel channel, long[] range, LineMatcher matcher, int limit) {
+        try {
+            return scanChunk(channel, range, matcher, limit);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Tail tailChunkUnchecked(FileChannel channel, long[] range, LineMatcher matcher, int limit) {
+        try {
+            return tailChunk(channel, range, matcher, limit);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static List<String> scanChunk(FileChannel channel, long[] range, LineMatcher matcher, int limit) throws IOException {
+        MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, range[0], range[1] - range[0]);
+        return scanBuffer(buf, matcher, limit);
+    }
+
+    static Tail tailChunk(FileChannel channel, long[] range, LineMatcher matcher, int limit) throws IOException {
+        MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, range[0], range[1] - range[0]);
+        return tailBuffer(buf, matcher, limit);
+    }
+
+    // Matching lines of 'buf', in order, at most 'limit'
+    static List<String> scanBuffer(ByteBuffer buf, LineMatcher matcher, int limit) {
+        List<String> lines = new ArrayList<>();
+        if (limit <= 0) return lines;
+        matchingLines(buf, matcher, line -> {
+            lines.add(line);
+            return lines.size() < limit;
+        });
+        return lines;
+    }
+
+    // Last 'limit' matching lines of 'buf', in order, and how many lines matched
+    static Tail tailBuffer(ByteBuffer buf, LineMatcher matcher, int limit) {
+        Deque<String> lines = new ArrayDeque<>();
+        long[] matched = {0};
+        matchingLines(buf, matcher, line -> {
+            matched[0]++;
+            keepLast(lines, line, limit);
+            return true;
+        });
+        return new Tail(List.copyOf(lines), matched[0]);
+    }
+
+    private static void keepLast(Deque<String> lines, String line, int limit) {
+        if (limit <= 0) return;
+        if (lines.size() == limit) lines.removeFirst();
+        lines.addLast(line);
+    }
+
+    // Feeds each matching line of 'buf' to 'sink' until it returns false. A trailing '\r' is not part of the line.
+    private static void matchingLines(ByteBuffer buf, LineMatcher matcher, Predicate<String> sink) {
+        int end = buf.limit();
+        int lineStart = 0;
+        int scanned = 0;
+        while (lineStart < end) {
+            int lineEnd = lineStart;
+            while (lineEnd < end && buf.get(lineEnd) != '\n') lineEnd++;
+            int contentEnd = lineEnd > lineStart && buf.get(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd;
+
+            if (contentEnd > lineStart && matcher.matches(buf, lineStart, contentEnd)) {
+                byte[] line = new byte[contentEnd - lineStart];
+                buf.get(lineStart, line);
+                if (!sink.test(new String(line, StandardCharsets.UTF_8))) return;
+            }
+            lineStart = lineEnd + 1;
+
+            if (++scanned % INTERRUPT_CHECK_LINES == 0 && Thread.currentThread().isInterrupted()) return; // Cancelled
+        }
+    }
+}
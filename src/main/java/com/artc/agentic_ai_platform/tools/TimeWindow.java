@@ -0,0 +1,85 @@
+package com.artc.agentic_ai_platform.tools;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+
+/**
+ * Inclusive time range of log lines, from the tool input "FILE|KEYWORDS|FROM..TO" (either end may be left out).
+ *
+ * A line's time is the timestamp it starts with, optionally in brackets: "10:00:05", "[10:00:05]",
+ * "2024-05-01 10:00:05" or "2024-05-01T10:00:05". Times are compared as seconds (of the day, or since the
+ * epoch when there is a date), so both ends of the window should use the log's own format. Lines without
+ * a timestamp are never in a window.
+ */
+record TimeWindow(long from, long to) {
+
+    static final long NONE = Long.MIN_VALUE;
+
+    // null if 'spec' is blank
+    static TimeWindow parse(String spec) {
+        if (spec == null || spec.isBlank()) return null;
+        int dots = spec.indexOf("..");
+        if (dots < 0) throw new IllegalArgumentException("Time window must look like FROM..TO: " + spec);
+        String from = spec.substring(0, dots).strip();
+        String to = spec.substring(dots + 2).strip();
+        return new TimeWindow(from.isEmpty() ? Long.MIN_VALUE + 1 : required(from), to.isEmpty() ? Long.MAX_VALUE : required(to));
+    }
+
+    private static long required(String time) {
+        byte[] bytes = time.getBytes(StandardCharsets.UTF_8);
+        long t = timestamp(ByteBuffer.wrap(bytes), 0, bytes.length);
+        if (t == NONE) throw new IllegalArgumentException("Not a log timestamp: " + time);
+        return t;
+    }
+
+    boolean contains(ByteBuffer buf, int start, int end) {
+        long t = timestamp(buf, start, end);
+        return t != NONE && t >= from && t <= to;
+    }
+
+    boolean contains(String line) {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        return contains(ByteBuffer.wrap(bytes), 0, bytes.length);
+    }
+
+    // Lines that match 'matcher' and fall in this window
+    LineMatcher and(LineMatcher matcher) {
+        return (buf, start, end) -> matcher.matches(buf, start, end) && contains(buf, start, end);
+    }
+
+    // Time of the line in bytes [start, end), or NONE
+    static long timestamp(ByteBuffer buf, int start, int end) {
+        int i = start < end && buf.get(start) == '[' ? start + 1 : start;
+        long days = 0;
+        boolean dated = false;
+        if (i + 10 < end && buf.get(i + 4) == '-' && buf.get(i + 7) == '-' && (buf.get(i + 10) == 'T' || buf.get(i + 10) == ' ')) {
+            int year = digits(buf, i, 4), month = digits(buf, i + 5, 2), day = digits(buf, i + 8, 2);
+            if (year < 0 || month < 0 || day < 0) return NONE;
+            try {
+                days = LocalDate.of(year, month, day).toEpochDay();
+            } catch (DateTimeException e) {
+                return NONE;
+            }
+            dated = true;
+            i += 11;
+        }
+        if (i + 8 > end || buf.get(i + 2) != ':' || buf.get(i + 5) != ':') return NONE;
+        int h = digits(buf, i, 2), m = digits(buf, i + 3, 2), s = digits(buf, i + 6, 2);
+        if (h < 0 || h > 23 || m < 0 || m > 59 || s < 0 || s > 59) return NONE;
+        long secondOfDay = h * 3600L + m * 60L + s;
+        return dated ? days * 86400 + secondOfDay : secondOfDay;
+    }
+
+    // Decimal value of 'count' digits at 'pos', -1 if one of them isn't a digit
+    private static int digits(ByteBuffer buf, int pos, int count) {
+        int value = 0;
+        for (int i = pos; i < pos + count; i++) {
+            byte b = buf.get(i);
+            if (b < '0' || b > '9') return -1;
+            value = value * 10 + (b - '0');
+        }
+        return value;
+    }
+}
@@ -2,19 +2,31 @@ package com.artc.agentic_ai_platform.agents;
 
 import com.artc.agentic_ai_platform.config.AppConfig;
 import com.artc.agentic_ai_platform.constants.AppConstants;
+import com.artc.agentic_ai_platform.core.IAgentTool;
 import com.artc.agentic_ai_platform.core.IStorageBackend;
+import com.artc.agentic_ai_platform.core.exception.RetryableException;
+import com.artc.agentic_ai_platform.core.ITaskQueue;
 import com.artc.agentic_ai_platform.core.llm.ILlmService;
 import com.artc.agentic_ai_platform.model.AgentType;
 import com.artc.agentic_ai_platform.model.Task;
 import com.artc.agentic_ai_platform.model.WorkflowStatus;
+import com.artc.agentic_ai_platform.storage.RamStorage;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Answers;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.MDC;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -24,6 +36,7 @@ class PlannerAgentTest {
 
     @Mock private ILlmService llmService;
     @Mock private IStorageBackend storage;
+    @Mock private ITaskQueue queue;
 
     // Mocks the config chain: appConfig.getAgents().getPlanner().isEnabled()
     @Mock(answer = Answers.RETURNS_DEEP_STUBS)
@@ -34,7 +47,37 @@ class PlannerAgentTest {
     @BeforeEach
     void setup() {
         // Use real ObjectMapper to test actual JSON parsing logic
-        plannerAgent = new PlannerAgent(llmService, new ObjectMapper(), storage, appConfig);
+        plannerAgent = new PlannerAgent(llmService, new ObjectMapper(), storage, queue, appConfig, List.of(), new SimpleMeterRegistry());
+    }
+
+    private PlannerAgent plannerWithCache(IStorageBackend backend, List<IAgentTool> tools) {
+        AppConfig config = new AppConfig();
+        config.getAgents().getPlanner().getPlanCache().setEnabled(true);
+        config.getAgents().getPlanner().getPlanCache().setShared(true);
+        return new PlannerAgent(llmService, new ObjectMapper(), backend, queue, config, tools, new SimpleMeterRegistry());
+    }
+
+    private PlannerAgent streamingPlanner() {
+        AppConfig config = new AppConfig();
+        config.getAgents().getPlanner().setStreaming(true);
+        return new PlannerAgent(llmService, new ObjectMapper(), storage, queue, config, List.of(), new SimpleMeterRegistry());
+    }
+
+    // Captures the chunk callback so the test decides when each piece of the plan "arrives"
+    @SuppressWarnings("unchecked")
+    private Consumer<String>[] stubStream(CompletableFuture<String> llmCall) {
+        Consumer<String>[] onChunk = new Consumer[1];
+        when(llmService.generateStream(anyString(), anyString(), any())).thenAnswer(inv -> {
+            onChunk[0] = inv.getArgument(2);
+            return llmCall;
+        });
+        return onChunk;
+    }
+
+    private static IAgentTool tool(String name) {
+        IAgentTool tool = mock(IAgentTool.class);
+        when(tool.getName()).thenReturn(name);
+        return tool;
     }
 
     @Test
@@ -81,4 +124,224 @@ class PlannerAgentTest {
         verify(storage).save(eq(String.format(AppConstants.KEY_STATUS,wfId)), eq(WorkflowStatus.PLANNING.name()));
         verify(storage).save(eq(String.format(AppConstants.KEY_STATUS,wfId)), eq(WorkflowStatus.IN_PROGRESS.name()));
     }
-}
\ No newline at end of file
+
+    @Test
+    void processAsync_ShouldBuildPlan_WhenLlmFutureCompletes() {
+        // --- ARRANGE ---
+        Task inputTask = Task.builder().workflowId("wf-async").userRequest("Machine overheat").build();
+        when(appConfig.getAgents().getPlanner().isEnabled()).thenReturn(true);
+
+        CompletableFuture<String> llmCall = new CompletableFuture<>();
+        when(llmService.generateAsync(anyString(), anyString())).thenReturn(llmCall);
+
+        // --- ACT ---
+        CompletableFuture<List<Task>> result = plannerAgent.processAsync(inputTask);
+
+        // --- ASSERT ---
+        assertFalse(result.isDone(), "Nothing should block while the LLM is working");
+        llmCall.complete("""
+                { "steps": [ { "tool": "LOG_ANALYZER", "inputs": ["a.log"] } ] }
+                """);
+        assertEquals("LOG_ANALYZER", result.join().get(0).getToolName());
+        verify(storage).save(String.format(AppConstants.KEY_MANIFEST, "wf-async"), "LOG_ANALYZER");
+        verify(llmService, never()).generate(anyString(), anyString());
+    }
+
+    @Test
+    void process_ShouldReusePlan_ForSameIncidentSignature() {
+        // --- ARRANGE ---
+        PlannerAgent planner = plannerWithCache(storage, List.of(tool("LOG_ANALYZER"), tool("ERP_FETCHER")));
+        when(llmService.generate(anyString(), anyString())).thenReturn("""
+                { "steps": [ { "tool": "LOG_ANALYZER", "inputs": ["a.log", "b.log"] } ] }
+                """);
+
+        // --- ACT ---
+        List<Task> first = planner.process(Task.builder().workflowId("wf-1").userRequest("Machine PRESS-01 overheat").build());
+        List<Task> second = planner.process(Task.builder().workflowId("wf-2").userRequest("  machine press-01   OVERHEAT ").build());
+        planner.process(Task.builder().workflowId("wf-3").userRequest("Conveyor jam").build());
+
+        // --- ASSERT ---
+        verify(llmService, times(2)).generate(anyString(), anyString()); // wf-2 was served from the cache
+        assertEquals(1, second.size());
+        assertEquals("wf-2", second.get(0).getWorkflowId());
+        assertEquals(List.of("a.log", "b.log"), second.get(0).getToolArguments());
+        assertNotEquals(first.get(0).getTaskId(), second.get(0).getTaskId());
+        verify(storage).save(String.format(AppConstants.KEY_MANIFEST, "wf-2"), "LOG_ANALYZER");
+    }
+
+    @Test
+    void process_ShouldNotCacheUnparsablePlans() {
+        // --- ARRANGE ---
+        PlannerAgent planner = plannerWithCache(storage, List.of(tool("LOG_ANALYZER")));
+        when(llmService.generate(anyString(), anyString())).thenReturn("not json");
+
+        // --- ACT ---
+        planner.process(Task.builder().workflowId("wf-1").userRequest("Overheat").build());
+        List<Task> retry = planner.process(Task.builder().workflowId("wf-2").userRequest("Overheat").build());
+
+        // --- ASSERT ---
+        assertTrue(retry.isEmpty());
+        verify(llmService, times(2)).generate(anyString(), anyString());
+    }
+
+    @Test
+    void process_ShouldShareCachedPlans_OnlyBetweenNodesWithSameTools() {
+        // --- ARRANGE ---
+        RamStorage shared = new RamStorage(100);
+        when(llmService.generate(anyString(), anyString())).thenReturn("""
+                { "steps": [ { "tool": "LOG_ANALYZER", "inputs": ["a.log"] } ] }
+                """);
+        PlannerAgent nodeA = plannerWithCache(shared, List.of(tool("LOG_ANALYZER"), tool("ERP_FETCHER")));
+        PlannerAgent nodeB = plannerWithCache(shared, List.of(tool("ERP_FETCHER"), tool("LOG_ANALYZER")));
+        PlannerAgent upgraded = plannerWithCache(shared, List.of(tool("ERP_FETCHER"), tool("LOG_ANALYZER"), tool("VIBRATION_PROBE")));
+
+        // --- ACT ---
+        nodeA.process(Task.builder().workflowId("wf-1").userRequest("Overheat").build());
+        List<Task> fromB = nodeB.process(Task.builder().workflowId("wf-2").userRequest("Overheat").build());
+        upgraded.process(Task.builder().workflowId("wf-3").userRequest("Overheat").build());
+
+        // --- ASSERT ---
+        assertEquals("LOG_ANALYZER", fromB.get(0).getToolName());
+        assertEquals(List.of("a.log"), fromB.get(0).getToolArguments());
+        verify(llmService, times(2)).generate(anyString(), anyString()); // Node B hit; the new tool set re-planned
+    }
+
+    @Test
+    void processAsync_ShouldDispatchEachStep_BeforeTheStreamCompletes() {
+        // --- ARRANGE ---
+        PlannerAgent planner = streamingPlanner();
+        CompletableFuture<String> llmCall = new CompletableFuture<>();
+        Consumer<String>[] onChunk = stubStream(llmCall);
+        Task inputTask = Task.builder().workflowId("wf-stream").taskId("p-1").userRequest("Machine overheat").build();
+
+        // --- ACT ---
+        CompletableFuture<List<Task>> result = planner.processAsync(inputTask);
+        onChunk[0].accept("{ \"steps\": [ { \"tool\": \"LOG_ANA");
+        verify(queue, never()).push(any());
+        onChunk[0].accept("LYZER\", \"inputs\": [\"a.log\"] }, { \"tool\"");
+
+        // --- ASSERT ---
+        ArgumentCaptor<Task> pushed = ArgumentCaptor.forClass(Task.class);
+        verify(queue).push(pushed.capture()); // First step is out while the LLM is still writing
+        assertEquals("LOG_ANALYZER", pushed.getValue().getToolName());
+        assertEquals(List.of("a.log"), pushed.getValue().getToolArguments());
+        assertFalse(result.isDone());
+        verify(storage).save(String.format(AppConstants.KEY_MANIFEST, "wf-stream"), ReviewHandoff.MANIFEST_PENDING);
+
+        onChunk[0].accept(": \"ERP_FETCHER\" } ] }");
+        llmCall.complete("{ \"steps\": [ { \"tool\": \"LOG_ANALYZER\", \"inputs\": [\"a.log\"] }, { \"tool\": \"ERP_FETCHER\" } ] }");
+
+        assertTrue(result.join().isEmpty(), "Steps were queued directly; nothing left to return");
+        verify(queue, times(2)).push(any());
+        verify(storage).save(String.format(AppConstants.KEY_MANIFEST, "wf-stream"), "LOG_ANALYZER,ERP_FETCHER");
+        verify(llmService, never()).generateAsync(anyString(), anyString());
+    }
+
+    @Test
+    void processAsync_ShouldTriggerReviewer_WhenWorkersFinishedWhilePlanning() {
+        // --- ARRANGE ---
+        PlannerAgent planner = streamingPlanner();
+        CompletableFuture<String> llmCall = new CompletableFuture<>();
+        Consumer<String>[] onChunk = stubStream(llmCall);
+        String plan = "{ \"steps\": [ { \"tool\": \"LOG_ANALYZER\", \"inputs\": [\"a.log\"] } ] }";
+        when(storage.members(String.format(AppConstants.KEY_COMPLETED_TOOLS, "wf-fast"))).thenReturn(Set.of("LOG_ANALYZER"));
+        when(storage.saveIfAbsent(eq(String.format(AppConstants.KEY_REVIEW_HANDOFF, "wf-fast")), any(), anyLong())).thenReturn(Optional.empty());
+        when(storage.saveIfAbsent(eq(String.format(AppConstants.KEY_PLAN_STEP, "wf-fast", 1)), any(), anyLong())).thenReturn(Optional.empty());
+
+        // --- ACT ---
+        CompletableFuture<List<Task>> result = planner.processAsync(Task.builder().workflowId("wf-fast").taskId("p-1").userRequest("Overheat").build());
+        onChunk[0].accept(plan);
+        llmCall.complete(plan);
+
+        // --- ASSERT ---
+        List<Task> tasks = result.join();
+        assertEquals(1, tasks.size());
+        assertEquals(AgentType.REVIEWER, tasks.get(0).getTargetAgent());
+    }
+
+    @Test
+    void processAsync_ShouldNotRequeueSteps_ThatAnEarlierAttemptDispatched() {
+        // --- ARRANGE ---
+        PlannerAgent planner = streamingPlanner();
+        CompletableFuture<String> llmCall = new CompletableFuture<>();
+        Consumer<String>[] onChunk = stubStream(llmCall);
+        String plan = "{ \"steps\": [ { \"tool\": \"LOG_ANALYZER\" }, { \"tool\": \"ERP_FETCHER\" } ] }";
+        when(storage.saveIfAbsent(eq(String.format(AppConstants.KEY_PLAN_STEP, "wf-retry", 1)), any(), anyLong()))
+                .thenReturn(Optional.of("LOG_ANALYZER")); // Queued before the first attempt failed
+
+        // --- ACT ---
+        CompletableFuture<List<Task>> result = planner.processAsync(Task.builder().workflowId("wf-retry").taskId("p-1").userRequest("Overheat").build());
+        onChunk[0].accept(plan);
+        llmCall.complete(plan);
+        result.join();
+
+        // --- ASSERT ---
+        ArgumentCaptor<Task> pushed = ArgumentCaptor.forClass(Task.class);
+        verify(queue).push(pushed.capture());
+        assertEquals("ERP_FETCHER", pushed.getValue().getToolName());
+        assertEquals("wf-retry:step:2", pushed.getValue().getTaskId());
+        verify(storage).save(String.format(AppConstants.KEY_MANIFEST, "wf-retry"), "LOG_ANALYZER,ERP_FETCHER");
+    }
+
+    @Test
+    void processAsync_ShouldFailTask_WhenStreamBreaksOffMidPlan() {
+        // --- ARRANGE ---
+        PlannerAgent planner = streamingPlanner();
+        CompletableFuture<String> llmCall = new CompletableFuture<>();
+        Consumer<String>[] onChunk = stubStream(llmCall);
+        String firstStep = "{ \"steps\": [ { \"tool\": \"LOG_ANALYZER\" }, ";
+        String garbled = "{ \"tool\" ERP_FETCHER } ] }";
+
+        // --- ACT ---
+        CompletableFuture<List<Task>> result = planner.processAsync(Task.builder().workflowId("wf-broken").taskId("p-1").userRequest("Overheat").build());
+        onChunk[0].accept(firstStep);
+        onChunk[0].accept(garbled);
+        llmCall.complete(firstStep + garbled);
+
+        // --- ASSERT ---
+        CompletionException error = assertThrows(CompletionException.class, result::join);
+        assertInstanceOf(RetryableException.class, error.getCause());
+        verify(queue).push(any()); // Only the step that was complete
+        verify(storage, never()).save(String.format(AppConstants.KEY_MANIFEST, "wf-broken"), "LOG_ANALYZER");
+    }
+
+    @Test
+    void processAsync_ShouldLogStreamedStepsUnderTheWorkflowTraceId() {
+        // --- ARRANGE ---
+        PlannerAgent planner = streamingPlanner();
+        CompletableFuture<String> llmCall = new CompletableFuture<>();
+        Consumer<String>[] onChunk = stubStream(llmCall);
+        String[] traceId = new String[1];
+        doAnswer(inv -> traceId[0] = MDC.get("traceId")).when(queue).push(any());
+
+        MDC.put("traceId", "wf-mdc"); // As set by the engine around processAsync
+        planner.processAsync(Task.builder().workflowId("wf-mdc").taskId("p-1").userRequest("Overheat").build());
+        MDC.clear();
+
+        // --- ACT ---
+        onChunk[0].accept("{ \"steps\": [ { \"tool\": \"LOG_ANALYZER\" },"); // From the LLM client's thread
+
+        // --- ASSERT ---
+        assertEquals("wf-mdc", traceId[0]);
+        assertNull(MDC.get("traceId"));
+    }
+
+    @Test
+    void process_ShouldFallBackToFullResponse_WhenStreamIsNotPlainJson() {
+        // --- ARRANGE ---
+        PlannerAgent planner = streamingPlanner();
+        CompletableFuture<String> llmCall = new CompletableFuture<>();
+        Consumer<String>[] onChunk = stubStream(llmCall);
+        String response = "Here is the plan: { \"steps\": [ { \"tool\": \"LOG_ANALYZER\" } ] }";
+
+        // --- ACT ---
+        CompletableFuture<List<Task>> result = planner.processAsync(Task.builder().workflowId("wf-prose").userRequest("Overheat").build());
+        onChunk[0].accept(response);
+        llmCall.complete(response);
+
+        // --- ASSERT ---
+        assertTrue(result.join().isEmpty()); // Same outcome as the non-streaming parser: no steps
+        verify(queue, never()).push(any());
+        verify(storage).save(String.format(AppConstants.KEY_MANIFEST, "wf-prose"), "");
+    }
+}
@@ -3,6 +3,7 @@ package com.artc.agentic_ai_platform.agents;
 import com.artc.agentic_ai_platform.config.AppConfig;
 import com.artc.agentic_ai_platform.constants.AppConstants;
 import com.artc.agentic_ai_platform.core.IStorageBackend;
+import com.artc.agentic_ai_platform.core.exception.RetryableException;
 import com.artc.agentic_ai_platform.core.llm.MockLLMService;
 import com.artc.agentic_ai_platform.model.Task;
 import com.artc.agentic_ai_platform.model.WorkflowStatus;
@@ -14,8 +15,9 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -35,31 +37,45 @@ class ReviewerAgentTest {
     }
 
     @Test
-    void process_ShouldWait_WhenResultsMissing() {
+    void process_ShouldRetryLater_WhenResultsMissing() {
         // --- ARRANGE ---
         String wfId = "wf-wait";
         Task task = Task.builder().workflowId(wfId).build();
 
         when(appConfig.getAgents().getReviewer().isEnabled()).thenReturn(true);
-        // Status is valid (not done)
-        when(storage.get(eq(String.format(AppConstants.KEY_STATUS,wfId)), eq(String.class))).thenReturn(Optional.of("IN_PROGRESS"));
-
-        // Manifest expects 2 tools
-        when(storage.get(eq(String.format(AppConstants.KEY_MANIFEST,wfId)), eq(String.class)))
-                .thenReturn(Optional.of("TOOL_A,TOOL_B"));
+        // Status is valid (not done) & Manifest expects 2 tools
+        when(storage.multiGet(eq(List.of(String.format(AppConstants.KEY_STATUS,wfId), String.format(AppConstants.KEY_MANIFEST,wfId))), eq(String.class)))
+                .thenReturn(Map.of(String.format(AppConstants.KEY_STATUS,wfId), "IN_PROGRESS",
+                        String.format(AppConstants.KEY_MANIFEST,wfId), "TOOL_A,TOOL_B"));
+
+        // Only Tool A is done, Tool B is missing!
+        when(storage.multiGet(eq(List.of(String.format(AppConstants.KEY_TOOL_RESULT,wfId,"TOOL_A"), String.format(AppConstants.KEY_TOOL_RESULT,wfId,"TOOL_B"))), eq(String.class)))
+                .thenReturn(Map.of(String.format(AppConstants.KEY_TOOL_RESULT,wfId,"TOOL_A"), "Res A"));
+
+        // --- ACT & ASSERT ---
+        // The only reviewer task of the workflow: it must come back, not succeed with nothing done
+        assertThrows(RetryableException.class, () -> reviewerAgent.process(task));
+        // Verify we did NOT call LLM or set status to COMPLETED
+        verifyNoInteractions(llmService);
+        verify(storage, never()).save(contains(":status"), eq(WorkflowStatus.COMPLETED.name()));
+        verify(storage, never()).multiSave(any());
+    }
 
-        // Only Tool A is done
-        when(storage.get(eq(String.format(AppConstants.KEY_TOOL_RESULT,wfId,"TOOL_A")), eq(String.class))).thenReturn(Optional.of("Res A"));
-        when(storage.get(eq(String.format(AppConstants.KEY_TOOL_RESULT,wfId,"TOOL_B")), eq(String.class))).thenReturn(Optional.empty()); // Missing!
+    @Test
+    void process_ShouldRetryLater_WhenManifestIsMissingOrStillStreaming() {
+        // --- ARRANGE ---
+        Task task = Task.builder().workflowId("wf-early").build();
+        List<String> metaKeys = List.of(String.format(AppConstants.KEY_STATUS, "wf-early"), String.format(AppConstants.KEY_MANIFEST, "wf-early"));
 
-        // --- ACT ---
-        List<Task> result = reviewerAgent.process(task);
+        when(appConfig.getAgents().getReviewer().isEnabled()).thenReturn(true);
+        when(storage.multiGet(eq(metaKeys), eq(String.class)))
+                .thenReturn(Map.of())
+                .thenReturn(Map.of(metaKeys.get(1), ReviewHandoff.MANIFEST_PENDING));
 
-        // --- ASSERT ---
-        assertTrue(result.isEmpty());
-        // Verify we did NOT call LLM or set status to COMPLETED
+        // --- ACT & ASSERT ---
+        assertThrows(RetryableException.class, () -> reviewerAgent.process(task));
+        assertThrows(RetryableException.class, () -> reviewerAgent.processAsync(task));
         verifyNoInteractions(llmService);
-        verify(storage, never()).save(contains(":status"), eq(WorkflowStatus.COMPLETED.name()));
     }
 
     @Test
@@ -69,11 +85,13 @@ class ReviewerAgentTest {
         Task task = Task.builder().workflowId(wfId).userRequest("Summary").build();
 
         when(appConfig.getAgents().getReviewer().isEnabled()).thenReturn(true);
-        when(storage.get(eq(String.format(AppConstants.KEY_STATUS,wfId)), eq(String.class))).thenReturn(Optional.of("IN_PROGRESS"));
-        when(storage.get(eq(String.format(AppConstants.KEY_MANIFEST,wfId)), eq(String.class))).thenReturn(Optional.of("TOOL_A"));
+        when(storage.multiGet(eq(List.of(String.format(AppConstants.KEY_STATUS,wfId), String.format(AppConstants.KEY_MANIFEST,wfId))), eq(String.class)))
+                .thenReturn(Map.of(String.format(AppConstants.KEY_STATUS,wfId), "IN_PROGRESS",
+                        String.format(AppConstants.KEY_MANIFEST,wfId), "TOOL_A"));
 
         // Result is ready
-        when(storage.get(eq(String.format(AppConstants.KEY_TOOL_RESULT,wfId, "TOOL_A")), eq(String.class))).thenReturn(Optional.of("Data A"));
+        when(storage.multiGet(eq(List.of(String.format(AppConstants.KEY_TOOL_RESULT,wfId, "TOOL_A"))), eq(String.class)))
+                .thenReturn(Map.of(String.format(AppConstants.KEY_TOOL_RESULT,wfId, "TOOL_A"), "Data A"));
 
         when(llmService.generate(anyString(), anyString())).thenReturn("Final Verdict");
 
@@ -83,8 +101,9 @@ class ReviewerAgentTest {
         // --- ASSERT ---
         // 1. Verify Status updates
         verify(storage).save(eq(String.format(AppConstants.KEY_STATUS,wfId)), eq(WorkflowStatus.REVIEWING.name()));
-        verify(storage).save(eq(String.format(AppConstants.KEY_STATUS,wfId)), eq(WorkflowStatus.COMPLETED.name()));
-        verify(storage).save(eq(String.format(AppConstants.KEY_REVIEW,wfId)), eq("Final Verdict"));
+        verify(storage).multiSave(Map.of(
+                String.format(AppConstants.KEY_REVIEW,wfId), "Final Verdict",
+                String.format(AppConstants.KEY_STATUS,wfId), WorkflowStatus.COMPLETED.name()));
 
         // 2. Verify LLM Called
         verify(llmService).generate(anyString(), contains("Data A"));
@@ -98,14 +117,16 @@ class ReviewerAgentTest {
         when(appConfig.getAgents().getReviewer().isEnabled()).thenReturn(true);
 
         // Status is ALREADY COMPLETED
-        when(storage.get(eq(String.format(AppConstants.KEY_STATUS,wfId)), eq(String.class)))
-                .thenReturn(Optional.of(WorkflowStatus.COMPLETED.name()));
+        when(storage.multiGet(eq(List.of(String.format(AppConstants.KEY_STATUS,wfId), String.format(AppConstants.KEY_MANIFEST,wfId))), eq(String.class)))
+                .thenReturn(Map.of(String.format(AppConstants.KEY_STATUS,wfId), WorkflowStatus.COMPLETED.name(),
+                        String.format(AppConstants.KEY_MANIFEST,wfId), "TOOL_A"));
 
         // --- ACT ---
         reviewerAgent.process(task);
 
         // --- ASSERT ---
-        // Should return immediately without checking manifest
-        verify(storage, never()).get(contains(":manifest"), any());
+        // Should return immediately without reading any results or calling the LLM
+        verify(storage, times(1)).multiGet(anyList(), any());
+        verifyNoInteractions(llmService);
     }
 }
\ No newline at end of file
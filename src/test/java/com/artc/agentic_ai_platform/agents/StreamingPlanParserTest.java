@@ -0,0 +1,66 @@
+package com.artc.agentic_ai_platform.agents;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingPlanParserTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void feed_ShouldReturnEachStep_AsSoonAsItsObjectCloses() throws IOException {
+        // --- ARRANGE ---
+        StreamingPlanParser parser = new StreamingPlanParser(mapper);
+        String json = "{\"steps\": [{\"tool\": \"LOG_ANALYZER\", \"inputs\": [\"a.log\", \"b.log\"]}, {\"tool\": \"ERP_FETCHER\"}]}";
+        int firstClose = json.indexOf('}') + 1;
+
+        // --- ACT ---
+        List<JsonNode> beforeClose = parser.feed(json.substring(0, firstClose - 1));
+        List<JsonNode> atClose = parser.feed(json.substring(firstClose - 1, firstClose));
+        List<JsonNode> rest = parser.feed(json.substring(firstClose));
+
+        // --- ASSERT ---
+        assertTrue(beforeClose.isEmpty());
+        assertEquals(1, atClose.size());
+        assertEquals("LOG_ANALYZER", atClose.get(0).get("tool").asText());
+        assertEquals(2, atClose.get(0).get("inputs").size());
+        assertEquals(1, rest.size());
+        assertEquals("ERP_FETCHER", rest.get(0).get("tool").asText());
+    }
+
+    @Test
+    void feed_ShouldHandleOneCharacterChunks_AndIgnoreOtherFields() throws IOException {
+        // --- ARRANGE ---
+        StreamingPlanParser parser = new StreamingPlanParser(mapper);
+        String json = """
+                {"reasoning": {"steps": [{"tool": "NOT_A_STEP"}]},
+                 "steps": [{"tool": "LOG_ANALYZER", "meta": {"steps": [1, 2]}}],
+                 "notes": [{"tool": "ALSO_NOT_A_STEP"}]}
+                """;
+
+        // --- ACT ---
+        List<JsonNode> steps = new ArrayList<>();
+        for (int i = 0; i < json.length(); i++) steps.addAll(parser.feed(json.substring(i, i + 1)));
+
+        // --- ASSERT ---
+        assertEquals(1, steps.size());
+        assertEquals("LOG_ANALYZER", steps.get(0).get("tool").asText());
+        assertEquals(2, steps.get(0).get("meta").get("steps").size());
+    }
+
+    @Test
+    void feed_ShouldThrow_WhenTextIsNotJson() throws IOException {
+        // --- ARRANGE ---
+        StreamingPlanParser parser = new StreamingPlanParser(mapper);
+
+        // --- ACT & ASSERT ---
+        assertThrows(IOException.class, () -> parser.feed("Sure! Here is the plan: {\"steps\": []}"));
+    }
+}
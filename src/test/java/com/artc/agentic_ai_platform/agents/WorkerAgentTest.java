@@ -5,17 +5,26 @@ import com.artc.agentic_ai_platform.constants.AppConstants;
 import com.artc.agentic_ai_platform.core.IAgentTool;
 import com.artc.agentic_ai_platform.core.IStorageBackend;
 import com.artc.agentic_ai_platform.core.llm.MockLLMService;
+import com.artc.agentic_ai_platform.executor.ConcurrencyLimits;
 import com.artc.agentic_ai_platform.model.AgentType;
 import com.artc.agentic_ai_platform.model.Task;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Answers;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -37,13 +46,13 @@ class WorkerAgentTest {
         when(mockTool.getName()).thenReturn("TEST_TOOL");
 
         // FORCE SYNCHRONOUS EXECUTION
-        // When executor.execute(runnable) is called, run it immediately
-        doAnswer(invocation -> {
+        // When executor.execute(runnable) is called, run it immediately (lenient: the deadline tests use a real pool)
+        lenient().doAnswer(invocation -> {
             ((Runnable) invocation.getArgument(0)).run();
             return null;
         }).when(executor).execute(any(Runnable.class));
 
-        workerAgent = new WorkerAgent(List.of(mockTool), storage, llmService, executor, appConfig);
+        workerAgent = new WorkerAgent(List.of(mockTool), storage, llmService, executor, appConfig, new ConcurrencyLimits(appConfig), new SimpleMeterRegistry());
     }
 
     @Test
@@ -60,6 +69,10 @@ class WorkerAgentTest {
         when(mockTool.execute("input-A|error")).thenReturn("Raw Tool Output"); // "error" is default keyword
         when(llmService.generate(anyString(), anyString())).thenReturn("AI Interpretation");
 
+        // This is the only (and therefore last) tool in the manifest
+        when(storage.addToSet(String.format(AppConstants.KEY_COMPLETED_TOOLS, "wf-202"), "TEST_TOOL")).thenReturn(1L);
+        when(storage.get(String.format(AppConstants.KEY_MANIFEST, "wf-202"), String.class)).thenReturn(Optional.of("TEST_TOOL"));
+
         // --- ACT ---
         List<Task> result = workerAgent.process(task);
 
@@ -79,4 +92,201 @@ class WorkerAgentTest {
         assertEquals(1, result.size());
         assertEquals(AgentType.REVIEWER, result.get(0).getTargetAgent());
     }
-}
\ No newline at end of file
+
+    @Test
+    void process_ShouldNotTriggerReviewer_WhileOtherToolsOutstanding() {
+        // --- ARRANGE ---
+        Task task = Task.builder()
+                .workflowId("wf-303")
+                .toolName("TEST_TOOL")
+                .toolArguments(List.of("input-A"))
+                .userRequest("Analyze this")
+                .build();
+
+        when(appConfig.getAgents().getWorkers().isEnabled()).thenReturn(true);
+        when(mockTool.execute(anyString())).thenReturn("Raw Tool Output");
+        when(llmService.generate(anyString(), anyString())).thenReturn("AI Interpretation");
+
+        // 1 of 2 expected tools done
+        when(storage.addToSet(String.format(AppConstants.KEY_COMPLETED_TOOLS, "wf-303"), "TEST_TOOL")).thenReturn(1L);
+        when(storage.get(String.format(AppConstants.KEY_MANIFEST, "wf-303"), String.class)).thenReturn(Optional.of("TEST_TOOL,OTHER_TOOL"));
+
+        // --- ACT ---
+        List<Task> result = workerAgent.process(task);
+
+        // --- ASSERT ---
+        // Result is still saved, but no Reviewer dispatch until the last result lands
+        verify(storage).save(eq(String.format(AppConstants.KEY_TOOL_RESULT, "wf-303", "TEST_TOOL")), anyString());
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    void process_ShouldPackItemsIntoBatchedPrompts_AndKeepAggregatedFormat() {
+        // --- ARRANGE ---
+        Task task = Task.builder()
+                .workflowId("wf-404")
+                .toolName("TEST_TOOL")
+                .toolArguments(List.of("a.log", "b.log", "c.log"))
+                .userRequest("Analyze this")
+                .build();
+
+        when(appConfig.getAgents().getWorkers().isEnabled()).thenReturn(true);
+        when(appConfig.getAgents().getWorkers().getLlmBatch().isEnabled()).thenReturn(true);
+        when(appConfig.getAgents().getWorkers().getLlmBatch().getMaxItems()).thenReturn(2);
+        when(appConfig.getAgents().getWorkers().getLlmBatch().getMaxChars()).thenReturn(10_000);
+        when(mockTool.execute(anyString())).thenAnswer(inv -> "output of " + inv.getArgument(0));
+
+        // First batch (a, b) goes out as one prompt; the model only answers item 2
+        when(llmService.generate(contains("[ITEM n]"), contains("a.log"))).thenReturn("[ITEM 2] insight-b");
+        // Fallback for the skipped item, and the leftover single-item batch (c)
+        when(llmService.generate(contains("specific data chunk"), contains("a.log"))).thenReturn("insight-a");
+        when(llmService.generate(contains("specific data chunk"), contains("c.log"))).thenReturn("insight-c");
+
+        when(storage.addToSet(anyString(), anyString())).thenReturn(1L);
+        when(storage.get(String.format(AppConstants.KEY_MANIFEST, "wf-404"), String.class)).thenReturn(Optional.of("TEST_TOOL"));
+
+        // --- ACT ---
+        workerAgent.process(task);
+
+        // --- ASSERT ---
+        verify(llmService, times(3)).generate(anyString(), anyString()); // Batch (a+b), retry of skipped a, leftover c
+        verify(storage).save(String.format(AppConstants.KEY_TOOL_RESULT, "wf-404", "TEST_TOOL"),
+                "insight-a\n --------- \ninsight-b\n --------- \ninsight-c");
+    }
+
+    @Test
+    void processAsync_ShouldGatherLlmFutures_AndTriggerReviewer() {
+        // --- ARRANGE ---
+        Task task = Task.builder()
+                .workflowId("wf-505")
+                .toolName("TEST_TOOL")
+                .toolArguments(List.of("a.log", "b.log"))
+                .userRequest("Analyze this")
+                .build();
+
+        when(appConfig.getAgents().getWorkers().isEnabled()).thenReturn(true);
+        when(mockTool.execute(anyString())).thenReturn("Raw Tool Output");
+        CompletableFuture<String> callA = new CompletableFuture<>();
+        when(llmService.generateAsync(anyString(), contains("a.log"))).thenReturn(callA);
+        when(llmService.generateAsync(anyString(), contains("b.log"))).thenReturn(CompletableFuture.failedFuture(new IllegalStateException("503")));
+
+        when(storage.addToSet(anyString(), anyString())).thenReturn(1L);
+        when(storage.get(String.format(AppConstants.KEY_MANIFEST, "wf-505"), String.class)).thenReturn(Optional.of("TEST_TOOL"));
+
+        // --- ACT ---
+        CompletableFuture<List<Task>> result = workerAgent.processAsync(task);
+
+        // --- ASSERT ---
+        assertFalse(result.isDone());
+        callA.complete("insight-a");
+
+        assertEquals(AgentType.REVIEWER, result.join().get(0).getTargetAgent());
+        verify(storage).save(String.format(AppConstants.KEY_TOOL_RESULT, "wf-505", "TEST_TOOL"),
+                "insight-a\n --------- \nError analyzing b.log");
+        verify(llmService, never()).generate(anyString(), anyString());
+    }
+
+    @Test
+    void process_ShouldLeaveReviewerHandoffToPlanner_WhilePlanIsStreaming() {
+        // --- ARRANGE ---
+        Task task = Task.builder().workflowId("wf-606").taskId("w-1").toolName("TEST_TOOL").toolArguments(List.of("input-A")).build();
+        when(appConfig.getAgents().getWorkers().isEnabled()).thenReturn(true);
+        when(mockTool.execute(anyString())).thenReturn("Raw Tool Output");
+        when(llmService.generate(anyString(), anyString())).thenReturn("AI Interpretation");
+        when(storage.addToSet(String.format(AppConstants.KEY_COMPLETED_TOOLS, "wf-606"), "TEST_TOOL")).thenReturn(1L);
+        when(storage.get(String.format(AppConstants.KEY_MANIFEST, "wf-606"), String.class)).thenReturn(Optional.of(ReviewHandoff.MANIFEST_PENDING));
+
+        // --- ACT ---
+        List<Task> result = workerAgent.process(task);
+
+        // --- ASSERT ---
+        assertTrue(result.isEmpty());
+        verify(storage, never()).saveIfAbsent(anyString(), any(), anyLong());
+    }
+
+    @Test
+    void process_ShouldNotTriggerReviewerTwice_WhenHandoffAlreadyClaimed() {
+        // --- ARRANGE ---
+        Task task = Task.builder().workflowId("wf-707").taskId("w-2").toolName("TEST_TOOL").toolArguments(List.of("input-A")).build();
+        when(appConfig.getAgents().getWorkers().isEnabled()).thenReturn(true);
+        when(mockTool.execute(anyString())).thenReturn("Raw Tool Output");
+        when(llmService.generate(anyString(), anyString())).thenReturn("AI Interpretation");
+        when(storage.addToSet(String.format(AppConstants.KEY_COMPLETED_TOOLS, "wf-707"), "TEST_TOOL")).thenReturn(1L);
+        when(storage.get(String.format(AppConstants.KEY_MANIFEST, "wf-707"), String.class)).thenReturn(Optional.of("TEST_TOOL"));
+        when(storage.saveIfAbsent(String.format(AppConstants.KEY_REVIEW_HANDOFF, "wf-707"), "w-2", 3600L))
+                .thenReturn(Optional.of("planner-task")); // The planner saw the plan complete first
+
+        // --- ACT ---
+        List<Task> result = workerAgent.process(task);
+
+        // --- ASSERT ---
+        assertTrue(result.isEmpty());
+    }
+
+    // Real pool: deadlines are about freeing threads that are stuck in a call
+    private WorkerAgent workerOnPool(ExecutorService pool) {
+        return new WorkerAgent(List.of(mockTool), storage, llmService, pool, appConfig, new ConcurrencyLimits(appConfig), new SimpleMeterRegistry());
+    }
+
+    // "hung" items block until interrupted; everything else answers right away
+    private void stubHangingTool(CountDownLatch interrupted) {
+        when(mockTool.execute(anyString())).thenAnswer(inv -> {
+            if (!inv.getArgument(0, String.class).startsWith("hung")) return "Raw Tool Output";
+            try {
+                Thread.sleep(30_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            throw new IllegalStateException("Tool call aborted");
+        });
+    }
+
+    private String savedResult(String wfId) {
+        ArgumentCaptor<String> result = ArgumentCaptor.forClass(String.class);
+        verify(storage).save(eq(String.format(AppConstants.KEY_TOOL_RESULT, wfId, "TEST_TOOL")), result.capture());
+        return result.getValue();
+    }
+
+    @Test
+    void process_ShouldCancelItemPastItsDeadline_AndSaveTimeoutMarker() throws InterruptedException {
+        // --- ARRANGE ---
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        Task task = Task.builder().workflowId("wf-808").toolName("TEST_TOOL").toolArguments(List.of("a.log", "hung.log")).build();
+        when(appConfig.getAgents().getWorkers().isEnabled()).thenReturn(true);
+        when(appConfig.getAgents().getWorkers().getItemTimeoutSec()).thenReturn(1L);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        stubHangingTool(interrupted);
+        when(llmService.generate(anyString(), anyString())).thenReturn("AI Interpretation");
+
+        // --- ACT ---
+        workerOnPool(pool).process(task);
+
+        // --- ASSERT ---
+        String result = savedResult("wf-808");
+        assertTrue(result.startsWith("AI Interpretation"), "Finished items are kept");
+        assertTrue(result.endsWith("Timed out analyzing hung.log"));
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS), "The pool thread should be released");
+        pool.shutdownNow();
+    }
+
+    @Test
+    void processAsync_ShouldCancelRemainingItems_WhenTaskDeadlinePasses() throws InterruptedException {
+        // --- ARRANGE ---
+        ExecutorService pool = Executors.newFixedThreadPool(3);
+        Task task = Task.builder().workflowId("wf-909").toolName("TEST_TOOL").toolArguments(List.of("hung-1.log", "a.log", "hung-2.log")).build();
+        when(appConfig.getAgents().getWorkers().isEnabled()).thenReturn(true);
+        when(appConfig.getAgents().getWorkers().getTaskTimeoutSec()).thenReturn(1L);
+        CountDownLatch interrupted = new CountDownLatch(2);
+        stubHangingTool(interrupted);
+        when(llmService.generateAsync(anyString(), anyString())).thenReturn(CompletableFuture.completedFuture("AI Interpretation"));
+
+        // --- ACT ---
+        workerOnPool(pool).processAsync(task).join();
+
+        // --- ASSERT ---
+        assertEquals(String.join("\n --------- \n", "Timed out analyzing hung-1.log", "AI Interpretation", "Timed out analyzing hung-2.log"),
+                savedResult("wf-909"));
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS), "Both hung tool calls should be interrupted");
+        pool.shutdownNow();
+    }
+}
@@ -0,0 +1,103 @@
+package com.artc.agentic_ai_platform.core.llm;
+
+import com.artc.agentic_ai_platform.config.AppConfig;
+import com.artc.agentic_ai_platform.storage.RamStorage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingLlmServiceTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AppConfig.Llm.Cache config = new AppConfig.Llm.Cache();
+
+    @Test
+    void generate_ShouldCallUpstreamOnce_ForRepeatedPrompts() {
+        // --- ARRANGE ---
+        AtomicInteger calls = new AtomicInteger();
+        ILlmService upstream = (system, user) -> "answer-" + calls.incrementAndGet();
+        CachingLlmService cached = new CachingLlmService(upstream, config, null, registry);
+
+        // --- ACT ---
+        String first = cached.generate("You are a Worker Agent.", "Analyze: CRITICAL 150C");
+        String second = cached.generate("You are a Worker Agent.", "Analyze:   CRITICAL 150C\n"); // Whitespace-only difference
+        String other = cached.generate("You are a Worker Agent.", "Analyze: OK");
+
+        // --- ASSERT ---
+        assertEquals("answer-1", first);
+        assertEquals("answer-1", second);
+        assertEquals("answer-2", other);
+        assertEquals(2, calls.get());
+        assertEquals(1.0, registry.counter("llm.cache.requests", "result", "hit", "tier", "local").count());
+        assertEquals(2.0, registry.counter("llm.cache.requests", "result", "miss", "tier", "none").count());
+        assertEquals(2L, registry.timer("llm.cache.miss.latency").count());
+    }
+
+    @Test
+    void generate_ShouldReuseAnswerFromSharedStorage_AcrossInstances() {
+        // --- ARRANGE ---
+        RamStorage storage = new RamStorage(100);
+        AtomicInteger calls = new AtomicInteger();
+        ILlmService upstream = (system, user) -> "answer-" + calls.incrementAndGet();
+
+        CachingLlmService nodeA = new CachingLlmService(upstream, config, storage, registry);
+        CachingLlmService nodeB = new CachingLlmService(upstream, config, storage, new SimpleMeterRegistry());
+
+        // --- ACT ---
+        nodeA.generate("sys", "user");
+        String fromB = nodeB.generate("sys", "user");
+
+        // --- ASSERT ---
+        assertEquals("answer-1", fromB);
+        assertEquals(1, calls.get(), "Second node should hit the shared tier instead of upstream");
+    }
+
+    @Test
+    void generate_ShouldNotCacheFailures() {
+        // --- ARRANGE ---
+        AtomicInteger calls = new AtomicInteger();
+        ILlmService flaky = (system, user) -> {
+            if (calls.incrementAndGet() == 1) throw new IllegalStateException("upstream 503");
+            return "recovered";
+        };
+        CachingLlmService cached = new CachingLlmService(flaky, config, null, registry);
+
+        // --- ACT & ASSERT ---
+        assertThrows(IllegalStateException.class, () -> cached.generate("sys", "user"));
+        assertEquals("recovered", cached.generate("sys", "user"));
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void promptKey_ShouldSeparateSystemAndUserPrompts() {
+        // --- ASSERT ---
+        assertNotEquals(PromptKey.of("ab", "c"), PromptKey.of("a", "bc"));
+        assertEquals(PromptKey.of(" a  b ", "c"), PromptKey.of("a b", "c"));
+    }
+
+    @Test
+    void generateStream_ShouldStreamMisses_AndDeliverHitsAsOneChunk() {
+        // --- ARRANGE ---
+        AtomicInteger calls = new AtomicInteger();
+        ILlmService upstream = (system, user) -> "answer-" + calls.incrementAndGet();
+        CachingLlmService cached = new CachingLlmService(upstream, config, null, registry);
+        List<String> missChunks = new ArrayList<>();
+        List<String> hitChunks = new ArrayList<>();
+
+        // --- ACT ---
+        String first = cached.generateStream("sys", "user", missChunks::add).join();
+        String second = cached.generateStream("sys", "user", hitChunks::add).join();
+
+        // --- ASSERT ---
+        assertEquals("answer-1", first);
+        assertEquals("answer-1", second);
+        assertEquals(List.of("answer-1"), missChunks);
+        assertEquals(List.of("answer-1"), hitChunks);
+        assertEquals(1, calls.get());
+    }
+}
@@ -0,0 +1,135 @@
+package com.artc.agentic_ai_platform.core.llm;
+
+import com.artc.agentic_ai_platform.executor.AdaptiveLimiter;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimitedLlmServiceTest {
+
+    @Test
+    void generate_ShouldNeverExceedPermits_UnderParallelCallers() {
+        // --- ARRANGE ---
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxSeen = new AtomicInteger();
+
+        // Slow upstream that records how many calls overlap
+        ILlmService upstream = (system, user) -> {
+            maxSeen.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try { Thread.sleep(50); } catch (InterruptedException ignored) {}
+            inFlight.decrementAndGet();
+            return "ok";
+        };
+        ConcurrencyLimitedLlmService limited = new ConcurrencyLimitedLlmService(upstream, AdaptiveLimiter.fixed("llm", 2));
+
+        // --- ACT ---
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(CompletableFuture.supplyAsync(() -> limited.generate("sys", "user"), callers));
+        }
+        results.forEach(CompletableFuture::join);
+        callers.shutdown();
+
+        // --- ASSERT ---
+        assertTrue(maxSeen.get() <= 2, "At most 2 upstream calls may overlap, saw " + maxSeen.get());
+        assertEquals("ok", results.get(0).join());
+    }
+
+    @Test
+    void generateAsync_ShouldQueueCallers_WithoutBlocking_UntilAPermitIsReleased() {
+        // --- ARRANGE ---
+        List<CompletableFuture<String>> upstreamCalls = new ArrayList<>();
+        ILlmService upstream = new ILlmService() {
+            @Override
+            public String generate(String system, String user) { throw new UnsupportedOperationException(); }
+
+            @Override
+            public CompletableFuture<String> generateAsync(String system, String user) {
+                CompletableFuture<String> call = new CompletableFuture<>();
+                upstreamCalls.add(call);
+                return call;
+            }
+        };
+        ConcurrencyLimitedLlmService limited = new ConcurrencyLimitedLlmService(upstream, AdaptiveLimiter.fixed("llm", 1));
+
+        // --- ACT ---
+        CompletableFuture<String> first = limited.generateAsync("sys", "1");
+        CompletableFuture<String> second = limited.generateAsync("sys", "2"); // Returns immediately, queued
+
+        // --- ASSERT ---
+        assertEquals(1, upstreamCalls.size(), "Second call must wait for the permit");
+        upstreamCalls.get(0).complete("one");
+        assertEquals("one", first.join());
+
+        assertEquals(2, upstreamCalls.size(), "Release should start the queued call");
+        upstreamCalls.get(1).complete("two");
+        assertEquals("two", second.join());
+    }
+
+    @Test
+    void generateAsync_ShouldNotCallUpstream_ForAWaiterCancelledWhileQueued() {
+        // --- ARRANGE ---
+        List<CompletableFuture<String>> upstreamCalls = new ArrayList<>();
+        ILlmService upstream = new ILlmService() {
+            @Override
+            public String generate(String system, String user) { throw new UnsupportedOperationException(); }
+
+            @Override
+            public CompletableFuture<String> generateAsync(String system, String user) {
+                CompletableFuture<String> call = new CompletableFuture<>();
+                upstreamCalls.add(call);
+                return call;
+            }
+        };
+        AdaptiveLimiter limiter = AdaptiveLimiter.fixed("llm", 1);
+        ConcurrencyLimitedLlmService limited = new ConcurrencyLimitedLlmService(upstream, limiter);
+
+        // --- ACT ---
+        CompletableFuture<String> first = limited.generateAsync("sys", "1");
+        CompletableFuture<String> abandoned = limited.generateAsync("sys", "2"); // E.g. a hedge that lost
+        CompletableFuture<String> third = limited.generateAsync("sys", "3");
+        abandoned.cancel(true);
+        upstreamCalls.get(0).complete("one");
+
+        // --- ASSERT ---
+        assertEquals("one", first.join());
+        assertEquals(2, upstreamCalls.size(), "The freed permit skips the cancelled waiter");
+        upstreamCalls.get(1).complete("three");
+        assertEquals("three", third.join());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void generateAsync_ShouldCancelUpstreamCall_AndReleaseThePermit_WhenCallerGivesUp() {
+        // --- ARRANGE ---
+        List<CompletableFuture<String>> upstreamCalls = new ArrayList<>();
+        ILlmService upstream = new ILlmService() {
+            @Override
+            public String generate(String system, String user) { throw new UnsupportedOperationException(); }
+
+            @Override
+            public CompletableFuture<String> generateAsync(String system, String user) {
+                CompletableFuture<String> call = new CompletableFuture<>();
+                upstreamCalls.add(call);
+                return call;
+            }
+        };
+        AdaptiveLimiter limiter = AdaptiveLimiter.fixed("llm", 1);
+        ConcurrencyLimitedLlmService limited = new ConcurrencyLimitedLlmService(upstream, limiter);
+
+        // --- ACT ---
+        limited.generateAsync("sys", "1").cancel(true);
+
+        // --- ASSERT ---
+        assertTrue(upstreamCalls.get(0).isCancelled());
+        assertEquals(0, limiter.getInFlight());
+    }
+}
@@ -0,0 +1,63 @@
+package com.artc.agentic_ai_platform.core.llm;
+
+import com.artc.agentic_ai_platform.config.AppConfig;
+import com.artc.agentic_ai_platform.executor.AdaptiveLimiter;
+import com.artc.agentic_ai_platform.executor.Hedger;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HedgingLlmServiceTest {
+
+    @Test
+    void generate_ShouldCancelTheRace_AndFreeItsPermit_WhenTheCallerIsInterrupted() throws Exception {
+        // --- ARRANGE ---
+        List<CompletableFuture<String>> upstreamCalls = new ArrayList<>();
+        ILlmService upstream = new ILlmService() {
+            @Override
+            public String generate(String system, String user) { throw new UnsupportedOperationException(); }
+
+            @Override
+            public CompletableFuture<String> generateAsync(String system, String user) {
+                CompletableFuture<String> call = new CompletableFuture<>(); // Never answers on its own
+                synchronized (upstreamCalls) { upstreamCalls.add(call); }
+                return call;
+            }
+        };
+        AdaptiveLimiter limiter = AdaptiveLimiter.fixed("llm", 4);
+        AppConfig.Hedge config = new AppConfig.Hedge();
+        config.setEnabled(true);
+        config.setPercentile(50);
+        config.setBudgetPercent(100);
+        config.setMinSamples(1);
+        HedgingLlmService hedging = new HedgingLlmService(new ConcurrencyLimitedLlmService(upstream, limiter),
+                new Hedger("llm", config, new SimpleMeterRegistry()));
+
+        CompletableFuture<Throwable> callerError = new CompletableFuture<>();
+        Thread caller = new Thread(() -> {
+            try {
+                hedging.generate("sys", "user");
+            } catch (RuntimeException e) {
+                callerError.complete(e);
+            }
+        });
+        caller.start();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (limiter.getInFlight() < 1 && System.currentTimeMillis() < deadline) Thread.sleep(5); // Holding a permit
+
+        // --- ACT ---
+        caller.interrupt(); // The item's deadline expired
+
+        // --- ASSERT ---
+        assertInstanceOf(IllegalStateException.class, callerError.get(5, TimeUnit.SECONDS));
+        assertEquals(1, upstreamCalls.size());
+        upstreamCalls.forEach(call -> assertTrue(call.isCancelled(), "Upstream attempt must be cancelled"));
+        assertEquals(0, limiter.getInFlight());
+    }
+}
@@ -0,0 +1,47 @@
+package com.artc.agentic_ai_platform.core.llm;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MockLLMServiceTest {
+
+    private final MockLLMService llm = new MockLLMService();
+
+    @Test
+    void generate_ShouldAnswerEachItem_OfBatchedWorkerPrompt() {
+        // --- ARRANGE ---
+        String prompt = """
+                Context: Machine overheat
+                [ITEM 1]
+                Data Source: LOG_ANALYZER: a.log
+                Raw Output: CRITICAL 150C
+                [ITEM 2]
+                Data Source: ERP_FETCHER: PRESS-01
+                Raw Output: Maintenance OVERDUE
+                """;
+
+        // --- ACT ---
+        String answer = llm.generate("You are an intelligent Worker Agent.", prompt);
+
+        // --- ASSERT ---
+        assertTrue(answer.contains("[ITEM 1] INSIGHT (Critical)"));
+        assertTrue(answer.contains("[ITEM 2] INSIGHT (Maintenance)"));
+    }
+
+    @Test
+    void generateStream_ShouldDeliverResponseInOrderedChunks() {
+        // --- ARRANGE ---
+        List<String> chunks = new ArrayList<>();
+
+        // --- ACT ---
+        String full = llm.generateStream("You are a Planner Agent.", "Incident Report: overheat", chunks::add).join();
+
+        // --- ASSERT ---
+        assertTrue(chunks.size() > 1, "Planner JSON is longer than one chunk");
+        assertEquals(full, String.join("", chunks));
+    }
+}
@@ -0,0 +1,148 @@
+package com.artc.agentic_ai_platform.core.llm;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightLlmServiceTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void generate_ShouldShareOneUpstreamCall_AmongConcurrentIdenticalPrompts() throws Exception {
+        // --- ARRANGE ---
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ILlmService upstream = (system, user) -> {
+            calls.incrementAndGet();
+            try { release.await(5, TimeUnit.SECONDS); } catch (InterruptedException ignored) {}
+            return "shared-answer";
+        };
+        SingleFlightLlmService singleFlight = new SingleFlightLlmService(upstream, registry);
+
+        // --- ACT ---
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(CompletableFuture.supplyAsync(() -> singleFlight.generate("sys", "same question"), callers));
+        }
+        // Wait until the other 7 are parked behind the leader
+        long deadline = System.currentTimeMillis() + 5000;
+        while (registry.counter("llm.singleflight.coalesced").count() < 7 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        release.countDown();
+        results.forEach(CompletableFuture::join);
+        callers.shutdown();
+
+        // --- ASSERT ---
+        assertEquals(1, calls.get());
+        results.forEach(r -> assertEquals("shared-answer", r.join()));
+        assertEquals(7.0, registry.counter("llm.singleflight.coalesced").count());
+    }
+
+    @Test
+    void generate_ShouldPropagateLeaderFailure_ThenAllowFreshCall() throws Exception {
+        // --- ARRANGE ---
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ILlmService upstream = (system, user) -> {
+            if (calls.incrementAndGet() == 1) {
+                try { release.await(5, TimeUnit.SECONDS); } catch (InterruptedException ignored) {}
+                throw new IllegalStateException("upstream 503");
+            }
+            return "ok";
+        };
+        SingleFlightLlmService singleFlight = new SingleFlightLlmService(upstream, registry);
+
+        // --- ACT ---
+        CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> singleFlight.generate("sys", "q"));
+        while (calls.get() == 0) Thread.sleep(5);
+        CompletableFuture<String> follower = CompletableFuture.supplyAsync(() -> singleFlight.generate("sys", "q"));
+        while (registry.counter("llm.singleflight.coalesced").count() < 1) Thread.sleep(5);
+        release.countDown();
+
+        // --- ASSERT ---
+        CompletionException leaderError = assertThrows(CompletionException.class, leader::join);
+        CompletionException followerError = assertThrows(CompletionException.class, follower::join);
+        assertInstanceOf(IllegalStateException.class, leaderError.getCause());
+        assertInstanceOf(IllegalStateException.class, followerError.getCause());
+
+        // Nothing is remembered after completion
+        assertEquals("ok", singleFlight.generate("sys", "q"));
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void generate_ShouldNotShareTheLeadersInterrupt_WithItsFollowers() throws Exception {
+        // --- ARRANGE ---
+        AtomicInteger calls = new AtomicInteger();
+        ILlmService upstream = interruptibleUpstream(calls);
+        SingleFlightLlmService singleFlight = new SingleFlightLlmService(upstream, registry);
+
+        CompletableFuture<String> leader = new CompletableFuture<>();
+        Thread leaderThread = new Thread(() -> {
+            try { leader.complete(singleFlight.generate("sys", "q")); } catch (RuntimeException e) { leader.completeExceptionally(e); }
+        });
+        leaderThread.start();
+        while (calls.get() == 0) Thread.sleep(5);
+        CompletableFuture<String> syncFollower = CompletableFuture.supplyAsync(() -> singleFlight.generate("sys", "q"));
+        while (registry.counter("llm.singleflight.coalesced").count() < 1) Thread.sleep(5);
+
+        // --- ACT ---
+        leaderThread.interrupt(); // The leader's own deadline expired
+
+        // --- ASSERT ---
+        CompletionException leaderError = assertThrows(CompletionException.class, leader::join);
+        assertEquals("Interrupted while waiting for an LLM permit", leaderError.getCause().getMessage());
+        assertEquals("ok", syncFollower.get(5, TimeUnit.SECONDS)); // Made the call itself instead
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void generateAsync_ShouldStartOver_WhenItsBlockingLeaderIsInterrupted() throws Exception {
+        // --- ARRANGE ---
+        AtomicInteger calls = new AtomicInteger();
+        SingleFlightLlmService singleFlight = new SingleFlightLlmService(interruptibleUpstream(calls), registry);
+
+        Thread leaderThread = new Thread(() -> {
+            try { singleFlight.generate("sys", "q"); } catch (RuntimeException ignored) {}
+        });
+        leaderThread.start();
+        while (calls.get() == 0) Thread.sleep(5);
+        CompletableFuture<String> asyncFollower = singleFlight.generateAsync("sys", "q");
+
+        // --- ACT ---
+        leaderThread.interrupt();
+
+        // --- ASSERT ---
+        assertEquals("ok", asyncFollower.get(5, TimeUnit.SECONDS));
+        assertEquals(2, calls.get());
+    }
+
+    // First call blocks until its thread is interrupted, then fails the way the permit wait does
+    private static ILlmService interruptibleUpstream(AtomicInteger calls) {
+        return (system, user) -> {
+            if (calls.incrementAndGet() == 1) {
+                try {
+                    Thread.sleep(10_000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for an LLM permit", e);
+                }
+            }
+            return "ok";
+        };
+    }
+}
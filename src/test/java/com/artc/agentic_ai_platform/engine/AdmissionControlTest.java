@@ -0,0 +1,120 @@
+package com.artc.agentic_ai_platform.engine;
+
+import com.artc.agentic_ai_platform.config.AppConfig;
+import com.artc.agentic_ai_platform.core.ITaskQueue;
+import com.artc.agentic_ai_platform.model.AgentType;
+import com.artc.agentic_ai_platform.model.Task;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AdmissionControlTest {
+
+    @Mock private ITaskQueue queue;
+
+    private final AppConfig appConfig = new AppConfig();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicLong clock = new AtomicLong(1_000_000L);
+
+    @BeforeEach
+    void setup() {
+        AppConfig.Queue.Admission admission = appConfig.getQueue().getAdmission();
+        admission.setEnabled(true);
+        admission.setMaxDepth(100);
+        admission.setMaxWaitSec(10);
+        admission.setRetryAfterSec(2);
+    }
+
+    private AdmissionControl newAdmission() {
+        return new AdmissionControl(appConfig, queue, registry, clock::get);
+    }
+
+    private static List<Task> plannerTasks(int n) {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < n; i++) tasks.add(Task.builder().taskId("p-" + i).targetAgent(AgentType.PLANNER).build());
+        return tasks;
+    }
+
+    @Test
+    void check_ShouldAdmit_WhenBacklogIsShort() {
+        // --- ARRANGE ---
+        AdmissionControl admission = newAdmission();
+        when(queue.depth(AgentType.PLANNER)).thenReturn(5L);
+
+        // --- ACT & ASSERT ---
+        assertTrue(admission.check().admitted());
+    }
+
+    @Test
+    void check_ShouldReject_WhenDepthCapIsReached() {
+        // --- ARRANGE ---
+        AdmissionControl admission = newAdmission();
+        when(queue.depth(AgentType.PLANNER)).thenReturn(100L);
+
+        // --- ACT ---
+        AdmissionControl.Decision decision = admission.check();
+
+        // --- ASSERT ---
+        assertFalse(decision.admitted());
+        assertEquals("depth", decision.reason());
+        assertEquals(2, decision.retryAfterSec()); // No drain rate yet: the configured floor
+        assertEquals(1.0, registry.counter("incidents.rejected", "reason", "depth").count());
+    }
+
+    @Test
+    void check_ShouldReject_WhenEstimatedWaitExceedsLimit_AndDeriveRetryAfterFromDrainRate() {
+        // --- ARRANGE ---
+        AdmissionControl admission = newAdmission();
+        for (int sec = 0; sec < 10; sec++) { // 2 ingest tasks per second for 10s
+            if (sec > 0) clock.addAndGet(1000);
+            admission.onDequeued(plannerTasks(2));
+            admission.onDequeued(List.of(Task.builder().targetAgent(AgentType.WORKER).build())); // Other lanes don't count
+        }
+        when(queue.depth(AgentType.PLANNER)).thenReturn(19L, 60L);
+
+        // --- ACT ---
+        AdmissionControl.Decision shortWait = admission.check(); // 9.5s of work at 2/s
+        AdmissionControl.Decision longWait = admission.check();  // 30s
+
+        // --- ASSERT ---
+        assertTrue(shortWait.admitted());
+        assertFalse(longWait.admitted());
+        assertEquals("wait", longWait.reason());
+        assertEquals(20, longWait.retryAfterSec()); // The 40 tasks above the 10s budget, at 2/s
+    }
+
+    @Test
+    void drainRate_ShouldForgetActivityOutsideTheWindow() {
+        // --- ARRANGE ---
+        AdmissionControl admission = newAdmission();
+        admission.onDequeued(plannerTasks(30));
+
+        // --- ACT ---
+        clock.addAndGet(60_000);
+
+        // --- ASSERT ---
+        assertEquals(0.0, admission.drainRate());
+    }
+
+    @Test
+    void check_ShouldAlwaysAdmit_WhenDisabled() {
+        // --- ARRANGE ---
+        appConfig.getQueue().getAdmission().setEnabled(false);
+        AdmissionControl admission = newAdmission();
+
+        // --- ACT & ASSERT ---
+        assertTrue(admission.check().admitted());
+        verify(queue, never()).depth(any());
+    }
+}
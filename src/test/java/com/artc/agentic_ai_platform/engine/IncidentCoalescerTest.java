@@ -0,0 +1,174 @@
+package com.artc.agentic_ai_platform.engine;
+
+import com.artc.agentic_ai_platform.config.AppConfig;
+import com.artc.agentic_ai_platform.model.TaskPriority;
+import com.artc.agentic_ai_platform.model.WorkflowStatus;
+import com.artc.agentic_ai_platform.storage.RamStorage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IncidentCoalescerTest {
+
+    private final AppConfig appConfig = new AppConfig();
+    private final RamStorage storage = new RamStorage(100);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setup() {
+        AppConfig.Queue.Dedup dedup = appConfig.getQueue().getDedup();
+        dedup.setEnabled(true);
+        dedup.setWindowSec(120);
+        dedup.setAssetPattern("(?i)\\bmachine[\\s#:]+([a-z0-9][a-z0-9_-]*)");
+    }
+
+    @Test
+    void attach_ShouldLinkRepeatsOfSameAsset_ToFirstWorkflow() {
+        // --- ARRANGE ---
+        IncidentCoalescer coalescer = new IncidentCoalescer(appConfig, storage, registry);
+
+        // --- ACT ---
+        Optional<String> first = coalescer.attach("Machine PRESS-01 overheat", TaskPriority.HIGH, "wf-1", "inc-1");
+        coalescer.register("wf-1", "inc-1");
+        Optional<String> repeat = coalescer.attach("OVERHEAT on machine press-01, temp 151C", TaskPriority.HIGH, "wf-2", "inc-2");
+        Optional<String> otherAsset = coalescer.attach("Machine PRESS-02 overheat", TaskPriority.HIGH, "wf-3", "inc-3");
+
+        // --- ASSERT ---
+        assertTrue(first.isEmpty());
+        assertEquals(Optional.of("wf-1"), repeat);
+        assertTrue(otherAsset.isEmpty());
+        assertEquals(Set.of("inc-1", "inc-2"), storage.members("wf:wf-1:incidents"));
+        assertEquals(1.0, registry.counter("incidents.coalesced").count());
+    }
+
+    @Test
+    void attach_ShouldMatchNormalizedPayload_WhenNoAssetIsNamed() {
+        // --- ARRANGE ---
+        IncidentCoalescer coalescer = new IncidentCoalescer(appConfig, storage, registry);
+
+        // --- ACT ---
+        coalescer.attach("Coolant   pressure low\n", TaskPriority.NORMAL, "wf-1", "inc-1");
+        Optional<String> repeat = coalescer.attach("coolant pressure LOW", TaskPriority.NORMAL, "wf-2", "inc-2");
+
+        // --- ASSERT ---
+        assertEquals(Optional.of("wf-1"), repeat);
+    }
+
+    @Test
+    void attach_ShouldStartNewWorkflow_WhenSeverityDiffers() {
+        // --- ARRANGE ---
+        IncidentCoalescer coalescer = new IncidentCoalescer(appConfig, storage, registry);
+        coalescer.attach("Machine PRESS-01 overheat", TaskPriority.HIGH, "wf-1", "inc-1");
+
+        // --- ACT ---
+        Optional<String> critical = coalescer.attach("Machine PRESS-01 fire", TaskPriority.CRITICAL, "wf-2", "inc-2");
+
+        // --- ASSERT ---
+        assertTrue(critical.isEmpty());
+    }
+
+    @Test
+    void attach_ShouldStartNewWorkflow_WhenOwnerAlreadyFinished() {
+        // --- ARRANGE ---
+        IncidentCoalescer coalescer = new IncidentCoalescer(appConfig, storage, registry);
+        coalescer.attach("Machine PRESS-01 overheat", TaskPriority.HIGH, "wf-1", "inc-1");
+        storage.save("wf:wf-1:status", WorkflowStatus.COMPLETED.name());
+
+        // --- ACT ---
+        Optional<String> afterFinish = coalescer.attach("Machine PRESS-01 overheat", TaskPriority.HIGH, "wf-2", "inc-2");
+        Optional<String> repeat = coalescer.attach("Machine PRESS-01 overheat", TaskPriority.HIGH, "wf-3", "inc-3");
+
+        // --- ASSERT ---
+        assertTrue(afterFinish.isEmpty());
+        assertEquals(Optional.of("wf-2"), repeat);
+        assertTrue(storage.members("wf:wf-1:incidents").isEmpty());
+    }
+
+    @Test
+    void attach_ShouldStartExactlyOneNewWorkflow_WhenConcurrentRepeatsFindTheOwnerFinished() throws Exception {
+        // --- ARRANGE ---
+        IncidentCoalescer coalescer = new IncidentCoalescer(appConfig, storage, registry);
+        coalescer.attach("Machine PRESS-01 overheat", TaskPriority.HIGH, "wf-0", "inc-0");
+        storage.save("wf:wf-0:status", WorkflowStatus.FAILED.name());
+        ExecutorService reporters = Executors.newFixedThreadPool(8);
+        CountDownLatch go = new CountDownLatch(1);
+
+        // --- ACT ---
+        List<Future<Optional<String>>> outcomes = new ArrayList<>();
+        for (int i = 1; i <= 8; i++) {
+            String id = String.valueOf(i);
+            outcomes.add(reporters.submit(() -> {
+                go.await();
+                return coalescer.attach("Machine PRESS-01 overheat", TaskPriority.HIGH, "wf-" + id, "inc-" + id);
+            }));
+        }
+        go.countDown();
+        List<Optional<String>> results = new ArrayList<>();
+        for (Future<Optional<String>> outcome : outcomes) results.add(outcome.get(5, TimeUnit.SECONDS));
+        reporters.shutdown();
+
+        // --- ASSERT ---
+        List<Optional<String>> started = results.stream().filter(Optional::isEmpty).toList();
+        assertEquals(1, started.size(), "Only one report may start the new workflow");
+        String newOwner = storage.get("incident:dedup:HIGH:asset:PRESS-01", String.class).orElseThrow();
+        results.stream().filter(Optional::isPresent).forEach(linked -> assertEquals(Optional.of(newOwner), linked));
+    }
+
+    @Test
+    void attach_ShouldNotRecordIncidents_ForANewWorkflowUntilRegistered() {
+        // --- ARRANGE ---
+        IncidentCoalescer coalescer = new IncidentCoalescer(appConfig, storage, registry);
+
+        // --- ACT ---
+        coalescer.attach("Machine PRESS-01 overheat", TaskPriority.HIGH, "wf-1", "inc-1");
+        coalescer.detach("Machine PRESS-01 overheat", TaskPriority.HIGH, "wf-1"); // Rejected at admission
+
+        // --- ASSERT ---
+        assertTrue(storage.members("wf:wf-1:incidents").isEmpty());
+        assertEquals(0, storage.size());
+    }
+
+    @Test
+    void detach_ShouldReleaseClaim_OnlyForItsOwnWorkflow() {
+        // --- ARRANGE ---
+        IncidentCoalescer coalescer = new IncidentCoalescer(appConfig, storage, registry);
+        coalescer.attach("Machine PRESS-01 overheat", TaskPriority.HIGH, "wf-1", "inc-1");
+
+        // --- ACT ---
+        coalescer.detach("Machine PRESS-01 overheat", TaskPriority.HIGH, "wf-other"); // Not the owner: no-op
+        Optional<String> stillLinked = coalescer.attach("Machine PRESS-01 overheat", TaskPriority.HIGH, "wf-2", "inc-2");
+        coalescer.detach("Machine PRESS-01 overheat", TaskPriority.HIGH, "wf-1");
+        Optional<String> fresh = coalescer.attach("Machine PRESS-01 overheat", TaskPriority.HIGH, "wf-3", "inc-3");
+
+        // --- ASSERT ---
+        assertEquals(Optional.of("wf-1"), stillLinked);
+        assertTrue(fresh.isEmpty());
+    }
+
+    @Test
+    void attach_ShouldDoNothing_WhenDisabled() {
+        // --- ARRANGE ---
+        appConfig.getQueue().getDedup().setEnabled(false);
+        IncidentCoalescer coalescer = new IncidentCoalescer(appConfig, storage, registry);
+
+        // --- ACT ---
+        coalescer.attach("same", TaskPriority.NORMAL, "wf-1", "inc-1");
+        Optional<String> repeat = coalescer.attach("same", TaskPriority.NORMAL, "wf-2", "inc-2");
+
+        // --- ASSERT ---
+        assertTrue(repeat.isEmpty());
+        assertEquals(0, storage.size());
+    }
+}
@@ -7,9 +7,11 @@ import com.artc.agentic_ai_platform.core.IStorageBackend;
 import com.artc.agentic_ai_platform.core.ITaskQueue;
 import com.artc.agentic_ai_platform.core.exception.RetryableException;
 import com.artc.agentic_ai_platform.core.exception.TerminalException;
+import com.artc.agentic_ai_platform.executor.ConcurrencyLimits;
 import com.artc.agentic_ai_platform.model.AgentType;
 import com.artc.agentic_ai_platform.model.Task;
 import com.artc.agentic_ai_platform.model.WorkflowStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -17,10 +19,12 @@ import org.mockito.Answers;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.stubbing.Answer;
+import org.springframework.core.task.SyncTaskExecutor;
 
 import java.util.List;
-import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
@@ -42,7 +46,13 @@ class WorkflowEngineTest {
         when(mockAgent.getType()).thenReturn(AgentType.WORKER);
         List<IAgent> agents = List.of(mockAgent);
 
-        workflowEngine = new WorkflowEngine(appConfig, queue, agents, storage);
+        // Inline dispatch ('platform' mode); deep-stubbed limits of 0 mean unlimited permits
+        workflowEngine = new WorkflowEngine(appConfig, queue, agents, storage,
+                new ConcurrencyLimits(appConfig), new SyncTaskExecutor(), admission());
+    }
+
+    private AdmissionControl admission() {
+        return new AdmissionControl(appConfig, queue, new SimpleMeterRegistry());
     }
 
     /**
@@ -51,10 +61,10 @@ class WorkflowEngineTest {
      * 2. On second call, interrupts thread and returns empty to trigger the break condition.
      */
     private void mockQueueOneShot(Task task) {
-        when(queue.pop()).thenReturn(Optional.of(task))
-                .thenAnswer((Answer<Optional<Task>>) invocation -> {
+        when(queue.popBatch(anyList(), anyInt(), any())).thenReturn(List.of(task))
+                .thenAnswer((Answer<List<Task>>) invocation -> {
                     Thread.currentThread().interrupt(); // Signal stop
-                    return Optional.empty();
+                    return List.of();
                 });
     }
 
@@ -77,7 +87,7 @@ class WorkflowEngineTest {
 
         // Assert
         verify(mockAgent).process(inputTask);
-        verify(queue).push(downstreamTask); // Verify output was queued
+        verify(queue).pushAll(List.of(downstreamTask)); // Verify output was queued in one call
     }
 
     @Test
@@ -151,4 +161,99 @@ class WorkflowEngineTest {
         verify(storage).save(eq(String.format(AppConstants.KEY_STATUS,"wf-crash")), eq(WorkflowStatus.FAILED.name()));
         verify(storage).save(contains("error"), contains("Null Pointer Oops"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void runConsumerLoop_ShouldFetchBatches_InVirtualMode() {
+        // Arrange
+        when(appConfig.getQueue().getConcurrency().getThreadMode()).thenReturn("virtual");
+        when(appConfig.getQueue().getConcurrency().getBatchSize()).thenReturn(8);
+        Task first = Task.builder().workflowId("wf-b").taskId("b-1").targetAgent(AgentType.WORKER).build();
+        Task second = Task.builder().workflowId("wf-b").taskId("b-2").targetAgent(AgentType.WORKER).build();
+
+        when(queue.popBatch(anyList(), eq(8), any())).thenReturn(List.of(first, second))
+                .thenAnswer((Answer<List<Task>>) invocation -> {
+                    Thread.currentThread().interrupt();
+                    return List.of();
+                });
+        when(mockAgent.process(any())).thenReturn(List.of());
+
+        // Act
+        workflowEngine.runConsumerLoop(1);
+
+        // Assert
+        verify(mockAgent).process(first);
+        verify(mockAgent).process(second);
+        verify(queue).ack(first);
+        verify(queue).ack(second);
+        verify(queue, never()).pushAll(any()); // Nothing downstream, no round trip
+    }
+
+    @Test
+    void runConsumerLoop_ShouldSettleTasks_WhenAsyncAgentCompletes() {
+        // --- ARRANGE ---
+        when(appConfig.getQueue().getConcurrency().getThreadMode()).thenReturn("async");
+        when(appConfig.getQueue().getConcurrency().getBatchSize()).thenReturn(4);
+        when(appConfig.getQueue().getConcurrency().getMaxRetries()).thenReturn(3);
+
+        Task ok = Task.builder().workflowId("wf-a").taskId("ok").targetAgent(AgentType.WORKER).build();
+        Task flaky = Task.builder().workflowId("wf-a").taskId("flaky").targetAgent(AgentType.WORKER).retryCount(0).build();
+        Task downstream = Task.builder().taskId("next").build();
+
+        when(queue.popBatch(anyList(), eq(4), any())).thenReturn(List.of(ok, flaky))
+                .thenAnswer((Answer<List<Task>>) invocation -> {
+                    Thread.currentThread().interrupt();
+                    return List.of();
+                });
+        CompletableFuture<List<Task>> pending = new CompletableFuture<>();
+        when(mockAgent.processAsync(ok)).thenReturn(pending);
+        when(mockAgent.processAsync(flaky)).thenReturn(CompletableFuture.failedFuture(new RetryableException("Timeout")));
+
+        // --- ACT ---
+        workflowEngine.runConsumerLoop(1); // Returns without waiting for 'pending'
+
+        // --- ASSERT ---
+        verify(queue, never()).ack(ok);
+        verify(queue).push(flaky); // Failed future goes through the normal retry path
+        assertEquals(1, flaky.getRetryCount());
+
+        pending.complete(List.of(downstream));
+        verify(queue).pushAll(List.of(downstream));
+        verify(queue).ack(ok);
+        verify(mockAgent, never()).process(any());
+    }
+
+    @Test
+    void runConsumerLoop_ShouldSkipLanesWhoseBulkheadIsFull() throws InterruptedException {
+        // Arrange
+        when(appConfig.getAgents().getWorkers().getMaxConcurrency()).thenReturn(1);
+        ConcurrencyLimits limits = new ConcurrencyLimits(appConfig);
+        limits.forAgent(AgentType.WORKER).acquire(); // The only WORKER permit is taken
+        WorkflowEngine engine = new WorkflowEngine(appConfig, queue, List.of(mockAgent), storage, limits, new SyncTaskExecutor(), admission());
+
+        when(queue.popBatch(anyList(), anyInt(), any())).thenAnswer((Answer<List<Task>>) invocation -> {
+            Thread.currentThread().interrupt();
+            return List.of();
+        });
+
+        // Act
+        engine.runConsumerLoop(1);
+
+        // Assert
+        verify(queue).popBatch(eq(List.of(AgentType.REVIEWER, AgentType.PLANNER)), anyInt(), any());
+    }
+
+    @Test
+    void runConsumerLoop_ShouldOnlyPollItsOwnLane_ForDedicatedConsumer() {
+        // Arrange
+        when(queue.popBatch(anyList(), anyInt(), any())).thenAnswer((Answer<List<Task>>) invocation -> {
+            Thread.currentThread().interrupt();
+            return List.of();
+        });
+
+        // Act
+        workflowEngine.runConsumerLoop(1, List.of(AgentType.PLANNER));
+
+        // Assert
+        verify(queue).popBatch(eq(List.of(AgentType.PLANNER)), anyInt(), any());
+    }
+}
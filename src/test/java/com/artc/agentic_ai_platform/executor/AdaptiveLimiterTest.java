@@ -0,0 +1,89 @@
+package com.artc.agentic_ai_platform.executor;
+
+import com.artc.agentic_ai_platform.config.AppConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveLimiterTest {
+
+    private final AppConfig.Adaptive config = new AppConfig.Adaptive();
+
+    @Test
+    void release_ShouldRaiseLimit_WhileLatencyStaysFlatUnderLoad() {
+        // Arrange
+        AdaptiveLimiter limiter = new AdaptiveLimiter("llm", 4, config);
+
+        // Act
+        for (int i = 0; i < 20; i++) saturatedCall(limiter, 100, false);
+
+        // Assert
+        assertTrue(limiter.getLimit() > 4, "Expected growth, limit is " + limiter.getLimit());
+    }
+
+    @Test
+    void release_ShouldLowerLimit_WhenLatencyRisesAboveBaseline() {
+        // Arrange
+        AdaptiveLimiter limiter = new AdaptiveLimiter("llm", 32, config);
+        for (int i = 0; i < 50; i++) saturatedCall(limiter, 100, false);
+        int healthy = limiter.getLimit();
+
+        // Act: the backend slows down 5x
+        for (int i = 0; i < 20; i++) saturatedCall(limiter, 500, false);
+
+        // Assert
+        assertTrue(limiter.getLimit() < healthy, "Expected " + limiter.getLimit() + " < " + healthy);
+        assertTrue(limiter.getLimit() >= config.getMinLimit());
+    }
+
+    @Test
+    void release_ShouldBackOff_OnFailures() {
+        // Arrange
+        AdaptiveLimiter limiter = new AdaptiveLimiter("llm", 20, config);
+
+        // Act
+        for (int i = 0; i < 5; i++) saturatedCall(limiter, 100, true);
+
+        // Assert
+        assertEquals(11, limiter.getLimit()); // 20 * 0.9^5 = 11.8
+    }
+
+    @Test
+    void release_ShouldNotGrow_WhenLimitIsNotUsed() {
+        // Arrange
+        AdaptiveLimiter limiter = new AdaptiveLimiter("llm", 10, config);
+
+        // Act: one call at a time, far below the limit
+        for (int i = 0; i < 20; i++) {
+            assertTrue(limiter.tryAcquire());
+            limiter.release(System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(100), false);
+        }
+
+        // Assert
+        assertEquals(10, limiter.getLimit());
+    }
+
+    @Test
+    void fixed_ShouldRefusePermitsBeyondLimit_AndNeverAdapt() {
+        // Arrange
+        AdaptiveLimiter limiter = AdaptiveLimiter.fixed("tools", 2);
+
+        // Act & Assert
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+
+        limiter.release(System.nanoTime(), true);
+        assertEquals(2, limiter.getLimit());
+        assertTrue(limiter.tryAcquire());
+    }
+
+    // Fills the limit, then completes one call with the given latency
+    private static void saturatedCall(AdaptiveLimiter limiter, long latencyMs, boolean failed) {
+        while (limiter.tryAcquire()) { /* take every free permit */ }
+        limiter.release(System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(latencyMs), failed);
+        for (int i = limiter.getInFlight(); i > 0; i--) limiter.cancel(); // Return the rest without samples
+    }
+}
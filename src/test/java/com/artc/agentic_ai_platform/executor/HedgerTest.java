@@ -0,0 +1,179 @@
+package com.artc.agentic_ai_platform.executor;
+
+import com.artc.agentic_ai_platform.config.AppConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HedgerTest {
+
+    private final AppConfig.Hedge config = new AppConfig.Hedge();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ExecutorService pool = Executors.newFixedThreadPool(2);
+
+    @BeforeEach
+    void setup() {
+        config.setEnabled(true);
+        config.setPercentile(50);
+        config.setBudgetPercent(100); // One hedge per call, unless a test says otherwise
+        config.setMinSamples(5);
+    }
+
+    @AfterEach
+    void teardown() {
+        pool.shutdownNow();
+    }
+
+    // Recent calls took 20ms, so anything running past ~20ms is slow
+    private Hedger warmHedger() {
+        Hedger hedger = new Hedger("test", config, registry);
+        for (int i = 0; i < 5; i++) hedger.record(TimeUnit.MILLISECONDS.toNanos(20));
+        return hedger;
+    }
+
+    private double count(String outcome) {
+        return registry.counter("hedge.requests", "client", "test", "outcome", outcome).count();
+    }
+
+    @Test
+    void race_ShouldNotHedge_BeforeEnoughSamples() {
+        // --- ARRANGE ---
+        Hedger hedger = new Hedger("test", config, registry);
+        for (int i = 0; i < 4; i++) hedger.record(1_000_000);
+        AtomicInteger calls = new AtomicInteger();
+        long delayBeforeRace = hedger.hedgeDelayNanos(); // Read now: the race's own sample may land after join()
+
+        // --- ACT ---
+        String result = hedger.race(() -> {
+            calls.incrementAndGet();
+            return CompletableFuture.supplyAsync(() -> "ok", CompletableFuture.delayedExecutor(100, TimeUnit.MILLISECONDS));
+        }).join();
+
+        // --- ASSERT ---
+        assertEquals(-1, delayBeforeRace);
+        assertEquals("ok", result);
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void race_ShouldTakeTheHedgesAnswer_AndCancelTheSlowCall() throws InterruptedException {
+        // --- ARRANGE ---
+        Hedger hedger = warmHedger();
+        List<CompletableFuture<String>> attempts = new ArrayList<>();
+        CompletableFuture<String> stuck = new CompletableFuture<>();
+
+        // --- ACT ---
+        String result = hedger.race(() -> {
+            CompletableFuture<String> attempt = attempts.isEmpty() ? stuck : CompletableFuture.completedFuture("from hedge");
+            attempts.add(attempt);
+            return attempt;
+        }).join();
+
+        // --- ASSERT ---
+        assertEquals("from hedge", result);
+        assertEquals(2, attempts.size());
+        assertTrue(stuck.isCancelled());
+        assertEquals(1.0, count("sent"));
+        for (int i = 0; i < 100 && count("won") == 0; i++) Thread.sleep(10); // Counted right after the result is published
+        assertEquals(1.0, count("won"));
+    }
+
+    @Test
+    void race_ShouldStopHedging_WhenBudgetIsSpent() {
+        // --- ARRANGE ---
+        config.setBudgetPercent(10);
+        Hedger hedger = warmHedger();
+        AtomicInteger calls = new AtomicInteger();
+
+        // --- ACT ---
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (int i = 0; i < 20; i++) { // Every call is slow: 20 calls earn 2 hedges
+            results.add(hedger.race(() -> {
+                calls.incrementAndGet();
+                return CompletableFuture.supplyAsync(() -> "slow", CompletableFuture.delayedExecutor(200, TimeUnit.MILLISECONDS));
+            }));
+        }
+        results.forEach(CompletableFuture::join);
+
+        // --- ASSERT ---
+        assertEquals(22, calls.get());
+        assertEquals(2.0, count("sent"));
+        assertEquals(18.0, count("no_budget"));
+    }
+
+    @Test
+    void race_ShouldReturnFailure_WhenFirstCallFailsBeforeHedging() {
+        // --- ARRANGE ---
+        Hedger hedger = warmHedger();
+        AtomicInteger calls = new AtomicInteger();
+
+        // --- ACT ---
+        CompletableFuture<String> result = hedger.race(() -> {
+            calls.incrementAndGet();
+            return CompletableFuture.failedFuture(new IllegalStateException("503"));
+        });
+
+        // --- ASSERT ---
+        CompletionException e = assertThrows(CompletionException.class, result::join);
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+        assertEquals(1, calls.get(), "A fast failure is not retried by the hedger");
+    }
+
+    @Test
+    void call_ShouldInterruptTheCaller_WhenTheHedgeWins() throws InterruptedException {
+        // --- ARRANGE ---
+        Hedger hedger = warmHedger();
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch callerInterrupted = new CountDownLatch(1);
+
+        // --- ACT ---
+        String result = hedger.call(() -> {
+            if (calls.incrementAndGet() > 1) return "from hedge";
+            try {
+                Thread.sleep(30_000);
+            } catch (InterruptedException e) {
+                callerInterrupted.countDown();
+            }
+            return "late";
+        }, pool);
+
+        // --- ASSERT ---
+        assertEquals("from hedge", result);
+        assertEquals(0, callerInterrupted.getCount());
+        for (int i = 0; i < 100 && hedger.recordedSamples() < 6; i++) Thread.sleep(10); // Recorded right after the result is published
+        assertEquals(6, hedger.recordedSamples(), "The hedge's win is a latency sample too");
+        assertFalse(Thread.currentThread().isInterrupted(), "The hedger clears the interrupt it sent");
+    }
+
+    @Test
+    void call_ShouldNotStartTheHedge_WhenFirstCallIsFast() throws Exception {
+        // --- ARRANGE ---
+        Hedger hedger = warmHedger();
+        AtomicInteger calls = new AtomicInteger();
+
+        // --- ACT ---
+        String result = hedger.call(() -> {
+            calls.incrementAndGet();
+            return "fast";
+        }, pool);
+        Thread.sleep(100); // Past the hedge delay
+
+        // --- ASSERT ---
+        assertEquals("fast", result);
+        assertEquals(1, calls.get());
+        assertEquals(0.0, count("sent"));
+    }
+}
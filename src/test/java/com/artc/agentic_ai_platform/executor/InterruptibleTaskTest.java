@@ -0,0 +1,80 @@
+package com.artc.agentic_ai_platform.executor;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InterruptibleTaskTest {
+
+    private final ExecutorService pool = Executors.newSingleThreadExecutor();
+
+    @AfterEach
+    void teardown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void timeout_ShouldInterruptTheRunningThread() throws InterruptedException {
+        // --- ARRANGE ---
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        CompletableFuture<String> task = InterruptibleTask.supplyAsync(() -> {
+            started.countDown();
+            try {
+                Thread.sleep(30_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return "late";
+        }, pool);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // --- ACT ---
+        task.orTimeout(50, TimeUnit.MILLISECONDS);
+
+        // --- ASSERT ---
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        assertTrue(task.isCompletedExceptionally());
+    }
+
+    @Test
+    void cancel_ShouldSkipWork_ThatHasNotStartedYet() throws Exception {
+        // --- ARRANGE ---
+        CountDownLatch release = new CountDownLatch(1);
+        pool.execute(() -> {
+            try { release.await(); } catch (InterruptedException ignored) {}
+        }); // Occupies the only thread
+        AtomicBoolean ran = new AtomicBoolean();
+        CompletableFuture<String> queued = InterruptibleTask.supplyAsync(() -> {
+            ran.set(true);
+            return "ran";
+        }, pool);
+
+        // --- ACT ---
+        queued.cancel(true);
+        release.countDown();
+
+        // --- ASSERT ---
+        pool.submit(() -> {}).get(5, TimeUnit.SECONDS); // Everything queued before this has been handled
+        assertFalse(ran.get());
+    }
+
+    @Test
+    void completion_ShouldNotLeaveThePoolThreadInterrupted() throws Exception {
+        // --- ACT ---
+        String result = InterruptibleTask.supplyAsync(() -> "done", pool).get(5, TimeUnit.SECONDS);
+        boolean nextTaskInterrupted = pool.submit(() -> Thread.currentThread().isInterrupted()).get(5, TimeUnit.SECONDS);
+
+        // --- ASSERT ---
+        assertEquals("done", result);
+        assertFalse(nextTaskInterrupted);
+    }
+}
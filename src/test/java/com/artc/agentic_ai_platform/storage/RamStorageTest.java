@@ -1,8 +1,14 @@
 package com.artc.agentic_ai_platform.storage;
 
+import com.github.benmanes.caffeine.cache.Ticker;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -36,27 +42,59 @@ class RamStorageTest {
     }
 
     @Test
-    void lruEviction_ShouldRemoveOldestAccessed_WhenLimitExceeded() {
+    void eviction_ShouldKeepFrequentlyUsedEntry_WhenLimitExceeded() {
         // --- ARRANGE ---
-        // Create a tiny storage with limit of 2 items
-        RamStorage storage = new RamStorage(2);
+        // Create a tiny storage with limit of 2 items (same-thread maintenance for determinism)
+        RamStorage storage = new RamStorage(2, 0, Ticker.systemTicker(), Runnable::run);
 
         storage.save("A", "val-A");
-        storage.save("B", "val-B"); // latest entry
+        storage.save("B", "val-B");
 
-        // --- Access A to make it "new" ---
-        storage.get("A", String.class);
+        // --- Make A "hot" ---
+        for (int i = 0; i < 5; i++) storage.get("A", String.class);
 
-        // Current State: [B, A] (A is now newest because we accessed it)
-
-        // --- Add C (overflow) ---
+        // --- Add more one-hit entries (overflow) ---
         storage.save("C", "val-C");
+        storage.save("D", "val-D");
 
         // --- ASSERT ---
-        // Expected State: [A, C] (B should be evicted)
-        assertTrue(storage.get("B", String.class).isEmpty(), "Item B should have been evicted");
-        assertTrue(storage.get("A", String.class).isPresent(), "Item A should remain");
-        assertTrue(storage.get("C", String.class).isPresent(), "Item C should exist");
+        // Frequency-aware policy: the hot entry survives a scan of one-hit wonders
+        assertTrue(storage.get("A", String.class).isPresent(), "Hot item A should remain");
+        assertEquals(2, storage.size());
+        assertEquals(2, storage.stats().evictionCount());
+    }
+
+    @Test
+    void save_ShouldExpireEntry_AfterTtl() {
+        // Arrange
+        AtomicLong nanos = new AtomicLong();
+        RamStorage storage = new RamStorage(10, 3600, nanos::get, Runnable::run);
+
+        storage.save("short", "v", 5);
+        storage.save("default", "v"); // Falls back to the 3600s default TTL
+
+        // Act
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(6));
+
+        // Assert
+        assertTrue(storage.get("short", String.class).isEmpty(), "Entry should expire after its own TTL");
+        assertTrue(storage.get("default", String.class).isPresent(), "Entry with default TTL should still be alive");
+    }
+
+    @Test
+    void stats_ShouldCountHitsAndMisses() {
+        // Arrange
+        RamStorage storage = new RamStorage(10);
+        storage.save("k1", "value1");
+
+        // Act
+        storage.get("k1", String.class);
+        storage.get("nope", String.class);
+        storage.multiGet(List.of("k1", "nope"), String.class);
+
+        // Assert
+        assertEquals(2, storage.stats().hitCount());
+        assertEquals(2, storage.stats().missCount());
     }
 
     @Test
@@ -71,4 +109,84 @@ class RamStorageTest {
             storage.get("k1", String.class);
         });
     }
+
+    @Test
+    void addToSet_ShouldCountDistinctMembers() {
+        // Arrange
+        RamStorage storage = new RamStorage(10);
+
+        // Act & Assert
+        assertEquals(1, storage.addToSet("wf-1:done", "LOG_ANALYZER"));
+        assertEquals(2, storage.addToSet("wf-1:done", "ERP_FETCHER"));
+        // Retried worker re-adding its tool must not inflate the count
+        assertEquals(2, storage.addToSet("wf-1:done", "LOG_ANALYZER"));
+    }
+
+    @Test
+    void multiGetAndMultiSave_ShouldRoundTrip_AndSkipMissingKeys() {
+        // Arrange
+        RamStorage storage = new RamStorage(10);
+        storage.multiSave(Map.of("k1", "v1", "k2", "v2"));
+
+        // Act
+        Map<String, String> result = storage.multiGet(List.of("k1", "missing", "k2"), String.class);
+
+        // Assert
+        assertEquals(Map.of("k1", "v1", "k2", "v2"), result);
+    }
+
+    @Test
+    void saveIfAbsent_ShouldKeepFirstValue_UntilItExpires() {
+        // Arrange
+        AtomicLong nanos = new AtomicLong();
+        RamStorage storage = new RamStorage(10, 3600, nanos::get, Runnable::run);
+
+        // Act & Assert
+        assertEquals(Optional.empty(), storage.saveIfAbsent("dedup", "wf-1", 60));
+        assertEquals(Optional.of("wf-1"), storage.saveIfAbsent("dedup", "wf-2", 60));
+
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(61));
+        assertEquals(Optional.empty(), storage.saveIfAbsent("dedup", "wf-3", 60));
+        assertEquals("wf-3", storage.get("dedup", String.class).orElseThrow());
+    }
+
+    @Test
+    void compareAndSet_ShouldReplaceOnlyTheExpectedValue() {
+        // Arrange
+        RamStorage storage = new RamStorage(10);
+        storage.save("dedup", "wf-1", 60);
+
+        // Act & Assert
+        assertFalse(storage.compareAndSet("dedup", "wf-other", "wf-2", 60));
+        assertTrue(storage.compareAndSet("dedup", "wf-1", "wf-2", 60));
+        assertFalse(storage.compareAndSet("dedup", "wf-1", "wf-3", 60)); // Already taken over
+        assertFalse(storage.compareAndSet("missing", "wf-1", "wf-3", 60));
+        assertEquals("wf-2", storage.get("dedup", String.class).orElseThrow());
+        assertTrue(storage.get("missing", String.class).isEmpty());
+    }
+
+    @Test
+    void deleteIfEquals_ShouldLeaveOtherValuesAlone() {
+        // Arrange
+        RamStorage storage = new RamStorage(10);
+        storage.save("dedup", "wf-2", 60);
+
+        // Act & Assert
+        assertFalse(storage.deleteIfEquals("dedup", "wf-1"));
+        assertEquals("wf-2", storage.get("dedup", String.class).orElseThrow());
+        assertTrue(storage.deleteIfEquals("dedup", "wf-2"));
+        assertTrue(storage.get("dedup", String.class).isEmpty());
+    }
+
+    @Test
+    void members_ShouldReturnSetContents() {
+        // Arrange
+        RamStorage storage = new RamStorage(10);
+        storage.addToSet("wf-1:incidents", "inc-1");
+        storage.addToSet("wf-1:incidents", "inc-2");
+
+        // Act & Assert
+        assertEquals(Set.of("inc-1", "inc-2"), storage.members("wf-1:incidents"));
+        assertEquals(Set.of(), storage.members("missing"));
+    }
 }
@@ -8,13 +8,21 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Answers;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -107,4 +115,70 @@ class RedisStorageTest {
         // Assert
         verify(redisTemplate).delete("key-to-delete");
     }
-}
\ No newline at end of file
+
+    @Test
+    void addToSet_ShouldRunAtomicScript_AndReturnSetSize() {
+        // Arrange
+        when(appConfig.getStorage().getDefaultTtlSec()).thenReturn(3600L);
+        when(redisTemplate.execute(any(RedisScript.class), any(RedisSerializer.class), any(RedisSerializer.class),
+                eq(List.of("wf-1:done")), eq("LOG_ANALYZER"), eq("3600"))).thenReturn(2L);
+
+        // Act
+        long size = redisStorage.addToSet("wf-1:done", "LOG_ANALYZER");
+
+        // Assert
+        assertEquals(2L, size);
+    }
+
+    @Test
+    void multiGet_ShouldIssueSingleMget_AndSkipMissingKeys() {
+        // Arrange
+        Object rawA = new Object();
+        when(valueOperations.multiGet(List.of("a", "b"))).thenReturn(Arrays.asList(rawA, null));
+        when(objectMapper.convertValue(rawA, String.class)).thenReturn("val-a");
+
+        // Act
+        Map<String, String> result = redisStorage.multiGet(List.of("a", "b"), String.class);
+
+        // Assert
+        assertEquals(Map.of("a", "val-a"), result);
+        verify(valueOperations, never()).get(any());
+    }
+
+    @Test
+    void saveIfAbsent_ShouldReturnCurrentOwner_WhenSetNxLoses() {
+        // Arrange
+        when(valueOperations.setIfAbsent("dedup", "wf-2", 60L, TimeUnit.SECONDS)).thenReturn(false);
+        when(valueOperations.get("dedup")).thenReturn("wf-1");
+        when(objectMapper.convertValue("wf-1", String.class)).thenReturn("wf-1");
+
+        // Act
+        Optional<String> owner = redisStorage.saveIfAbsent("dedup", "wf-2", 60);
+
+        // Assert
+        assertEquals(Optional.of("wf-1"), owner);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void compareAndSet_ShouldReportWhetherTheScriptReplacedTheValue() {
+        // Arrange
+        when(redisTemplate.getValueSerializer()).thenReturn((RedisSerializer) RedisSerializer.string());
+        when(redisTemplate.execute(any(RedisCallback.class))).thenReturn(1L, 0L);
+
+        // Act & Assert
+        assertTrue(redisStorage.compareAndSet("dedup", "wf-1", "wf-2", 60));
+        assertFalse(redisStorage.compareAndSet("dedup", "wf-1", "wf-3", 60));
+        verify(valueOperations, never()).set(any(), any(), anyLong(), any()); // Only through the script
+    }
+
+    @Test
+    void saveIfAbsent_ShouldReturnEmpty_WhenSetNxWins() {
+        // Arrange
+        when(valueOperations.setIfAbsent("dedup", "wf-1", 60L, TimeUnit.SECONDS)).thenReturn(true);
+
+        // Act & Assert
+        assertEquals(Optional.empty(), redisStorage.saveIfAbsent("dedup", "wf-1", 60));
+        verify(valueOperations, never()).get(any());
+    }
+}
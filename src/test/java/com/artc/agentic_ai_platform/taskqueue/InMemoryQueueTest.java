@@ -1,8 +1,12 @@
 package com.artc.agentic_ai_platform.taskqueue;
 
+import com.artc.agentic_ai_platform.model.AgentType;
 import com.artc.agentic_ai_platform.model.Task;
+import com.artc.agentic_ai_platform.model.TaskPriority;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -40,4 +44,146 @@ class InMemoryQueueTest {
         // Verify it actually waited (approx 2000ms)
         assertTrue(duration >= 1900, "Should wait for timeout before returning empty");
     }
-}
\ No newline at end of file
+
+    @Test
+    void pop_ShouldHoldBackRetry_UntilItIsDue() {
+        // Arrange
+        InMemoryQueue queue = new InMemoryQueue();
+        Task retry = Task.builder().taskId("retry-1").nextRetryTimestamp(System.currentTimeMillis() + 500).build();
+        Task fresh = Task.builder().taskId("fresh-1").build();
+
+        // Act
+        queue.push(retry);
+        queue.push(fresh);
+
+        // Assert
+        // Fresh work is served first, the backing-off retry is invisible until due
+        assertEquals("fresh-1", queue.pop().orElseThrow().getTaskId());
+
+        long start = System.currentTimeMillis();
+        Optional<Task> result = queue.pop();
+        long duration = System.currentTimeMillis() - start;
+
+        assertTrue(result.isPresent());
+        assertEquals("retry-1", result.get().getTaskId());
+        assertTrue(duration < 1500, "Should wake up when the retry is due, not at the poll timeout");
+        assertTrue(System.currentTimeMillis() >= retry.getNextRetryTimestamp(), "Should not be handed out early");
+    }
+
+    @Test
+    void popBatch_ShouldDrainReadyTasks_UpToMax() {
+        // Arrange
+        InMemoryQueue queue = new InMemoryQueue();
+        queue.pushAll(List.of(
+                Task.builder().taskId("a").build(),
+                Task.builder().taskId("b").build(),
+                Task.builder().taskId("c").build()));
+
+        // Act
+        List<Task> first = queue.popBatch(2, Duration.ofSeconds(1));
+        List<Task> second = queue.popBatch(2, Duration.ofSeconds(1));
+
+        // Assert
+        assertEquals(List.of("a", "b"), first.stream().map(Task::getTaskId).toList());
+        assertEquals(List.of("c"), second.stream().map(Task::getTaskId).toList());
+    }
+
+    @Test
+    void popBatch_ShouldReturnEmptyList_OnTimeout() {
+        // Arrange
+        InMemoryQueue queue = new InMemoryQueue();
+
+        // Act
+        List<Task> result = queue.popBatch(5, Duration.ofMillis(200));
+
+        // Assert
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    void popBatch_ShouldPreferLanesCloserToCompletion() {
+        // Arrange
+        InMemoryQueue queue = new InMemoryQueue();
+        queue.pushAll(List.of(
+                Task.builder().taskId("plan").targetAgent(AgentType.PLANNER).build(),
+                Task.builder().taskId("work").targetAgent(AgentType.WORKER).build(),
+                Task.builder().taskId("review").targetAgent(AgentType.REVIEWER).build()));
+
+        // Act
+        List<Task> result = queue.popBatch(3, Duration.ofSeconds(1));
+
+        // Assert
+        assertEquals(List.of("review", "work", "plan"), result.stream().map(Task::getTaskId).toList());
+    }
+
+    @Test
+    void popBatch_ShouldOnlyServeRequestedLanes() {
+        // Arrange
+        InMemoryQueue queue = new InMemoryQueue();
+        queue.push(Task.builder().taskId("review").targetAgent(AgentType.REVIEWER).build());
+        queue.push(Task.builder().taskId("plan").build()); // No target agent => planner lane
+
+        // Act
+        List<Task> plannerOnly = queue.popBatch(List.of(AgentType.PLANNER), 5, Duration.ofMillis(200));
+        List<Task> workerOnly = queue.popBatch(List.of(AgentType.WORKER), 5, Duration.ofMillis(200));
+
+        // Assert
+        assertEquals(List.of("plan"), plannerOnly.stream().map(Task::getTaskId).toList());
+        assertTrue(workerOnly.isEmpty());
+        assertEquals("review", queue.pop().orElseThrow().getTaskId());
+    }
+
+    @Test
+    void popBatch_ShouldServeCriticalIncidentsFirst_AcrossLanes() {
+        // Arrange
+        InMemoryQueue queue = new InMemoryQueue();
+        queue.pushAll(List.of(
+                Task.builder().taskId("routine-review").targetAgent(AgentType.REVIEWER).build(),
+                Task.builder().taskId("routine-plan").targetAgent(AgentType.PLANNER).build()));
+        queue.push(Task.builder().taskId("safety-plan").targetAgent(AgentType.PLANNER).priority(TaskPriority.CRITICAL).build());
+
+        // Act
+        List<Task> result = queue.popBatch(3, Duration.ofSeconds(1));
+
+        // Assert
+        assertEquals(List.of("safety-plan", "routine-review", "routine-plan"), result.stream().map(Task::getTaskId).toList());
+    }
+
+    @Test
+    void popBatch_ShouldAgeWaitingTasks_SoTheyAreNotStarved() throws InterruptedException {
+        // Arrange
+        InMemoryQueue queue = new InMemoryQueue(Duration.ofMillis(100));
+        queue.push(Task.builder().taskId("low").priority(TaskPriority.LOW).build());
+        Thread.sleep(350); // Three intervals: LOW has aged up to CRITICAL
+        queue.push(Task.builder().taskId("critical").priority(TaskPriority.CRITICAL).build());
+
+        // Act
+        List<Task> result = queue.popBatch(2, Duration.ofSeconds(1));
+
+        // Assert
+        assertEquals(List.of("low", "critical"), result.stream().map(Task::getTaskId).toList());
+    }
+
+    @Test
+    void offer_ShouldRefuseNewWork_WhenAtCapacity_ButPushStaysUnbounded() {
+        // Arrange
+        InMemoryQueue queue = new InMemoryQueue(Duration.ofSeconds(60), 2);
+
+        // Act
+        boolean first = queue.offer(Task.builder().taskId("in-1").build());
+        boolean second = queue.offer(Task.builder().taskId("in-2").build());
+        boolean third = queue.offer(Task.builder().taskId("in-3").build());
+        queue.push(Task.builder().taskId("downstream-1").targetAgent(AgentType.WORKER).build());
+
+        // Assert
+        assertTrue(first);
+        assertTrue(second);
+        assertFalse(third);
+        assertEquals(2, queue.depth(AgentType.PLANNER));
+        assertEquals(1, queue.depth(AgentType.WORKER)); // Accepted work may still fan out
+
+        queue.popBatch(List.of(AgentType.PLANNER), 2, Duration.ofMillis(100));
+        queue.popBatch(List.of(AgentType.WORKER), 1, Duration.ofMillis(100));
+        assertTrue(queue.offer(Task.builder().taskId("in-4").build()));
+    }
+}
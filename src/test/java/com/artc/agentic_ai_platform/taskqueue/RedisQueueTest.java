@@ -1,17 +1,27 @@
 package com.artc.agentic_ai_platform.taskqueue;
 
+import com.artc.agentic_ai_platform.model.AgentType;
 import com.artc.agentic_ai_platform.model.Task;
+import com.artc.agentic_ai_platform.model.TaskPriority;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.redis.core.ListOperations;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -22,6 +32,7 @@ class RedisQueueTest {
 
     @Mock private RedisTemplate<String, Object> redisTemplate;
     @Mock private ListOperations<String, Object> listOperations;
+    @Mock private ZSetOperations<String, Object> zSetOperations;
     @Mock private ObjectMapper objectMapper;
 
     private RedisQueue redisQueue;
@@ -29,12 +40,13 @@ class RedisQueueTest {
     @BeforeEach
     void setup() {
         // Mock the intermediate operations call
-        when(redisTemplate.opsForList()).thenReturn(listOperations);
+        lenient().when(redisTemplate.opsForList()).thenReturn(listOperations);
+        lenient().when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
         redisQueue = new RedisQueue(redisTemplate, objectMapper);
     }
 
     @Test
-    void push_ShouldDelegateToRedisLeftPush() {
+    void push_ShouldAddToLaneSortedSet_AndLeaveWakeupToken() {
         // Arrange
         Task task = Task.builder().taskId("t1").build();
 
@@ -42,14 +54,31 @@ class RedisQueueTest {
         redisQueue.push(task);
 
         // Assert
-        verify(listOperations).leftPush(eq("task_queue"), eq(task));
+        verify(zSetOperations).add(eq("task_queue:planner"), eq(task), anyDouble());
+        verify(listOperations).leftPush("task_queue:planner:wakeup", "1");
+    }
+
+    @Test
+    void push_ShouldScoreHigherPriorityAhead_OfOlderRoutineTasks() {
+        // Arrange
+        Task routine = Task.builder().taskId("routine").targetAgent(AgentType.WORKER).build();
+        Task critical = Task.builder().taskId("critical").targetAgent(AgentType.WORKER).priority(TaskPriority.CRITICAL).build();
+        ArgumentCaptor<Double> scores = ArgumentCaptor.forClass(Double.class);
+
+        // Act
+        redisQueue.push(routine);
+        redisQueue.push(critical);
+
+        // Assert
+        verify(zSetOperations, times(2)).add(eq("task_queue:worker"), any(), scores.capture());
+        assertTrue(scores.getAllValues().get(1) < scores.getAllValues().get(0), "Lowest score is popped first");
     }
 
     @Test
     void pop_ShouldReturnEmpty_WhenRedisReturnsNull() {
         // Arrange
-        when(listOperations.rightPop(eq("task_queue"), anyLong(), any(TimeUnit.class)))
-                .thenReturn(null);
+        stubDrain(List.of());
+        when(redisTemplate.execute(any(RedisCallback.class))).thenReturn(null); // BRPOP timed out
 
         // Act
         Optional<Task> result = redisQueue.pop();
@@ -64,8 +93,7 @@ class RedisQueueTest {
         Object rawRedisObject = new Object(); // Simulating a LinkedHashMap or raw object
         Task expectedTask = Task.builder().taskId("t2").build();
 
-        when(listOperations.rightPop(eq("task_queue"), anyLong(), any(TimeUnit.class)))
-                .thenReturn(rawRedisObject);
+        stubDrain(List.of(rawRedisObject));
 
         // Mock the mapper conversion
         when(objectMapper.convertValue(rawRedisObject, Task.class)).thenReturn(expectedTask);
@@ -77,4 +105,92 @@ class RedisQueueTest {
         assertTrue(result.isPresent());
         assertEquals("t2", result.get().getTaskId());
     }
-}
\ No newline at end of file
+
+    @Test
+    void push_ShouldParkRetryInDelaySet_WhenNotYetDue() {
+        // Arrange
+        long due = System.currentTimeMillis() + 60_000;
+        Task task = Task.builder().taskId("t3").retryCount(1).nextRetryTimestamp(due).build();
+
+        // Act
+        redisQueue.push(task);
+
+        // Assert
+        verify(zSetOperations).add(eq("task_queue:planner:delayed"), eq(task), eq((double) due));
+        verify(listOperations, never()).leftPush(anyString(), any());
+    }
+
+    @Test
+    void pushAll_ShouldSendAllTasksInOnePipeline() {
+        // Arrange
+        Task a = Task.builder().taskId("a").build();
+        Task b = Task.builder().taskId("b").targetAgent(AgentType.REVIEWER).build();
+
+        // Act
+        redisQueue.pushAll(List.of(a, b));
+
+        // Assert
+        verify(redisTemplate).executePipelined(any(SessionCallback.class));
+        verify(listOperations, never()).leftPush(anyString(), any());
+    }
+
+    @Test
+    void push_ShouldRouteTaskToItsAgentLane() {
+        // Arrange
+        Task review = Task.builder().taskId("r1").targetAgent(AgentType.REVIEWER).build();
+        Task work = Task.builder().taskId("w1").targetAgent(AgentType.WORKER).build();
+
+        // Act
+        redisQueue.push(review);
+        redisQueue.push(work);
+
+        // Assert
+        verify(zSetOperations).add(eq("task_queue:reviewer"), eq(review), anyDouble());
+        verify(zSetOperations).add(eq("task_queue:worker"), eq(work), anyDouble());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void popBatch_ShouldDrainLanesInPreferenceOrder_WithoutBlocking() {
+        // Arrange
+        Object rawA = new Object();
+        stubDrain(List.of(rawA));
+        when(objectMapper.convertValue(rawA, Task.class)).thenReturn(Task.builder().taskId("a").build());
+
+        // Act
+        List<Task> result = redisQueue.popBatch(List.of(AgentType.REVIEWER, AgentType.PLANNER), 5, Duration.ofSeconds(2));
+
+        // Assert
+        assertEquals(List.of("a"), result.stream().map(Task::getTaskId).toList());
+        verify(redisTemplate).execute(any(RedisScript.class), any(RedisSerializer.class), nullable(RedisSerializer.class),
+                eq(List.of("task_queue:reviewer", "task_queue:planner", "task_queue:reviewer:wakeup", "task_queue:planner:wakeup")),
+                eq("5"), anyString(), anyString());
+        verify(redisTemplate, never()).execute(any(RedisCallback.class));
+    }
+
+    @Test
+    void popBatch_ShouldBlockOnWakeupLists_WhenEveryLaneIsEmpty() {
+        // Arrange
+        Object rawA = new Object();
+        stubDrain(List.of(), List.of(rawA)); // Empty, then the task whose push woke us up
+        when(redisTemplate.execute(any(RedisCallback.class))).thenReturn(List.of("task_queue:planner:wakeup".getBytes(), "1".getBytes()));
+        when(objectMapper.convertValue(rawA, Task.class)).thenReturn(Task.builder().taskId("a").build());
+
+        // Act
+        List<Task> result = redisQueue.popBatch(1, Duration.ofSeconds(2));
+
+        // Assert
+        assertEquals(1, result.size());
+        verify(redisTemplate).execute(any(RedisCallback.class));
+    }
+
+    // Promote script returns "no pending retries"; drain script returns the given raw values, one list per call
+    @SafeVarargs
+    @SuppressWarnings("unchecked")
+    private void stubDrain(List<Object>... drained) {
+        AtomicInteger drains = new AtomicInteger();
+        lenient().when(redisTemplate.execute(any(RedisScript.class), any(RedisSerializer.class), nullable(RedisSerializer.class), anyList(), any(Object[].class)))
+                .thenAnswer(inv -> ((RedisScript<?>) inv.getArgument(0)).getResultType() == Long.class ? -1L
+                        : drained[Math.min(drains.getAndIncrement(), drained.length - 1)]);
+    }
+}
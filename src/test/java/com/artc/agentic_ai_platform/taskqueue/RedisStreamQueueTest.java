@@ -0,0 +1,214 @@
+package com.artc.agentic_ai_platform.taskqueue;
+
+import com.artc.agentic_ai_platform.config.AppConfig;
+import com.artc.agentic_ai_platform.model.AgentType;
+import com.artc.agentic_ai_platform.model.Task;
+import com.artc.agentic_ai_platform.model.TaskPriority;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Runs against a real Redis (6.2+) on localhost:6379, using database 15.
+ * Skipped when no local instance is reachable, e.g. `docker run -p 6379:6379 redis:7`.
+ */
+class RedisStreamQueueTest {
+
+    private static LettuceConnectionFactory connectionFactory;
+    private static StringRedisTemplate template;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final AppConfig appConfig = new AppConfig();
+
+    @BeforeAll
+    static void connect() {
+        assumeTrue(isRedisReachable(), "No local Redis on localhost:6379");
+
+        RedisStandaloneConfiguration config = new RedisStandaloneConfiguration("localhost", 6379);
+        config.setDatabase(15);
+        connectionFactory = new LettuceConnectionFactory(config);
+        connectionFactory.afterPropertiesSet();
+        template = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void disconnect() {
+        if (connectionFactory != null) connectionFactory.destroy();
+    }
+
+    @BeforeEach
+    void cleanup() {
+        for (AgentType lane : AgentType.values()) {
+            template.delete(List.of(RedisStreamQueue.streamKey(lane), RedisStreamQueue.delayedKey(lane)));
+        }
+    }
+
+    @Test
+    void pushPopAck_ShouldDeliverTask_AndRemoveEntryAfterAck() {
+        // Arrange
+        RedisStreamQueue queue = new RedisStreamQueue(template, mapper, appConfig, "node-a");
+        Task task = Task.builder().taskId("s-1").workflowId("wf-s").targetAgent(AgentType.WORKER)
+                .toolArguments(List.of("a", "b")).build();
+
+        String workerStream = RedisStreamQueue.streamKey(AgentType.WORKER); // WORKER lane
+
+        // Act
+        queue.push(task);
+        Optional<Task> popped = queue.pop();
+
+        // Assert
+        assertTrue(popped.isPresent());
+        assertEquals("s-1", popped.get().getTaskId());
+        assertEquals(List.of("a", "b"), popped.get().getToolArguments());
+        assertEquals(1L, template.opsForStream().pending(workerStream, RedisStreamQueue.GROUP).getTotalPendingMessages());
+
+        queue.ack(popped.get());
+        assertEquals(0L, template.opsForStream().pending(workerStream, RedisStreamQueue.GROUP).getTotalPendingMessages());
+        assertEquals(0L, template.opsForStream().size(workerStream));
+    }
+
+    @Test
+    void pop_ShouldReadOnlyAsManyEntriesAsAskedFor() {
+        // Arrange
+        RedisStreamQueue queue = new RedisStreamQueue(template, mapper, appConfig, "node-a");
+        for (int i = 0; i < 3; i++) queue.push(Task.builder().taskId("b-" + i).build());
+
+        // Act
+        queue.pop();
+
+        // Assert
+        // Nothing buffered beyond the one task: the others stay free for any node
+        assertEquals(1L, template.opsForStream().pending(RedisStreamQueue.STREAM_KEY, RedisStreamQueue.GROUP).getTotalPendingMessages());
+        assertEquals(List.of("b-1", "b-2"), queue.popBatch(5, Duration.ofSeconds(1)).stream().map(Task::getTaskId).toList());
+    }
+
+    @Test
+    void pop_ShouldReclaimEntriesLeftPendingByCrashedConsumer() throws InterruptedException {
+        // Arrange
+        appConfig.getQueue().getStream().setClaimIdleSec(1);
+        RedisStreamQueue crashed = new RedisStreamQueue(template, mapper, appConfig, "node-crashed");
+        RedisStreamQueue survivor = new RedisStreamQueue(template, mapper, appConfig, "node-live");
+
+        crashed.push(Task.builder().taskId("lost-1").build());
+        assertTrue(crashed.pop().isPresent()); // Delivered, never acked
+        crashed.close(); // The node dies: nothing refreshes its ownership any more
+
+        // Act
+        Thread.sleep(1100);
+        Optional<Task> reclaimed = survivor.pop();
+
+        // Assert
+        assertTrue(reclaimed.isPresent(), "Live consumer should take over the stalled entry");
+        assertEquals("lost-1", reclaimed.get().getTaskId());
+    }
+
+    @Test
+    void pop_ShouldNotReclaimEntries_ThatALiveConsumerStillHolds() throws InterruptedException {
+        // Arrange
+        appConfig.getQueue().getStream().setClaimIdleSec(1);
+        try (RedisStreamQueue busy = new RedisStreamQueue(template, mapper, appConfig, "node-busy");
+             RedisStreamQueue other = new RedisStreamQueue(template, mapper, appConfig, "node-other")) {
+
+            busy.push(Task.builder().taskId("slow-1").build());
+            assertTrue(busy.pop().isPresent()); // Running inline: this node does not poll again for a while
+
+            // Act
+            Thread.sleep(1500);
+            List<Task> stolen = other.popBatch(1, Duration.ofMillis(100));
+            List<Task> again = busy.popBatch(1, Duration.ofMillis(100));
+
+            // Assert
+            assertTrue(stolen.isEmpty(), "A live consumer's entry must not be reclaimed");
+            assertTrue(again.isEmpty(), "Its own entry must not be handed out twice");
+        }
+    }
+
+    @Test
+    void pop_ShouldHoldBackRetry_UntilItIsDue() throws InterruptedException {
+        // Arrange
+        RedisStreamQueue queue = new RedisStreamQueue(template, mapper, appConfig, "node-a");
+        queue.push(Task.builder().taskId("r-1").nextRetryTimestamp(System.currentTimeMillis() + 1000).build());
+
+        // Act & Assert
+        assertEquals(0L, template.opsForStream().size(RedisStreamQueue.STREAM_KEY));
+        Thread.sleep(1100);
+        assertEquals("r-1", queue.pop().orElseThrow().getTaskId());
+    }
+
+    @Test
+    void pushAllAndPopBatch_ShouldRoundTripAllTasks() {
+        // Arrange
+        RedisStreamQueue queue = new RedisStreamQueue(template, mapper, appConfig, "node-a");
+        List<Task> tasks = List.of(Task.builder().taskId("p-1").build(), Task.builder().taskId("p-2").build(),
+                Task.builder().taskId("p-3").nextRetryTimestamp(System.currentTimeMillis() + 60_000).build());
+
+        // Act
+        queue.pushAll(tasks);
+        List<Task> batch = queue.popBatch(10, Duration.ofSeconds(1));
+
+        // Assert
+        assertEquals(List.of("p-1", "p-2"), batch.stream().map(Task::getTaskId).toList());
+        assertEquals(1L, template.opsForZSet().size(RedisStreamQueue.delayedKey(AgentType.PLANNER))); // Retry parked, not streamed
+    }
+
+    @Test
+    void popBatch_ShouldReadLaneStreamsInPreferenceOrder() {
+        // Arrange
+        RedisStreamQueue queue = new RedisStreamQueue(template, mapper, appConfig, "node-a");
+        queue.pushAll(List.of(
+                Task.builder().taskId("plan").targetAgent(AgentType.PLANNER).build(),
+                Task.builder().taskId("review").targetAgent(AgentType.REVIEWER).build()));
+
+        // Act
+        List<Task> workerOnly = queue.popBatch(List.of(AgentType.WORKER), 5, Duration.ofMillis(100));
+        List<Task> first = queue.popBatch(1, Duration.ofSeconds(1));
+        List<Task> second = queue.popBatch(1, Duration.ofSeconds(1));
+        first.forEach(queue::ack);
+        second.forEach(queue::ack);
+
+        // Assert
+        assertTrue(workerOnly.isEmpty());
+        assertEquals("review", first.get(0).getTaskId());
+        assertEquals("plan", second.get(0).getTaskId());
+        assertEquals(0L, template.opsForStream().size(RedisStreamQueue.streamKey(AgentType.REVIEWER))); // Acked on its own stream
+        assertEquals(0L, template.opsForStream().size(RedisStreamQueue.STREAM_KEY));
+    }
+
+    @Test
+    void popBatch_ShouldHandOutCriticalTasksFirst_WithinAReadBatch() {
+        // Arrange
+        RedisStreamQueue queue = new RedisStreamQueue(template, mapper, appConfig, "node-a");
+        queue.pushAll(List.of(
+                Task.builder().taskId("routine").build(),
+                Task.builder().taskId("safety").priority(TaskPriority.CRITICAL).build()));
+
+        // Act
+        List<Task> batch = queue.popBatch(2, Duration.ofSeconds(1));
+
+        // Assert
+        assertEquals(List.of("safety", "routine"), batch.stream().map(Task::getTaskId).toList());
+    }
+
+    private static boolean isRedisReachable() {
+        try (Socket s = new Socket()) {
+            s.connect(new InetSocketAddress("localhost", 6379), 300);
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+}
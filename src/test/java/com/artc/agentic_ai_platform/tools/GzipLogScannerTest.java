@@ -0,0 +1,166 @@
+package com.artc.agentic_ai_platform.tools;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GzipLogScannerTest {
+
+    @TempDir Path dir;
+
+    private final ExecutorService pool = Executors.newFixedThreadPool(4);
+    private final LineMatcher errors = KeywordMatcher.of(List.of("drift", "error", "critical"));
+    private final GzipLogScanner gzip = new GzipLogScanner(1000, pool); // Lines cross piece boundaries
+
+    @AfterEach
+    void teardown() {
+        pool.shutdownNow();
+    }
+
+    // CRLF lines, a match every few lines, a non-ASCII character and no '\n' at the very end
+    private static String bigLog(int lines) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < lines; i++) {
+            String level = i % 7 == 0 ? "ERROR 150°C" : i % 11 == 0 ? "WARN drift" : "INFO";
+            sb.append(String.format("[10:%02d:%02d] %s line %d\r\n", i / 60 % 60, i % 60, level, i));
+        }
+        return sb.append("[11:00:00] CRITICAL last line").toString();
+    }
+
+    private List<String> plain(String content, int limit) throws IOException {
+        Path file = Files.writeString(dir.resolve("plain.log"), content, StandardCharsets.UTF_8);
+        return new MappedLogScanner(4096, pool).scan(file, errors, limit);
+    }
+
+    private static byte[] gzip(byte[] content) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (OutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(content);
+        }
+        return out.toByteArray();
+    }
+
+    // BGZF: one gzip member per 'blockBytes' of text, each with its size in a "BC" extra field
+    private static byte[] bgzf(byte[] content, int blockBytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int start = 0; start < content.length; start += blockBytes) {
+            int length = Math.min(blockBytes, content.length - start);
+            Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+            deflater.setInput(content, start, length);
+            deflater.finish();
+            byte[] compressed = new byte[length + 1024];
+            int size = 0;
+            while (!deflater.finished()) size += deflater.deflate(compressed, size, compressed.length - size);
+            deflater.end();
+            CRC32 crc = new CRC32();
+            crc.update(content, start, length);
+
+            ByteBuffer member = ByteBuffer.allocate(18 + size + 8).order(ByteOrder.LITTLE_ENDIAN);
+            member.put((byte) 0x1F).put((byte) 0x8B).put((byte) 8).put((byte) 4).putInt(0).put((byte) 0).put((byte) 0xFF)
+                    .putShort((short) 6).put((byte) 'B').put((byte) 'C').putShort((short) 2).putShort((short) (18 + size + 8 - 1))
+                    .put(compressed, 0, size).putInt((int) crc.getValue()).putInt(length);
+            out.writeBytes(member.array());
+        }
+        return out.toByteArray();
+    }
+
+    private Path write(String name, byte[] bytes) throws IOException {
+        return Files.write(dir.resolve(name), bytes);
+    }
+
+    @Test
+    void scan_ShouldMatchThePlainFile_ForASingleStream() throws IOException {
+        // --- ARRANGE ---
+        String content = bigLog(3_000);
+        Path file = write("sensor.log.gz", gzip(content.getBytes(StandardCharsets.UTF_8)));
+
+        // --- ACT & ASSERT ---
+        assertEquals(plain(content, 50), gzip.scan(file, errors, 50));
+        assertEquals(plain(content, Integer.MAX_VALUE), gzip.scan(file, errors, Integer.MAX_VALUE));
+    }
+
+    @Test
+    void scan_ShouldReadConcatenatedMembers_InOrder() throws IOException {
+        // --- ARRANGE ---
+        String first = bigLog(500) + "\n";
+        String second = bigLog(700);
+        ByteArrayOutputStream both = new ByteArrayOutputStream();
+        both.writeBytes(gzip(first.getBytes(StandardCharsets.UTF_8)));
+        both.writeBytes(gzip(second.getBytes(StandardCharsets.UTF_8)));
+        Path file = write("sensor.log.1.gz", both.toByteArray());
+
+        // --- ACT & ASSERT ---
+        assertEquals(plain(first + second, Integer.MAX_VALUE), gzip.scan(file, errors, Integer.MAX_VALUE));
+    }
+
+    @Test
+    void scan_ShouldInflateBgzfMembersInParallel_WithTheSameAnswer() throws IOException {
+        // --- ARRANGE ---
+        String content = bigLog(3_000);
+        Path file = write("sensor.log.bgz.gz", bgzf(content.getBytes(StandardCharsets.UTF_8), 777));
+
+        // --- ACT ---
+        List<long[]> groups;
+        try (FileChannel channel = FileChannel.open(file)) {
+            groups = gzip.memberGroups(channel);
+        }
+
+        // --- ASSERT ---
+        assertNotNull(groups);
+        assertTrue(groups.size() > 10, "Several member groups to inflate side by side");
+        assertEquals(plain(content, 50), gzip.scan(file, errors, 50));
+        assertEquals(plain(content, Integer.MAX_VALUE), gzip.scan(file, errors, Integer.MAX_VALUE));
+    }
+
+    @Test
+    void memberGroups_ShouldBeNull_ForAPlainGzipFile() throws IOException {
+        // --- ARRANGE ---
+        Path file = write("sensor.log.gz", gzip(bigLog(10).getBytes(StandardCharsets.UTF_8)));
+
+        // --- ACT & ASSERT ---
+        try (FileChannel channel = FileChannel.open(file)) {
+            assertNull(gzip.memberGroups(channel));
+        }
+    }
+
+    @Test
+    void scan_ShouldFail_OnCorruptMember() throws IOException {
+        // --- ARRANGE ---
+        byte[] bytes = bgzf(bigLog(300).getBytes(StandardCharsets.UTF_8), 777);
+        bytes[bytes.length / 2] ^= 0x55;
+        Path file = write("broken.log.gz", bytes);
+
+        // --- ACT & ASSERT ---
+        assertThrows(ZipException.class, () -> gzip.scan(file, errors, Integer.MAX_VALUE));
+    }
+
+    @Test
+    void scan_ShouldReturnNothing_ForEmptyContent() throws IOException {
+        // --- ARRANGE ---
+        Path compressedEmpty = write("empty.log.gz", gzip(new byte[0]));
+        Path zeroBytes = write("zero.log.gz", new byte[0]);
+
+        // --- ACT & ASSERT ---
+        assertTrue(gzip.scan(compressedEmpty, errors, 50).isEmpty());
+        assertTrue(gzip.scan(zeroBytes, errors, 50).isEmpty());
+    }
+}
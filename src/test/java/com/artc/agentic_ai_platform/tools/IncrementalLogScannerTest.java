@@ -0,0 +1,146 @@
+package com.artc.agentic_ai_platform.tools;
+
+import com.artc.agentic_ai_platform.storage.RamStorage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IncrementalLogScannerTest {
+
+    @TempDir Path dir;
+
+    private final ExecutorService pool = Executors.newFixedThreadPool(4);
+    private final RamStorage storage = new RamStorage(100);
+    private final AtomicInteger linesTested = new AtomicInteger();
+    private final KeywordMatcher errors = KeywordMatcher.of(List.of("error"));
+    private final LineMatcher countingErrors = (buf, start, end) -> {
+        linesTested.incrementAndGet();
+        return errors.matches(buf, start, end);
+    };
+    private final IncrementalLogScanner tailer = new IncrementalLogScanner(new MappedLogScanner(64, pool), storage, 0);
+
+    @AfterEach
+    void teardown() {
+        pool.shutdownNow();
+    }
+
+    private Path log() {
+        return dir.resolve("sensor.log");
+    }
+
+    private void append(String content) throws IOException {
+        Files.writeString(log(), content, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private List<String> scan(int limit) throws IOException {
+        linesTested.set(0);
+        return tailer.scan(log(), "error", countingErrors, limit);
+    }
+
+    @Test
+    void scan_ShouldReadOnlyAppendedLines_AndKeepTheLatestMatches() throws IOException {
+        // --- ARRANGE ---
+        StringBuilder first = new StringBuilder();
+        for (int i = 0; i < 20; i++) first.append(i % 2 == 0 ? "ERROR e" : "INFO i").append(i).append('\n');
+        append(first.toString());
+
+        // --- ACT ---
+        List<String> initial = scan(3);
+        int initialTested = linesTested.get();
+        append("INFO i20\nERROR e21\n");
+        List<String> next = scan(3);
+
+        // --- ASSERT ---
+        assertEquals(List.of("ERROR e14", "ERROR e16", "ERROR e18"), initial);
+        assertEquals(20, initialTested);
+        assertEquals(List.of("ERROR e16", "ERROR e18", "ERROR e21"), next);
+        assertEquals(2, linesTested.get(), "Only the appended lines are tested");
+    }
+
+    @Test
+    void scan_ShouldLeaveUnfinishedLine_ForTheNextScan() throws IOException {
+        // --- ARRANGE ---
+        append("ERROR one\nERROR tw");
+
+        // --- ACT ---
+        List<String> partial = scan(10);
+        append("o\n");
+        List<String> completed = scan(10);
+        List<String> unchanged = scan(10);
+
+        // --- ASSERT ---
+        assertEquals(List.of("ERROR one"), partial);
+        assertEquals(List.of("ERROR one", "ERROR two"), completed);
+        assertEquals(completed, unchanged);
+        assertEquals(0, linesTested.get(), "Nothing new: the stored summary is returned as is");
+    }
+
+    @Test
+    void scan_ShouldStartOver_WhenFileIsTruncated() throws IOException {
+        // --- ARRANGE ---
+        append("ERROR old one\nERROR old two\n");
+        scan(10);
+
+        // --- ACT ---
+        Files.writeString(log(), "ERROR new\n"); // Same file, truncated
+        List<String> lines = scan(10);
+
+        // --- ASSERT ---
+        assertEquals(List.of("ERROR new"), lines);
+    }
+
+    @Test
+    void scan_ShouldStartOver_WhenFileIsRewrittenPastTheOffset() throws IOException {
+        // --- ARRANGE ---
+        append("ERROR old\n");
+        scan(10);
+
+        // --- ACT ---
+        Files.writeString(log(), "INFO restarted\nERROR new one\nERROR new two\n"); // Truncated, then grew past the offset
+        List<String> lines = scan(10);
+
+        // --- ASSERT ---
+        assertEquals(List.of("ERROR new one", "ERROR new two"), lines);
+    }
+
+    @Test
+    void scan_ShouldStartOver_WhenFileIsRotated() throws IOException {
+        // --- ARRANGE ---
+        append("ERROR before rotation\n");
+        scan(10);
+
+        // --- ACT ---
+        Files.move(log(), dir.resolve("sensor.log.1"));
+        append("ERROR after rotation\n");
+        List<String> lines = scan(10);
+
+        // --- ASSERT ---
+        assertEquals(List.of("ERROR after rotation"), lines);
+    }
+
+    @Test
+    void scan_ShouldKeepSeparateState_PerKeywordSet() throws IOException {
+        // --- ARRANGE ---
+        append("ERROR e1\nWARN drift\n");
+        KeywordMatcher drift = KeywordMatcher.of(List.of("drift"));
+
+        // --- ACT ---
+        List<String> errorLines = scan(10);
+        List<String> driftLines = tailer.scan(log(), "drift", drift, 10);
+
+        // --- ASSERT ---
+        assertEquals(List.of("ERROR e1"), errorLines);
+        assertEquals(List.of("WARN drift"), driftLines);
+    }
+}
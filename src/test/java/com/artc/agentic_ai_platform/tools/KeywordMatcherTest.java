@@ -0,0 +1,69 @@
+package com.artc.agentic_ai_platform.tools;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeywordMatcherTest {
+
+    private static boolean matchesBytes(KeywordMatcher matcher, String line) {
+        byte[] bytes = ("##" + line + "##").getBytes(StandardCharsets.UTF_8); // Offsets inside a larger buffer
+        return matcher.matches(ByteBuffer.wrap(bytes), 2, bytes.length - 2);
+    }
+
+    @Test
+    void matches_ShouldFindOverlappingKeywords_ThroughFailureLinks() {
+        // --- ARRANGE ---
+        KeywordMatcher matcher = KeywordMatcher.of(List.of("he", "she", "hers", "his"));
+
+        // --- ACT & ASSERT ---
+        assertTrue(matcher.matches("ushers"));
+        assertTrue(matcher.matches("ahishers"));
+        assertTrue(matcher.matches("xhx he"));
+        assertFalse(matcher.matches("hxsxhi"));
+        assertFalse(matcher.matches(""));
+    }
+
+    @Test
+    void matches_ShouldIgnoreAsciiCase_OnBothSides() {
+        // --- ARRANGE ---
+        KeywordMatcher matcher = KeywordMatcher.of(List.of("Error", "critical"));
+
+        // --- ACT & ASSERT ---
+        assertTrue(matcher.matches("[10:00] ERROR: sensor"));
+        assertTrue(matcher.matches("[10:00] CrItIcAl"));
+        assertTrue(matchesBytes(matcher, "eRRoR"));
+        assertFalse(matcher.matches("[10:00] err or"));
+    }
+
+    @Test
+    void matches_ShouldAgree_ForStringsAndBytes() {
+        // --- ARRANGE ---
+        KeywordMatcher matcher = KeywordMatcher.of(List.of("150°c", "überhitzt", "🔥", "drift"));
+        List<String> lines = List.of("Temperature 150°C", "Temperature 150°F", "Motor ÜBERHITZT", "Motor überhitzt",
+                "fire 🔥 here", "fire 🔦 here", "calibration DRIFT", "all good", "lone \uD83D surrogate");
+
+        // --- ACT & ASSERT ---
+        for (String line : lines) {
+            assertEquals(matchesBytes(matcher, line), matcher.matches(line), line);
+        }
+        assertTrue(matcher.matches("Temperature 150°C"));
+        assertFalse(matcher.matches("Motor ÜBERHITZT"), "Only ASCII letters are case-folded");
+        assertTrue(matcher.matches("fire 🔥 here"));
+        assertFalse(matcher.matches("fire 🔦 here"));
+    }
+
+    @Test
+    void of_ShouldMatchNothing_WithoutKeywords() {
+        // --- ARRANGE ---
+        KeywordMatcher matcher = KeywordMatcher.of(List.of(" ", ""));
+
+        // --- ACT & ASSERT ---
+        assertFalse(matcher.matches("anything at all"));
+        assertFalse(matchesBytes(matcher, "anything at all"));
+    }
+}
@@ -1,7 +1,18 @@
 package com.artc.agentic_ai_platform.tools;
 
+import com.artc.agentic_ai_platform.config.AppConfig;
+import com.artc.agentic_ai_platform.storage.RamStorage;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -11,7 +22,7 @@ class LogAnalyzerToolTest {
 
     @BeforeEach
     void setup() {
-        tool = new LogAnalyzerTool();
+        tool = new LogAnalyzerTool(new AppConfig(), new RamStorage(100), Runnable::run, Runnable::run);
     }
 
     @Test
@@ -74,4 +85,127 @@ class LogAnalyzerToolTest {
 
         assertTrue(result.contains("System started"), "Should return INFO logs if explicitly requested");
     }
-}
\ No newline at end of file
+
+    @Test
+    void execute_ShouldMatchAnyOfSeveralKeywords_AndReuseTheMatcher() {
+        // --- ACT ---
+        String result = tool.execute("server.log|started, drift");
+
+        // --- ASSERT ---
+        assertTrue(result.contains("System started"));
+        assertTrue(result.contains("calibration drift 2%"));
+        assertTrue(result.contains("CRITICAL"), "always_match keywords still apply");
+        assertFalse(result.contains("Heartbeat"));
+        assertSame(tool.matcher("drift,started"), tool.matcher("started, drift"), "Same keyword set, same automaton");
+    }
+
+    @Test
+    void execute_ShouldUseConfiguredAlwaysMatchKeywords() {
+        // --- ARRANGE ---
+        AppConfig config = new AppConfig();
+        config.getTools().getLogAnalyzer().setAlwaysMatch(List.of());
+        LogAnalyzerTool strict = new LogAnalyzerTool(config, new RamStorage(100), Runnable::run, Runnable::run);
+
+        // --- ACT ---
+        String result = strict.execute("server.log|drift");
+
+        // --- ASSERT ---
+        assertTrue(result.contains("calibration drift 2%"));
+        assertFalse(result.contains("CRITICAL"), "Errors are not forced in when always_match is empty");
+    }
+
+    private static LogAnalyzerTool toolReading(Path rootDir) {
+        AppConfig config = new AppConfig();
+        config.getTools().getLogAnalyzer().setRootDir(rootDir.toString());
+        return new LogAnalyzerTool(config, new RamStorage(100), Runnable::run, Runnable::run);
+    }
+
+    @Test
+    void execute_ShouldScanRealFile_UnderRootDir(@TempDir Path root) throws IOException {
+        // --- ARRANGE ---
+        Files.writeString(root.resolve("sensor_primary.log"), """
+                [11:00:00] INFO Press online
+                [11:00:01] WARN Vibration above threshold
+                [11:00:02] ERROR Spindle stalled
+                """);
+        LogAnalyzerTool fileTool = toolReading(root);
+
+        // --- ACT ---
+        String relative = fileTool.execute("sensor_primary.log|vibration");
+        String absolute = fileTool.execute(root.resolve("sensor_primary.log") + "|vibration");
+
+        // --- ASSERT ---
+        assertEquals("[11:00:01] WARN Vibration above threshold\n[11:00:02] ERROR Spindle stalled", relative);
+        assertEquals(relative, absolute);
+    }
+
+    @Test
+    void execute_ShouldBuildIndex_AndAnswerTheSameFromIt(@TempDir Path root) throws IOException {
+        // --- ARRANGE ---
+        Path log = Files.writeString(root.resolve("press.log"), """
+                [11:00:00] INFO Press online
+                [11:00:01] WARN Vibration above threshold
+                [11:00:02] ERROR Spindle stalled
+                [11:05:00] WARN Vibration above threshold again
+                """);
+        AppConfig config = new AppConfig();
+        config.getTools().getLogAnalyzer().setRootDir(root.toString());
+        config.getTools().getLogAnalyzer().getIndex().setEnabled(true);
+        config.getTools().getLogAnalyzer().getIndex().setMinFileMb(0);
+        LogAnalyzerTool indexed = new LogAnalyzerTool(config, new RamStorage(100), Runnable::run, Runnable::run); // Builds inline
+
+        // --- ACT ---
+        String scanned = indexed.execute("press.log|vibration");
+        boolean built = Files.exists(LogIndex.sidecar(log));
+        String fromIndex = indexed.execute("press.log|vibration");
+        String window = indexed.execute("press.log|vibration|11:00:02..11:10:00");
+
+        // --- ASSERT ---
+        assertTrue(built);
+        assertEquals(scanned, fromIndex);
+        assertEquals("[11:00:02] ERROR Spindle stalled\n[11:05:00] WARN Vibration above threshold again", window);
+    }
+
+    @Test
+    void execute_ShouldApplyTimeWindow_ToSampleLog() {
+        // --- ACT ---
+        String result = tool.execute("server.log|drift|10:00:04..");
+
+        // --- ASSERT ---
+        assertFalse(result.contains("drift"));
+        assertTrue(result.contains("CRITICAL"));
+    }
+
+    @Test
+    void execute_ShouldScanRotatedGzipFile_LikeThePlainOne(@TempDir Path root) throws IOException {
+        // --- ARRANGE ---
+        String content = """
+                [11:00:00] INFO Press online
+                [11:00:01] WARN Vibration above threshold
+                [11:00:02] ERROR Spindle stalled
+                """;
+        Files.writeString(root.resolve("press.log"), content);
+        try (OutputStream gz = new GZIPOutputStream(Files.newOutputStream(root.resolve("press.log.1.gz")))) {
+            gz.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        LogAnalyzerTool fileTool = toolReading(root);
+
+        // --- ACT & ASSERT ---
+        assertEquals(fileTool.execute("press.log|vibration"), fileTool.execute("press.log.1.gz|vibration"));
+    }
+
+    @Test
+    void execute_ShouldNotReadOutsideRootDir(@TempDir Path dir) throws IOException {
+        // --- ARRANGE ---
+        Path root = Files.createDirectory(dir.resolve("logs"));
+        Files.writeString(dir.resolve("secret.log"), "ERROR password=hunter2\n");
+        LogAnalyzerTool fileTool = toolReading(root);
+
+        // --- ACT ---
+        String result = fileTool.execute("../secret.log");
+
+        // --- ASSERT ---
+        assertFalse(result.contains("hunter2"));
+        assertTrue(result.contains("SAFETY_LOCK"), "Unknown files are answered from the sample log");
+    }
+}
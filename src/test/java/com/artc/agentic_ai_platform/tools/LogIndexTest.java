@@ -0,0 +1,120 @@
+package com.artc.agentic_ai_platform.tools;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogIndexTest {
+
+    @TempDir Path dir;
+
+    private final MappedLogScanner scanner = new MappedLogScanner(4096, Runnable::run);
+
+    // One line per second from 10:00:00, with a few keywords spread around (and inside longer tokens)
+    private Path bigLog() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 5_000; i++) {
+            String message = i % 97 == 0 ? "ERROR Spindle_stalled" : i % 31 == 0 ? "WARN Calibration drifted 2%"
+                    : i % 53 == 0 ? "INFO Température 150°C" : "INFO heartbeat " + i;
+            sb.append(String.format("[%02d:%02d:%02d] %s\r\n", 10 + i / 3600, i / 60 % 60, i % 60, message));
+            if (i % 500 == 0) sb.append("    at continuation.without.Timestamp(error)\n");
+        }
+        return Files.writeString(dir.resolve("sensor.log"), sb.toString(), StandardCharsets.UTF_8);
+    }
+
+    private static List<String> query(LogIndex index, Path file, List<String> keywords, TimeWindow window, int limit) throws IOException {
+        try (FileChannel channel = FileChannel.open(file)) {
+            return index.query(channel, KeywordMatcher.of(keywords), window, limit);
+        }
+    }
+
+    private List<String> scan(Path file, List<String> keywords, TimeWindow window, int limit) throws IOException {
+        KeywordMatcher matcher = KeywordMatcher.of(keywords);
+        return scanner.scan(file, window == null ? matcher : window.and(matcher), limit);
+    }
+
+    @Test
+    void query_ShouldAnswerLikeAFullScan() throws IOException {
+        // --- ARRANGE ---
+        Path file = bigLog();
+        LogIndex.build(file, 16 * 1024); // Several segments
+        LogIndex index = LogIndex.load(LogIndex.sidecar(file));
+
+        // --- ACT & ASSERT ---
+        for (List<String> keywords : List.of(List.of("error"), List.of("drift", "critical"), List.of("STALLED"),
+                List.of("150°c"), List.of("heartbeat", "error"), List.of("nothing_like_this"))) {
+            assertEquals(scan(file, keywords, null, 50), query(index, file, keywords, null, 50), keywords.toString());
+            assertEquals(scan(file, keywords, null, Integer.MAX_VALUE), query(index, file, keywords, null, Integer.MAX_VALUE), keywords.toString());
+        }
+    }
+
+    @Test
+    void query_ShouldKeepOnlyLinesInTheTimeWindow() throws IOException {
+        // --- ARRANGE ---
+        Path file = bigLog();
+        LogIndex.build(file, 16 * 1024);
+        LogIndex index = LogIndex.load(LogIndex.sidecar(file));
+        TimeWindow window = TimeWindow.parse("10:30:00..10:40:00");
+
+        // --- ACT ---
+        List<String> lines = query(index, file, List.of("error", "drift"), window, Integer.MAX_VALUE);
+
+        // --- ASSERT ---
+        assertEquals(scan(file, List.of("error", "drift"), window, Integer.MAX_VALUE), lines);
+        assertFalse(lines.isEmpty());
+        assertTrue(lines.stream().allMatch(line -> line.compareTo("[10:30:00]") >= 0 && line.compareTo("[10:40:01]") < 0));
+    }
+
+    @Test
+    void canAnswer_ShouldRefuseKeywordsSpanningSeveralTokens() {
+        // --- ACT & ASSERT ---
+        assertTrue(LogIndex.canAnswer(List.of("error", "150°c", "spindle_stalled")));
+        assertFalse(LogIndex.canAnswer(List.of("error", "disk full")));
+        assertFalse(LogIndex.canAnswer(List.of("safety-lock")));
+    }
+
+    @Test
+    void covers_ShouldFollowTheFile_ThroughAppendsAndRewrites() throws IOException {
+        // --- ARRANGE ---
+        Path file = Files.writeString(dir.resolve("app.log"), "[10:00:00] ERROR one\n[10:00:01] INFO unfinished");
+        LogIndex.build(file, 1024);
+        LogIndex index = LogIndex.load(LogIndex.sidecar(file));
+
+        // --- ACT & ASSERT ---
+        assertEquals(21, index.size(), "Up to the last complete line");
+        try (FileChannel channel = FileChannel.open(file)) {
+            assertTrue(index.covers(channel, LogFiles.fileKey(file), channel.size()));
+        }
+        Files.writeString(file, " line\n[10:00:02] ERROR two\n", StandardOpenOption.APPEND);
+        try (FileChannel channel = FileChannel.open(file)) {
+            assertTrue(index.covers(channel, LogFiles.fileKey(file), channel.size()), "Appends keep the index usable");
+        }
+        Files.writeString(file, "[11:00:00] INFO rewritten from scratch, longer than before\n");
+        try (FileChannel channel = FileChannel.open(file)) {
+            assertFalse(index.covers(channel, LogFiles.fileKey(file), channel.size()));
+        }
+    }
+
+    @Test
+    void load_ShouldRejectIncompleteIndex() throws IOException {
+        // --- ARRANGE ---
+        Path file = bigLog();
+        LogIndex.build(file, 16 * 1024);
+        Path sidecar = LogIndex.sidecar(file);
+        byte[] bytes = Files.readAllBytes(sidecar);
+        Files.write(sidecar, Arrays.copyOf(bytes, bytes.length / 2));
+
+        // --- ACT & ASSERT ---
+        assertThrows(IOException.class, () -> LogIndex.load(sidecar));
+    }
+}
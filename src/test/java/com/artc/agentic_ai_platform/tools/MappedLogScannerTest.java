@@ -0,0 +1,143 @@
+package com.artc.agentic_ai_platform.tools;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedLogScannerTest {
+
+    @TempDir Path dir;
+
+    private final ExecutorService pool = Executors.newFixedThreadPool(4);
+    private final LineMatcher errors = KeywordMatcher.of(List.of("drift", "error", "critical"));
+
+    @AfterEach
+    void teardown() {
+        pool.shutdownNow();
+    }
+
+    private Path write(String content) throws IOException {
+        return Files.writeString(dir.resolve("sensor.log"), content, StandardCharsets.UTF_8);
+    }
+
+    // Many lines with a match every few lines, so the limit falls somewhere in the middle chunks
+    private static String bigLog(int lines) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < lines; i++) {
+            String level = i % 7 == 0 ? "ERROR" : i % 11 == 0 ? "WARN drift" : "INFO";
+            sb.append(String.format("[10:%02d:%02d] %s line %d\n", i / 60 % 60, i % 60, level, i));
+        }
+        return sb.toString();
+    }
+
+    private static List<String> expected(String content, int limit) {
+        List<String> lines = new ArrayList<>();
+        for (String line : content.split("\n")) {
+            String lower = line.strip().toLowerCase();
+            if (lines.size() < limit && (lower.contains("drift") || lower.contains("error") || lower.contains("critical"))) lines.add(line.strip());
+        }
+        return lines;
+    }
+
+    @Test
+    void scan_ShouldReturnFirstMatchesInFileOrder_AcrossManySmallChunks() throws IOException {
+        // --- ARRANGE ---
+        String content = bigLog(2_000);
+        Path file = write(content);
+        MappedLogScanner scanner = new MappedLogScanner(100, pool); // A few lines per chunk
+
+        // --- ACT ---
+        List<String> first50 = scanner.scan(file, errors, 50);
+        List<String> all = scanner.scan(file, errors, Integer.MAX_VALUE);
+
+        // --- ASSERT ---
+        assertEquals(expected(content, 50), first50);
+        assertEquals(expected(content, Integer.MAX_VALUE), all);
+    }
+
+    @Test
+    void chunks_ShouldEndOnLineBoundaries_AndCoverTheWholeFile() throws IOException {
+        // --- ARRANGE ---
+        String content = "short\n" + "x".repeat(300) + "\nlast line without newline";
+        Path file = write(content);
+        MappedLogScanner scanner = new MappedLogScanner(10, pool);
+
+        // --- ACT ---
+        List<long[]> chunks;
+        try (FileChannel channel = FileChannel.open(file)) {
+            chunks = scanner.chunks(channel, 0, channel.size());
+        }
+
+        // --- ASSERT ---
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        assertEquals(0, chunks.get(0)[0]);
+        assertEquals(bytes.length, chunks.get(chunks.size() - 1)[1]);
+        for (int i = 0; i < chunks.size() - 1; i++) {
+            assertEquals(chunks.get(i)[1], chunks.get(i + 1)[0]);
+            assertEquals('\n', bytes[(int) chunks.get(i)[1] - 1], "Every chunk but the last ends with a newline");
+        }
+    }
+
+    @Test
+    void scan_ShouldMatchCaseInsensitively_AndStripCarriageReturns() throws IOException {
+        // --- ARRANGE ---
+        Path file = write("[10:00:00] INFO ok\r\n[10:00:01] Error: Temperature 150°C\r\n[10:00:02] CRITICAL: shutdown");
+        MappedLogScanner scanner = new MappedLogScanner(1024, pool);
+
+        // --- ACT ---
+        List<String> lines = scanner.scan(file, errors, 50);
+
+        // --- ASSERT ---
+        assertEquals(List.of("[10:00:01] Error: Temperature 150°C", "[10:00:02] CRITICAL: shutdown"), lines);
+    }
+
+    @Test
+    void scanTail_ShouldReturnLastMatchesAndCount_ForARange() throws IOException {
+        // --- ARRANGE ---
+        String content = bigLog(2_000);
+        Path file = write(content);
+        MappedLogScanner scanner = new MappedLogScanner(100, pool);
+        List<String> all = expected(content, Integer.MAX_VALUE);
+
+        // --- ACT ---
+        MappedLogScanner.Tail tail;
+        try (FileChannel channel = FileChannel.open(file)) {
+            tail = scanner.scanTail(channel, 0, channel.size(), errors, 5);
+        }
+
+        // --- ASSERT ---
+        assertEquals(all.subList(all.size() - 5, all.size()), tail.lines());
+        assertEquals(all.size(), tail.matched());
+    }
+
+    @Test
+    void lastLineEnd_ShouldSkipTheUnfinishedLine() throws IOException {
+        // --- ARRANGE ---
+        Path file = write("first\n" + "x".repeat(20_000) + "\nunfinished");
+
+        // --- ACT & ASSERT ---
+        try (FileChannel channel = FileChannel.open(file)) {
+            assertEquals(20_007, MappedLogScanner.lastLineEnd(channel, 0, channel.size()));
+            assertEquals(6, MappedLogScanner.lastLineEnd(channel, 0, 20_006), "Looks back across probe-sized reads");
+            assertEquals(20_007, MappedLogScanner.lastLineEnd(channel, 20_007, channel.size()), "No '\\n' after 'from'");
+        }
+    }
+
+    @Test
+    void scan_ShouldReturnNothing_ForEmptyFile() throws IOException {
+        // --- ACT & ASSERT ---
+        assertTrue(new MappedLogScanner(1024, pool).scan(write(""), errors, 50).isEmpty());
+    }
+}
@@ -0,0 +1,52 @@
+package com.artc.agentic_ai_platform.tools;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeWindowTest {
+
+    private static long timestamp(String line) {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        return TimeWindow.timestamp(ByteBuffer.wrap(bytes), 0, bytes.length);
+    }
+
+    @Test
+    void timestamp_ShouldReadSupportedFormats() {
+        // --- ACT & ASSERT ---
+        assertEquals(10 * 3600 + 5, timestamp("[10:00:05] ERROR x"));
+        assertEquals(10 * 3600 + 5, timestamp("10:00:05 ERROR x"));
+        long day = 19844L * 86400; // 2024-05-01
+        assertEquals(day + 10 * 3600 + 5, timestamp("2024-05-01T10:00:05Z ERROR x"));
+        assertEquals(day + 10 * 3600 + 5, timestamp("[2024-05-01 10:00:05] ERROR x"));
+    }
+
+    @Test
+    void timestamp_ShouldReturnNone_ForLinesWithoutOne() {
+        // --- ACT & ASSERT ---
+        assertEquals(TimeWindow.NONE, timestamp("    at com.example.Main(Main.java:10)"));
+        assertEquals(TimeWindow.NONE, timestamp("[25:00:00] bad hour"));
+        assertEquals(TimeWindow.NONE, timestamp("2024-02-30 10:00:00 no such day"));
+        assertEquals(TimeWindow.NONE, timestamp("10:00"));
+    }
+
+    @Test
+    void parse_ShouldAcceptOpenEnds_AndRejectGarbage() {
+        // --- ACT ---
+        TimeWindow closed = TimeWindow.parse("10:00:00..10:05:00");
+        TimeWindow openEnd = TimeWindow.parse(" 10:04:00 .. ");
+
+        // --- ASSERT ---
+        assertTrue(closed.contains("[10:05:00] ERROR last second counts"));
+        assertFalse(closed.contains("[10:05:01] ERROR too late"));
+        assertFalse(closed.contains("ERROR no timestamp"));
+        assertTrue(openEnd.contains("[23:59:59] ERROR"));
+        assertFalse(openEnd.contains("[10:03:59] ERROR"));
+        assertNull(TimeWindow.parse(" "));
+        assertThrows(IllegalArgumentException.class, () -> TimeWindow.parse("10:00:00-10:05:00"));
+        assertThrows(IllegalArgumentException.class, () -> TimeWindow.parse("yesterday..today"));
+    }
+}